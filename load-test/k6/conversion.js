@@ -0,0 +1,65 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://app:8080';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000');
+
+export const options = {
+  scenarios: {
+    conversion: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: MAX_VUS / 4 },
+        { duration: '30s', target: MAX_VUS / 2 },
+        { duration: '30s', target: MAX_VUS },
+        { duration: '30s', target: MAX_VUS },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    http_req_duration: ['p(99)<2000'],
+  },
+};
+
+export function setup() {
+  const purchase = JSON.stringify({
+    description: 'Load test',
+    transactionDate: '2023-11-15T10:00:00',
+    amount: '11.25',
+    currency: 'USD',
+  });
+
+  // Waits for the application startup
+  for (let attempt = 0; attempt < 60; attempt++) {
+    const response = http.post(`${BASE_URL}/v1/purchases`, purchase,
+      { headers: { 'Content-Type': 'application/json' } });
+
+    if (response.status === 201) {
+      return { id: response.json('id') };
+    }
+
+    sleep(2);
+  }
+
+  throw new Error('The application is not available');
+}
+
+export default function (data) {
+  const response = http.get(
+    `${BASE_URL}/v1/purchases/${data.id}/exchange-rates/conversion?currency=Real&country=Brazil`);
+
+  check(response, { 'status is 200': (r) => r.status === 200 });
+}
+
+export function handleSummary(data) {
+  const mode = __ENV.MODE || 'platform';
+  return {
+    [`/results/conversion-${mode}-threads.json`]: JSON.stringify(data, null, 2),
+    stdout: `${mode} threads: p95=${data.metrics.http_req_duration.values['p(95)']}ms, ` +
+      `p99=${data.metrics.http_req_duration.values['p(99)']}ms, ` +
+      `requests/s=${data.metrics.http_reqs.values.rate}, ` +
+      `failed=${data.metrics.http_req_failed.values.rate}\n`,
+  };
+}
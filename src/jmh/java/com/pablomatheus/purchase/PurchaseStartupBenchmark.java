@@ -0,0 +1,209 @@
+package com.pablomatheus.purchase;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup of the packaged application as a new pod would start it, from the launch of the process until it serves its
+ * first request and until it answers its first conversion, against a local stub of the Treasury API. The plain fat jar
+ * is compared with the AOT-processed thin jar, with and without its class data sharing archive, so it must be run on a
+ * build of the {@code aot} profile.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseStartupBenchmark {
+
+    private static final File BUILD_DIRECTORY = new File("target");
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final Pattern PURCHASE_ID = Pattern.compile("\"id\":(\\d+)");
+
+    private static final String PURCHASE = """
+            {"description":"Startup","transactionDate":"2023-11-15T10:00:00","amount":"11.25","currency":"USD"}""";
+
+    private static final byte[] EXCHANGE_RATES = """
+            {"data":[{"record_date":"2023-09-30","country":"Brazil","currency":"Real",\
+            "exchange_rate":"5.031","effective_date":"2023-09-30"}],\
+            "meta":{"count":1,"total-count":1,"total-pages":1}}""".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"jar", "aot", "aot-cds"})
+    private String launch;
+
+    private HttpServer server;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private ProcessBuilder processBuilder;
+
+    private Process process;
+
+    private URI baseUri;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/services/api/fiscal_service/v1/accounting/od/rates_of_exchange", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, EXCHANGE_RATES.length);
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(EXCHANGE_RATES);
+            }
+        });
+        server.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareApplication() throws IOException {
+        int port;
+
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        baseUri = URI.create("http://localhost:" + port);
+
+        processBuilder = new ProcessBuilder(command(port))
+                .directory(BUILD_DIRECTORY)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(BUILD_DIRECTORY, "startup-benchmark.log")));
+
+        processBuilder.environment().put("CLIENT_UNITED_STATES_TREASURY_URL",
+                "http://localhost:" + server.getAddress().getPort() + "/services/api/fiscal_service/");
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() throws InterruptedException {
+        if (process == null) {
+            return;
+        }
+
+        process.destroy();
+
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+
+        process = null;
+    }
+
+    /**
+     * Time until the application accepts its first purchase.
+     */
+    @Benchmark
+    public String startup() throws Exception {
+        process = processBuilder.start();
+        return addPurchase();
+    }
+
+    /**
+     * Time until the application answers its first conversion, including the first call to the Treasury API.
+     */
+    @Benchmark
+    public String firstConversion() throws Exception {
+        process = processBuilder.start();
+        String purchaseId = addPurchase();
+
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve(
+                        "/v1/purchases/" + purchaseId + "/exchange-rates/conversion?currency=Real&country=Brazil")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("The conversion failed with status " + response.statusCode());
+        }
+
+        return response.body();
+    }
+
+    private String addPurchase() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/v1/purchases"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(PURCHASE))
+                .build();
+
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with code " + process.exitValue());
+            }
+
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+                if (response.statusCode() == 201) {
+                    Matcher matcher = PURCHASE_ID.matcher(response.body());
+
+                    if (matcher.find()) {
+                        return matcher.group(1);
+                    }
+                }
+            } catch (ConnectException exception) {
+                // The server is not listening yet
+            }
+
+            Thread.sleep(10);
+        }
+
+        throw new IllegalStateException("The application did not start within " + STARTUP_TIMEOUT);
+    }
+
+    private List<String> command(int port) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+
+        switch (launch) {
+            case "jar" -> command.addAll(List.of("-jar", "app-exec.jar"));
+            case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", "app.jar"));
+            case "aot-cds" -> command.addAll(List.of("-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true",
+                    "-jar", "app.jar"));
+            default -> throw new IllegalArgumentException("Unknown launch " + launch);
+        }
+
+        command.add("--spring.profiles.active=dev");
+        command.add("--server.port=" + port);
+        return command;
+    }
+
+}
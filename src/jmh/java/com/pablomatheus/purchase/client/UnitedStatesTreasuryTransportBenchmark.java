@@ -0,0 +1,137 @@
+package com.pablomatheus.purchase.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pablomatheus.purchase.client.config.UnitedStatesTreasuryClientConfiguration;
+import com.pablomatheus.purchase.config.UnitedStatesTreasuryClientProperties;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.Response;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls of the {@link UnitedStatesTreasuryClient} against a local stub of the Treasury API, comparing the transports
+ * of the {@link UnitedStatesTreasuryClientConfiguration} with the default Feign transport. Each call reads the page
+ * with the {@link ExchangeRateResponseReader}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnitedStatesTreasuryTransportBenchmark {
+
+    @Param({"pooled", "http2", "default"})
+    private String transport;
+
+    @Param({"1", "1000"})
+    private int pageSize;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private CloseableHttpClient httpClient;
+
+    private UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+
+    private final ExchangeRateResponseReader exchangeRateResponseReader = new ExchangeRateResponseReader(new ObjectMapper());
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] page = page(pageSize);
+
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, page.length);
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(page);
+            }
+        });
+        server.start();
+
+        UnitedStatesTreasuryClientProperties properties = new UnitedStatesTreasuryClientProperties();
+        UnitedStatesTreasuryClientConfiguration configuration = new UnitedStatesTreasuryClientConfiguration();
+
+        Client client = switch (transport) {
+            case "pooled" -> {
+                httpClient = configuration.unitedStatesTreasuryHttpClient(properties);
+                yield configuration.unitedStatesTreasuryFeignClient(httpClient);
+            }
+            case "http2" -> configuration.unitedStatesTreasuryHttp2FeignClient();
+            default -> new Client.Default(null, null);
+        };
+
+        unitedStatesTreasuryClient = Feign.builder()
+                .client(client)
+                .contract(new SpringMvcContract())
+                .target(UnitedStatesTreasuryClient.class,
+                        "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void getExchangeRates(Blackhole blackhole) throws IOException {
+        try (Response response = unitedStatesTreasuryClient.getExchangeRates(
+                UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, null, "-effective_date", 1, pageSize)) {
+            blackhole.consume(exchangeRateResponseReader.read(response.body().asInputStream(), blackhole::consume));
+        }
+    }
+
+    private static byte[] page(int size) {
+        StringBuilder page = new StringBuilder("{\"data\":[");
+
+        for (int index = 0; index < size; index++) {
+            if (index > 0) {
+                page.append(',');
+            }
+
+            page.append("{\"record_date\":\"2023-09-30\",\"country\":\"Brazil\",\"currency\":\"Real\",")
+                    .append("\"exchange_rate\":\"5.031\",\"effective_date\":\"2023-09-30\"}");
+        }
+
+        return page.append("],\"meta\":{\"count\":").append(size)
+                .append(",\"total-count\":").append(size)
+                .append(",\"total-pages\":1}}")
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.pablomatheus.purchase.mapper;
+
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.request.PurchaseRequest;
+import com.pablomatheus.purchase.response.PurchaseResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of the {@link PurchaseMapper} done by the purchase creation and retrieval.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseMapperBenchmark {
+
+    private final PurchaseMapper purchaseMapper = new PurchaseMapperImpl();
+
+    private PurchaseRequest purchaseRequest;
+
+    private PurchaseEntity purchaseEntity;
+
+    @Setup
+    public void setUp() {
+        purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setDescription("Benchmark purchase");
+        purchaseRequest.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        purchaseRequest.setAmount(new BigDecimal("123.45"));
+        purchaseRequest.setCurrency(Currency.USD);
+
+        purchaseEntity = purchaseMapper.toEntity(purchaseMapper.toDto(purchaseRequest));
+        purchaseEntity.setId(1L);
+        purchaseEntity.setCreationDate(LocalDateTime.of(2023, 11, 22, 10, 31));
+    }
+
+    @Benchmark
+    public PurchaseEntity requestToEntity() {
+        return purchaseMapper.toEntity(purchaseMapper.toDto(purchaseRequest));
+    }
+
+    @Benchmark
+    public PurchaseResponse entityToResponse() {
+        PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseEntity);
+        return purchaseMapper.toResponse(purchaseDto);
+    }
+
+}
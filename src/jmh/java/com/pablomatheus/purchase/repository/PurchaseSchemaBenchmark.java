@@ -0,0 +1,168 @@
+package com.pablomatheus.purchase.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert and transaction date range scan costs of the {@code purchases} table, before ({@code 4}) and after
+ * ({@code latest}) the expand step of the migration to decimal amounts, big integer identifiers and date indexes.
+ * <p>
+ * Each schema version is migrated by Flyway into its own in-memory H2 database, which is preloaded with purchases
+ * spread over a year. The inserted chunks are rolled back, so every invocation scans the same rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseSchemaBenchmark {
+
+    private static final String INSERT_PURCHASE = "INSERT INTO purchases "
+            + "(id, amount, currency, currency_country, description, transaction_date, creation_date) "
+            + "VALUES (NEXT VALUE FOR \"PURCHASES_SEQ\", ?, 'Dollar', 'United States', 'Benchmark purchase', ?, ?)";
+
+    private static final String FIND_BY_TRANSACTION_DATE = "SELECT id, amount FROM purchases "
+            + "WHERE transaction_date >= ? AND transaction_date < ?";
+
+    /**
+     * Writes and reads the columns of the expand step of the precision migration, as the application does until its
+     * contract step. The sequence value expressions of a row return the same value.
+     */
+    private static final String INSERT_EXPANDED_PURCHASE = "INSERT INTO purchases "
+            + "(amount, transaction_date, creation_date, amount_decimal, id, id_bigint, currency, currency_country, "
+            + "description) VALUES (?, ?, ?, ?, NEXT VALUE FOR \"PURCHASES_SEQ\", NEXT VALUE FOR \"PURCHASES_SEQ\", "
+            + "'Dollar', 'United States', 'Benchmark purchase')";
+
+    private static final String FIND_EXPANDED_BY_TRANSACTION_DATE = "SELECT id, "
+            + "COALESCE(amount_decimal, CAST(amount AS DECIMAL(19, 4))) FROM purchases "
+            + "WHERE transaction_date >= ? AND transaction_date < ?";
+
+    private static final LocalDateTime FIRST_TRANSACTION_DATE = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    @Param({"4", "latest"})
+    private String schemaVersion;
+
+    @Param({"100000"})
+    private int purchases;
+
+    @Param({"500"})
+    private int chunkSize;
+
+    private boolean expanded;
+
+    private Connection connection;
+
+    private PreparedStatement insertPurchase;
+
+    private PreparedStatement findByTransactionDate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:purchase-schema-" + schemaVersion + ";DB_CLOSE_DELAY=-1;MODE=MYSQL";
+
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .target(schemaVersion)
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(url, "sa", "");
+        connection.setAutoCommit(false);
+        expanded = !"4".equals(schemaVersion);
+        insertPurchase = connection.prepareStatement(expanded ? INSERT_EXPANDED_PURCHASE : INSERT_PURCHASE);
+        findByTransactionDate = connection.prepareStatement(
+                expanded ? FIND_EXPANDED_BY_TRANSACTION_DATE : FIND_BY_TRANSACTION_DATE);
+
+        for (int index = 0; index < purchases; index++) {
+            addPurchase(index);
+
+            if ((index + 1) % chunkSize == 0) {
+                insertPurchase.executeBatch();
+            }
+        }
+
+        insertPurchase.executeBatch();
+        connection.commit();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public int insertChunk() throws SQLException {
+        for (int index = 0; index < chunkSize; index++) {
+            addPurchase(index);
+        }
+
+        int inserted = insertPurchase.executeBatch().length;
+        connection.rollback();
+        return inserted;
+    }
+
+    /**
+     * Finds the purchases of a single day, which is a full table scan without the transaction date index.
+     */
+    @Benchmark
+    public BigDecimal findByTransactionDateRange() throws SQLException {
+        LocalDateTime from = FIRST_TRANSACTION_DATE.plusDays(180);
+        findByTransactionDate.setTimestamp(1, Timestamp.valueOf(from));
+        findByTransactionDate.setTimestamp(2, Timestamp.valueOf(from.plusDays(1)));
+
+        BigDecimal total = BigDecimal.ZERO;
+
+        try (ResultSet resultSet = findByTransactionDate.executeQuery()) {
+            while (resultSet.next()) {
+                total = total.add(resultSet.getBigDecimal(2));
+            }
+        }
+
+        return total;
+    }
+
+    private void addPurchase(int index) throws SQLException {
+        LocalDateTime transactionDate = FIRST_TRANSACTION_DATE.plusMinutes(index * 5L % (365L * 24 * 60));
+
+        insertPurchase.setBigDecimal(1, BigDecimal.valueOf(index % 100_000 + 1, 2));
+        insertPurchase.setTimestamp(2, Timestamp.valueOf(transactionDate));
+        insertPurchase.setTimestamp(3, Timestamp.valueOf(transactionDate.plusSeconds(1)));
+
+        if (expanded) {
+            insertPurchase.setBigDecimal(4, BigDecimal.valueOf(index % 100_000 + 1, 2));
+        }
+
+        insertPurchase.addBatch();
+    }
+
+}
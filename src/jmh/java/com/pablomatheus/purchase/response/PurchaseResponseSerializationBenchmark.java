@@ -0,0 +1,62 @@
+package com.pablomatheus.purchase.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a converted {@link PurchaseResponse}, with the same defaults of the application
+ * {@link ObjectMapper}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseResponseSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private PurchaseResponse purchaseResponse;
+
+    @Setup
+    public void setUp() {
+        PurchaseAmountResponse originalAmount = new PurchaseAmountResponse();
+        originalAmount.setValue("123.45");
+        originalAmount.setCurrency("Dollar");
+        originalAmount.setCountry("United States");
+
+        PurchaseAmountResponse convertedAmount = new PurchaseAmountResponse();
+        convertedAmount.setValue("599.72");
+        convertedAmount.setCurrency("Real");
+        convertedAmount.setCountry("Brazil");
+        convertedAmount.setExchangeRate("4.858");
+
+        purchaseResponse = new PurchaseResponse();
+        purchaseResponse.setId(1L);
+        purchaseResponse.setDescription("Benchmark purchase");
+        purchaseResponse.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        purchaseResponse.setOriginalAmount(originalAmount);
+        purchaseResponse.setConvertedAmount(convertedAmount);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(purchaseResponse);
+    }
+
+}
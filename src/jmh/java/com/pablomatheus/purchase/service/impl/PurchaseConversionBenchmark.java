@@ -0,0 +1,95 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.dto.PurchaseAmountDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of a single purchase conversion: the amount conversion and the Treasury filter of the exchange rate
+ * lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseConversionBenchmark {
+
+    @Param({"10.00", "123456.78"})
+    private String amount;
+
+    @Param({"4.858", "1234.5678"})
+    private String exchangeRate;
+
+    private PurchaseDto purchaseDto;
+
+    private ExchangeRateDataResponse exchangeRateDataResponse;
+
+    private PurchaseServiceImpl.ConversionRate conversionRate;
+
+    private LocalDate date;
+
+    @Setup
+    public void setUp() {
+        PurchaseAmountDto originalAmount = new PurchaseAmountDto();
+        originalAmount.setValue(amount);
+        originalAmount.setCurrency("Dollar");
+        originalAmount.setCountry("United States");
+
+        purchaseDto = new PurchaseDto();
+        purchaseDto.setId(1L);
+        purchaseDto.setDescription("Benchmark purchase");
+        purchaseDto.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        purchaseDto.setOriginalAmount(originalAmount);
+
+        exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency("Real");
+        exchangeRateDataResponse.setCountry("Brazil");
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal(exchangeRate));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+
+        conversionRate = PurchaseServiceImpl.ConversionRate.of(exchangeRateDataResponse);
+
+        date = purchaseDto.getTransactionDate().toLocalDate();
+    }
+
+    @Benchmark
+    public PurchaseAmountDto getConvertedAmount() {
+        return PurchaseServiceImpl.getConvertedAmount(purchaseDto, conversionRate);
+    }
+
+    /**
+     * Baseline of the conversion with {@link BigDecimal} only.
+     */
+    @Benchmark
+    public String getConvertedAmountWithBigDecimal() {
+        return new BigDecimal(purchaseDto.getOriginalAmount().getValue())
+                .multiply(exchangeRateDataResponse.getExchangeRate())
+                .setScale(2, RoundingMode.HALF_EVEN)
+                .toPlainString();
+    }
+
+    @Benchmark
+    public String getFilter() {
+        return ExchangeRateServiceImpl.getFilter("Real", "Brazil", date);
+    }
+
+}
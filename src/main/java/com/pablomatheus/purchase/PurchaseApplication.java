@@ -1,11 +1,18 @@
 package com.pablomatheus.purchase;
 
+import com.pablomatheus.purchase.config.PurchaseRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@ConfigurationPropertiesScan
+@EnableScheduling
+@ImportRuntimeHints(PurchaseRuntimeHints.class)
 public class PurchaseApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,98 @@
+package com.pablomatheus.purchase.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings, answering whether a value may have been added or was certainly never added.
+ * <p>
+ * The number of bits and of hash functions are derived from the expected number of values and the false positive
+ * probability. The bit positions are taken from a single 64-bit hash of the value, combining its two halves as in
+ * double hashing, and set with atomic updates, so the filter is shared without locks. Values cannot be removed, and the
+ * false positive probability grows beyond the expected one once more values are added.
+ */
+public class BloomFilter {
+
+    private static final double LN_2 = Math.log(2);
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("The expected insertions must be positive and the false positive "
+                                               + "probability must be between 0 and 1");
+        }
+
+        long optimalBitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN_2 * LN_2));
+
+        this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBitCount + Long.SIZE - 1) / Long.SIZE)));
+        this.bitCount = (long) words.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) optimalBitCount / expectedInsertions * LN_2));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+
+        for (int index = 1; index <= hashCount; index++) {
+            long bit = bit(hash, index);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, update) -> current | update);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+
+        for (int index = 1; index <= hashCount; index++) {
+            long bit = bit(hash, index);
+
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private long bit(long hash, int index) {
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+
+        return Math.floorMod(firstHash + (long) index * secondHash, bitCount);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters, followed by the finalizer of MurmurHash3 to spread the bits of short values.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int index = 0; index < value.length(); index++) {
+            hash ^= value.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
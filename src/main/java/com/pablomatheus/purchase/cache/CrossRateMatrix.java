@@ -0,0 +1,297 @@
+package com.pablomatheus.purchase.cache;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Precomputed exchange rates between the {@link Currency currencies} of the purchases, triangulated through the US
+ * Dollar since the Treasury Reporting Rates of Exchange dataset only has the rates of each currency per US Dollar.
+ * <p>
+ * Each row holds the rates per US Dollar in effect on one effective date, together with their inverses, so the rate
+ * between any two currencies on a date is a binary search of the row, two array lookups and one multiplication. The
+ * new rates are merged incrementally: the rows before the earliest changed effective date are kept and only the
+ * following rows are computed again, which for a new quarter are only its own rows. The matrix is replaced as a whole
+ * on each update, which keeps the lookups lock-free.
+ */
+@Component
+public class CrossRateMatrix {
+
+    /**
+     * Scale of the exchange rates kept with the conversions.
+     */
+    private static final int SCALE = 6;
+
+    private static final MathContext MATH_CONTEXT = MathContext.DECIMAL128;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private static final Comparator<String> RECORD_DATE_COMPARATOR = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private volatile Matrix matrix = Matrix.EMPTY;
+
+    public boolean isLoaded() {
+        return matrix.rows().length > 0;
+    }
+
+    public Optional<ExchangeRateDataResponse> get(Currency source, Currency target, LocalDate date) {
+        Matrix currentMatrix = matrix;
+        int index = currentMatrix.floor((int) date.toEpochDay());
+
+        if (index < 0) {
+            return Optional.empty();
+        }
+
+        Row row = currentMatrix.rows()[index];
+        int minimumDate = (int) date.minusMonths(6).toEpochDay();
+        int sourceDate = row.effectiveDates()[source.ordinal()];
+        int targetDate = row.effectiveDates()[target.ordinal()];
+
+        if (sourceDate < minimumDate || targetDate < minimumDate) {
+            return Optional.empty();
+        }
+
+        BigDecimal crossRate = row.rates()[target.ordinal()].multiply(row.inverseRates()[source.ordinal()], MATH_CONTEXT);
+
+        // The US Dollar rate is always in effect, so the cross rate takes effect with the latest rate of the others
+        int effectiveDate = source == Currency.USD ? targetDate
+                : target == Currency.USD ? sourceDate
+                : Math.max(sourceDate, targetDate);
+
+        return Optional.of(toExchangeRate(target.getName(), target.getCountry(), crossRate, LocalDate.ofEpochDay(effectiveDate)));
+    }
+
+    /**
+     * Triangulates the rate between two currencies from their rates per US Dollar with the same arithmetic as the
+     * matrix, for the currencies or dates the matrix does not have. The effective date may be {@code null} when
+     * neither rate has one.
+     */
+    public static ExchangeRateDataResponse triangulate(String currency, String country, BigDecimal sourceRate,
+                                                       BigDecimal targetRate, LocalDate effectiveDate) {
+
+        BigDecimal crossRate = targetRate.multiply(BigDecimal.ONE.divide(sourceRate, MATH_CONTEXT), MATH_CONTEXT);
+        return toExchangeRate(currency, country, crossRate, effectiveDate);
+    }
+
+    /**
+     * Merges the exchange rates of the builder, computing again only the rows from the earliest effective date whose
+     * exchange rates changed.
+     */
+    public synchronized void update(Builder builder) {
+        Matrix currentMatrix = matrix;
+        Integer changedDate = null;
+
+        for (Map.Entry<Integer, Point> entry : builder.points.entrySet()) {
+            if (currentMatrix.changes(entry.getKey(), entry.getValue())) {
+                changedDate = entry.getKey();
+                break;
+            }
+        }
+
+        if (changedDate == null) {
+            return;
+        }
+
+        int keptRows = currentMatrix.ceiling(changedDate);
+
+        // The exchange rates effective from the changed date on, the new ones replacing the current ones
+        TreeMap<Integer, BigDecimal[]> changedRates = new TreeMap<>();
+
+        for (int index = keptRows; index < currentMatrix.rows().length; index++) {
+            Row row = currentMatrix.rows()[index];
+
+            for (Currency currency : CURRENCIES) {
+                if (currency != Currency.USD && row.effectiveDates()[currency.ordinal()] == row.date()) {
+                    changedRates.computeIfAbsent(row.date(), date -> new BigDecimal[CURRENCIES.length])[currency.ordinal()] =
+                            row.rates()[currency.ordinal()];
+                }
+            }
+        }
+
+        builder.points.tailMap(changedDate).forEach((date, point) -> {
+            BigDecimal[] rates = changedRates.computeIfAbsent(date, key -> new BigDecimal[CURRENCIES.length]);
+
+            for (int column = 0; column < CURRENCIES.length; column++) {
+                if (point.rates[column] != null) {
+                    rates[column] = point.rates[column];
+                }
+            }
+        });
+
+        Row[] rows = Arrays.copyOf(currentMatrix.rows(), keptRows + changedRates.size());
+        int[] dates = Arrays.copyOf(currentMatrix.dates(), rows.length);
+        Row previous = keptRows > 0 ? rows[keptRows - 1] : Row.FIRST;
+        int index = keptRows;
+
+        for (Map.Entry<Integer, BigDecimal[]> entry : changedRates.entrySet()) {
+            previous = previous.next(entry.getKey(), entry.getValue());
+            rows[index] = previous;
+            dates[index] = entry.getKey();
+            index++;
+        }
+
+        matrix = new Matrix(dates, rows);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of effective dates in the matrix.
+     */
+    public int getSize() {
+        return matrix.rows().length;
+    }
+
+    /**
+     * Returns the countries of the currencies in the matrix, which narrow down the exchange rates to be read.
+     */
+    public static List<String> getCountries() {
+        return Arrays.stream(CURRENCIES).filter(currency -> currency != Currency.USD).map(Currency::getCountry).toList();
+    }
+
+    /**
+     * Rounds the cross rate to the scale kept with the conversions, removing the trailing zeros like the exchange rates
+     * returned by the Treasury API.
+     */
+    private static ExchangeRateDataResponse toExchangeRate(String currency, String country, BigDecimal crossRate,
+                                                           LocalDate effectiveDate) {
+
+        BigDecimal exchangeRate = crossRate.setScale(SCALE, RoundingMode.HALF_EVEN).stripTrailingZeros();
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(currency);
+        exchangeRateDataResponse.setCountry(country);
+        exchangeRateDataResponse.setExchangeRate(exchangeRate.scale() < 1 ? exchangeRate.setScale(1) : exchangeRate);
+        exchangeRateDataResponse.setEffectiveDate(effectiveDate == null ? null : effectiveDate.toString());
+        return exchangeRateDataResponse;
+    }
+
+    /**
+     * Groups the exchange rates of the currencies in the matrix by effective date as they are read, keeping the latest
+     * record of each effective date. The exchange rates of other currencies are ignored.
+     */
+    public static class Builder {
+
+        private final TreeMap<Integer, Point> points = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        public void add(ExchangeRateDataResponse exchangeRate) {
+            Optional<Currency> currency = Currency.of(exchangeRate.getCurrency(), exchangeRate.getCountry());
+
+            if (currency.isEmpty() || currency.get() == Currency.USD || exchangeRate.getEffectiveDate() == null ||
+                exchangeRate.getExchangeRate() == null || exchangeRate.getExchangeRate().signum() <= 0) {
+                return;
+            }
+
+            int column = currency.get().ordinal();
+            Point point = points.computeIfAbsent((int) LocalDate.parse(exchangeRate.getEffectiveDate()).toEpochDay(),
+                    date -> new Point());
+
+            if (point.rates[column] == null ||
+                RECORD_DATE_COMPARATOR.compare(exchangeRate.getRecordDate(), point.recordDates[column]) >= 0) {
+                point.rates[column] = exchangeRate.getExchangeRate();
+                point.recordDates[column] = exchangeRate.getRecordDate();
+            }
+        }
+
+    }
+
+    private static class Point {
+
+        private final BigDecimal[] rates = new BigDecimal[CURRENCIES.length];
+
+        private final String[] recordDates = new String[CURRENCIES.length];
+
+    }
+
+    /**
+     * Rates per US Dollar in effect on a date, indexed by the ordinal of the currency. A currency without an exchange
+     * rate yet has the minimum effective date, so it is never in effect.
+     */
+    private record Row(int date, BigDecimal[] rates, BigDecimal[] inverseRates, int[] effectiveDates) {
+
+        static final Row FIRST = first();
+
+        static Row first() {
+            BigDecimal[] rates = new BigDecimal[CURRENCIES.length];
+            BigDecimal[] inverseRates = new BigDecimal[CURRENCIES.length];
+            int[] effectiveDates = new int[CURRENCIES.length];
+            Arrays.fill(effectiveDates, Integer.MIN_VALUE);
+
+            rates[Currency.USD.ordinal()] = BigDecimal.ONE;
+            inverseRates[Currency.USD.ordinal()] = BigDecimal.ONE;
+            effectiveDates[Currency.USD.ordinal()] = Integer.MAX_VALUE;
+
+            return new Row(Integer.MIN_VALUE, rates, inverseRates, effectiveDates);
+        }
+
+        Row next(int date, BigDecimal[] changedRates) {
+            BigDecimal[] nextRates = rates.clone();
+            BigDecimal[] nextInverseRates = inverseRates.clone();
+            int[] nextEffectiveDates = effectiveDates.clone();
+
+            for (int column = 0; column < changedRates.length; column++) {
+                if (changedRates[column] != null) {
+                    nextRates[column] = changedRates[column];
+                    nextInverseRates[column] = BigDecimal.ONE.divide(changedRates[column], MATH_CONTEXT);
+                    nextEffectiveDates[column] = date;
+                }
+            }
+
+            return new Row(date, nextRates, nextInverseRates, nextEffectiveDates);
+        }
+
+    }
+
+    private record Matrix(int[] dates, Row[] rows) {
+
+        static final Matrix EMPTY = new Matrix(new int[0], new Row[0]);
+
+        int floor(int date) {
+            int index = Arrays.binarySearch(dates, date);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        int ceiling(int date) {
+            int index = Arrays.binarySearch(dates, date);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * Returns whether the exchange rates of the point are not the ones already effective on its date.
+         */
+        boolean changes(int date, Point point) {
+            int index = Arrays.binarySearch(dates, date);
+
+            for (int column = 0; column < point.rates.length; column++) {
+                if (point.rates[column] == null) {
+                    continue;
+                }
+
+                if (index < 0 || rows[index].effectiveDates()[column] != date ||
+                    rows[index].rates()[column].compareTo(point.rates[column]) != 0) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
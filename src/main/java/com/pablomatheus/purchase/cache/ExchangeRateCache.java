@@ -0,0 +1,171 @@
+package com.pablomatheus.purchase.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.config.ExchangeRateCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process cache of the exchange rates returned by the United States Treasury API.
+ * <p>
+ * Each entry is keyed by currency, country and the effective date of the rate, and remembers the latest date it was
+ * confirmed to be the newest rate for. Since the Treasury returned no newer rate up to that date, the same entry
+ * answers every lookup between the effective date and that confirmation date. The time of the confirmation is only
+ * refreshed together with the date that was confirmed, so a confirmation of an earlier date never extends the time to
+ * live of a later one.
+ * <p>
+ * An entry only answers lookups during its time to live. After that it is kept as the last known exchange rate, which
+ * is served by {@link #getStale} while the Treasury API is unavailable, until it is evicted by the maximum size.
+ */
+@Slf4j
+@Component
+public class ExchangeRateCache {
+
+    private final boolean enabled;
+
+    private final long timeToLiveNanos;
+
+    private final Ticker ticker;
+
+    private final Cache<ExchangeRateWindowKey, ExchangeRateWindow> windows;
+
+    private final Map<CurrencyKey, NavigableMap<LocalDate, ExchangeRateWindowKey>> effectiveDates = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExchangeRateCache(ExchangeRateCacheProperties properties) {
+        this(properties, Ticker.systemTicker());
+    }
+
+    ExchangeRateCache(ExchangeRateCacheProperties properties, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.timeToLiveNanos = properties.getTimeToLive().toNanos();
+        this.ticker = ticker;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .<ExchangeRateWindowKey, ExchangeRateWindow>evictionListener(this::onEviction)
+                .build();
+    }
+
+    public Optional<ExchangeRateDataResponse> get(String currency, String country, LocalDate date) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        ExchangeRateWindow window = getWindow(currency, country, date);
+
+        if (window == null || window.confirmedUntil().isBefore(date) || !isFresh(window)) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(window.exchangeRate());
+    }
+
+    /**
+     * Returns the last known exchange rate on or before the date within the last 6 months, regardless of the time to
+     * live of the entry and whether a newer exchange rate was published since then.
+     */
+    public Optional<ExchangeRateDataResponse> getStale(String currency, String country, LocalDate date) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(getWindow(currency, country, date)).map(ExchangeRateWindow::exchangeRate);
+    }
+
+    public void put(String currency, String country, LocalDate date, ExchangeRateDataResponse exchangeRate) {
+        if (!enabled || exchangeRate.getEffectiveDate() == null) {
+            return;
+        }
+
+        LocalDate effectiveDate = LocalDate.parse(exchangeRate.getEffectiveDate());
+        ExchangeRateWindowKey key = new ExchangeRateWindowKey(currency, country, effectiveDate);
+
+        // A fresh entry confirmed up to a later date already answers the lookups up to this date
+        windows.asMap().merge(key, new ExchangeRateWindow(exchangeRate, date, ticker.read()),
+                (current, candidate) -> isFresh(current) && current.confirmedUntil().isAfter(date) ? current : candidate);
+
+        effectiveDates.computeIfAbsent(key.currencyKey(), currencyKey -> new ConcurrentSkipListMap<>())
+                .put(effectiveDate, key);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getSize() {
+        return windows.estimatedSize();
+    }
+
+    private ExchangeRateWindow getWindow(String currency, String country, LocalDate date) {
+        NavigableMap<LocalDate, ExchangeRateWindowKey> currencyEffectiveDates = effectiveDates.get(new CurrencyKey(currency, country));
+        Map.Entry<LocalDate, ExchangeRateWindowKey> floorEntry = currencyEffectiveDates == null
+                ? null
+                : currencyEffectiveDates.floorEntry(date);
+
+        if (floorEntry == null || floorEntry.getKey().isBefore(date.minusMonths(6))) {
+            return null;
+        }
+
+        return windows.getIfPresent(floorEntry.getValue());
+    }
+
+    private boolean isFresh(ExchangeRateWindow window) {
+        return ticker.read() - window.confirmedAt() < timeToLiveNanos;
+    }
+
+    private void onEviction(ExchangeRateWindowKey key, ExchangeRateWindow window, RemovalCause cause) {
+        evictions.increment();
+
+        if (key == null) {
+            return;
+        }
+
+        log.debug("Exchange rate cache entry evicted for currency [{}], country [{}] and effective date [{}] due to [{}]",
+                key.currency(), key.country(), key.effectiveDate(), cause);
+
+        effectiveDates.computeIfPresent(key.currencyKey(), (currencyKey, currencyEffectiveDates) -> {
+            currencyEffectiveDates.remove(key.effectiveDate(), key);
+            return currencyEffectiveDates.isEmpty() ? null : currencyEffectiveDates;
+        });
+    }
+
+    private record CurrencyKey(String currency, String country) {
+    }
+
+    private record ExchangeRateWindowKey(String currency, String country, LocalDate effectiveDate) {
+
+        CurrencyKey currencyKey() {
+            return new CurrencyKey(currency, country);
+        }
+
+    }
+
+    private record ExchangeRateWindow(ExchangeRateDataResponse exchangeRate, LocalDate confirmedUntil, long confirmedAt) {
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.pablomatheus.purchase.cache;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory index of the whole Treasury Reporting Rates of Exchange dataset.
+ * <p>
+ * The exchange rates of each currency and country are kept sorted by effective date as primitive epoch days, so the
+ * latest exchange rate on or before a date is found with a binary search. The index is replaced as a whole on each
+ * load, which keeps the lookups lock-free.
+ */
+@Component
+public class ExchangeRateIndex {
+
+    private static final Comparator<ExchangeRateDataResponse> EFFECTIVE_DATE_COMPARATOR = Comparator
+            .comparing(ExchangeRateDataResponse::getEffectiveDate)
+            .thenComparing(ExchangeRateDataResponse::getRecordDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private volatile Map<CurrencyKey, CurrencyExchangeRates> exchangeRates;
+
+    public boolean isLoaded() {
+        return exchangeRates != null;
+    }
+
+    public Optional<ExchangeRateDataResponse> get(String currency, String country, LocalDate date) {
+        Map<CurrencyKey, CurrencyExchangeRates> currentExchangeRates = exchangeRates;
+
+        if (currentExchangeRates == null) {
+            return Optional.empty();
+        }
+
+        CurrencyExchangeRates currencyExchangeRates = currentExchangeRates.get(new CurrencyKey(currency, country));
+
+        if (currencyExchangeRates == null) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(currencyExchangeRates.floor(
+                (int) date.toEpochDay(), (int) date.minusMonths(6).toEpochDay()));
+    }
+
+    public void load(Collection<ExchangeRateDataResponse> data) {
+        Builder builder = builder();
+        data.forEach(builder::add);
+        load(builder);
+    }
+
+    public void load(Builder builder) {
+        Map<CurrencyKey, CurrencyExchangeRates> loadedExchangeRates = new HashMap<>(builder.groupedData.size() * 2);
+        builder.groupedData.forEach((currencyKey, currencyData) ->
+                loadedExchangeRates.put(currencyKey, CurrencyExchangeRates.of(currencyData)));
+
+        exchangeRates = Map.copyOf(loadedExchangeRates);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getSize() {
+        Map<CurrencyKey, CurrencyExchangeRates> currentExchangeRates = exchangeRates;
+        return currentExchangeRates == null
+                ? 0
+                : currentExchangeRates.values().stream().mapToInt(rates -> rates.effectiveDates().length).sum();
+    }
+
+    /**
+     * Groups the exchange rates of the next load as they are read, so the pages of the dataset never need to be kept
+     * as a whole. The currency and country of the grouped exchange rates share the same instances.
+     */
+    public static class Builder {
+
+        private final Map<CurrencyKey, List<ExchangeRateDataResponse>> groupedData = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public void add(ExchangeRateDataResponse exchangeRate) {
+            if (exchangeRate.getEffectiveDate() == null || exchangeRate.getExchangeRate() == null) {
+                return;
+            }
+
+            List<ExchangeRateDataResponse> currencyData = groupedData.computeIfAbsent(
+                    new CurrencyKey(exchangeRate.getCurrency(), exchangeRate.getCountry()),
+                    currencyKey -> new ArrayList<>());
+
+            if (!currencyData.isEmpty()) {
+                exchangeRate.setCurrency(currencyData.get(0).getCurrency());
+                exchangeRate.setCountry(currencyData.get(0).getCountry());
+            }
+
+            currencyData.add(exchangeRate);
+        }
+
+    }
+
+    private record CurrencyKey(String currency, String country) {
+    }
+
+    private record CurrencyExchangeRates(int[] effectiveDates, ExchangeRateDataResponse[] exchangeRates) {
+
+        static CurrencyExchangeRates of(List<ExchangeRateDataResponse> data) {
+            data.sort(EFFECTIVE_DATE_COMPARATOR);
+
+            int[] effectiveDates = new int[data.size()];
+            ExchangeRateDataResponse[] exchangeRates = new ExchangeRateDataResponse[data.size()];
+            int size = 0;
+
+            for (ExchangeRateDataResponse exchangeRate : data) {
+                int effectiveDate = (int) LocalDate.parse(exchangeRate.getEffectiveDate()).toEpochDay();
+
+                // Keeps only the latest record of each effective date
+                if (size > 0 && effectiveDates[size - 1] == effectiveDate) {
+                    size--;
+                }
+
+                effectiveDates[size] = effectiveDate;
+                exchangeRates[size] = exchangeRate;
+                size++;
+            }
+
+            return new CurrencyExchangeRates(Arrays.copyOf(effectiveDates, size), Arrays.copyOf(exchangeRates, size));
+        }
+
+        ExchangeRateDataResponse floor(int date, int minimumDate) {
+            int index = Arrays.binarySearch(effectiveDates, date);
+            int floorIndex = index >= 0 ? index : -index - 2;
+
+            if (floorIndex < 0 || effectiveDates[floorIndex] < minimumDate) {
+                return null;
+            }
+
+            return exchangeRates[floorIndex];
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.pablomatheus.purchase.cache;
+
+import com.pablomatheus.purchase.client.ExchangeRateResponseReader;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateMetaResponse;
+import com.pablomatheus.purchase.config.ExchangeRateIndexProperties;
+import com.pablomatheus.purchase.config.ExchangeRateSyncProperties;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
+import com.pablomatheus.purchase.repository.ExchangeRateRepository;
+import feign.FeignException;
+import feign.Response;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Loads the whole Treasury Reporting Rates of Exchange dataset into the {@link ExchangeRateIndex} in background,
+ * right after the startup and then periodically. A failed load keeps the previously loaded exchange rates.
+ * <p>
+ * Each page is read as a stream straight into the next index, so only one page response is open at a time. The exchange
+ * rates of the purchase currencies are also merged into the {@link CrossRateMatrix}.
+ * <p>
+ * When the exchange rates synchronization is enabled, the dataset is already downloaded into the {@code exchange_rates}
+ * table, so it is not downloaded again. The index is loaded from the table by {@link #loadStored()} after each
+ * synchronization instead.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cache.exchange-rate-index", name = "enabled", havingValue = "true")
+@Component
+public class ExchangeRateIndexLoader {
+
+    private final UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+    private final ExchangeRateResponseReader exchangeRateResponseReader;
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final CrossRateMatrix crossRateMatrix;
+    private final ExchangeRateIndexProperties exchangeRateIndexProperties;
+    private final ExchangeRateSyncProperties exchangeRateSyncProperties;
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateMapper exchangeRateMapper;
+
+    @Scheduled(fixedDelayString = "${cache.exchange-rate-index.refresh-interval:PT6H}")
+    public void refresh() {
+        if (exchangeRateSyncProperties.isEnabled()) {
+            return;
+        }
+
+        try {
+            ExchangeRateIndex.Builder builder = ExchangeRateIndex.builder();
+            CrossRateMatrix.Builder crossRateBuilder = CrossRateMatrix.builder();
+
+            fetchAll(exchangeRate -> {
+                builder.add(exchangeRate);
+                crossRateBuilder.add(exchangeRate);
+            });
+
+            exchangeRateIndex.load(builder);
+            crossRateMatrix.update(crossRateBuilder);
+            log.info("The exchange rate index was loaded with [{}] exchange rates and [{}] cross rate dates",
+                    exchangeRateIndex.getSize(), crossRateMatrix.getSize());
+        } catch (RuntimeException exception) {
+            log.error("It was not possible to load the exchange rate index, the previous exchange rates will be kept", exception);
+        }
+    }
+
+    /**
+     * Loads the index from the stored exchange rates, leaving the {@link CrossRateMatrix} to the synchronization.
+     */
+    public void loadStored() {
+        try {
+            ExchangeRateIndex.Builder builder = ExchangeRateIndex.builder();
+            exchangeRateRepository.findAllStored().forEach(exchangeRateEntity ->
+                    builder.add(exchangeRateMapper.toResponse(exchangeRateEntity)));
+
+            exchangeRateIndex.load(builder);
+            log.info("The exchange rate index was loaded with [{}] stored exchange rates", exchangeRateIndex.getSize());
+        } catch (RuntimeException exception) {
+            log.error("It was not possible to load the exchange rate index, the previous exchange rates will be kept", exception);
+        }
+    }
+
+    void fetchAll(Consumer<ExchangeRateDataResponse> consumer) {
+        int pageSize = exchangeRateIndexProperties.getPageSize();
+        int pageNumber = 1;
+        int totalPages;
+
+        do {
+            ExchangeRateMetaResponse meta = fetchPage(pageNumber, pageSize, consumer);
+
+            totalPages = Optional.ofNullable(meta)
+                    .map(ExchangeRateMetaResponse::getTotalPages)
+                    .orElse(pageNumber);
+
+            pageNumber++;
+        } while (pageNumber <= totalPages);
+    }
+
+    private ExchangeRateMetaResponse fetchPage(int pageNumber, int pageSize, Consumer<ExchangeRateDataResponse> consumer) {
+        try (Response response = unitedStatesTreasuryClient.getExchangeRates(
+                UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, null, "effective_date", pageNumber, pageSize)) {
+            if (response.status() < 200 || response.status() >= 300) {
+                throw FeignException.errorStatus("UnitedStatesTreasuryClient#getExchangeRates", response);
+            }
+
+            if (response.body() == null) {
+                return null;
+            }
+
+            return exchangeRateResponseReader.read(response.body().asInputStream(), consumer);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.pablomatheus.purchase.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateMetaResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * Reads a page of exchange rates returned by the United States Treasury API as a stream of tokens.
+ * <p>
+ * Each exchange rate is handed to the consumer as soon as it is read, so a page is never held as a whole. Only the
+ * fields in {@link UnitedStatesTreasuryClient#EXCHANGE_RATE_FIELDS} are read, any other field is skipped.
+ */
+@RequiredArgsConstructor
+@Component
+public class ExchangeRateResponseReader {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns the meta of the page, or null when the page has none.
+     */
+    public ExchangeRateMetaResponse read(InputStream inputStream, Consumer<ExchangeRateDataResponse> consumer)
+            throws IOException {
+        ExchangeRateMetaResponse meta = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "The exchange rates page must be a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken token = parser.nextToken();
+
+                if ("data".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                    readData(parser, consumer);
+                } else if ("meta".equals(fieldName) && token == JsonToken.START_OBJECT) {
+                    meta = objectMapper.readValue(parser, ExchangeRateMetaResponse.class);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return meta;
+    }
+
+    private static void readData(JsonParser parser, Consumer<ExchangeRateDataResponse> consumer) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            ExchangeRateDataResponse exchangeRate = new ExchangeRateDataResponse();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+
+                switch (fieldName) {
+                    case "record_date" -> exchangeRate.setRecordDate(parser.getValueAsString());
+                    case "country" -> exchangeRate.setCountry(parser.getValueAsString());
+                    case "currency" -> exchangeRate.setCurrency(parser.getValueAsString());
+                    case "exchange_rate" -> exchangeRate.setExchangeRate(toBigDecimal(parser.getValueAsString()));
+                    case "effective_date" -> exchangeRate.setEffectiveDate(parser.getValueAsString());
+                    default -> parser.skipChildren();
+                }
+            }
+
+            consumer.accept(exchangeRate);
+        }
+    }
+
+    private static BigDecimal toBigDecimal(String value) {
+        return value == null || value.isBlank() ? null : new BigDecimal(value);
+    }
+
+}
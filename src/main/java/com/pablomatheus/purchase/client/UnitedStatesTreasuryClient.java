@@ -1,15 +1,36 @@
 package com.pablomatheus.purchase.client;
 
+import com.pablomatheus.purchase.client.config.UnitedStatesTreasuryClientConfiguration;
 import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(value = "${client.united-states-treasury.name}", url = "${client.united-states-treasury.base-url}")
+@FeignClient(value = "${client.united-states-treasury.name}", url = "${client.united-states-treasury.base-url}",
+        configuration = UnitedStatesTreasuryClientConfiguration.class)
 public interface UnitedStatesTreasuryClient {
 
+    /**
+     * Fields of the exchange rates used by the conversion, the remaining fields are not requested.
+     */
+    String EXCHANGE_RATE_FIELDS = "record_date,country,currency,exchange_rate,effective_date";
+
+    @GetMapping("/v1/accounting/od/rates_of_exchange")
+    ExchangeRateResponse getExchangeRate(@RequestParam(value = "fields", required = false) String fields,
+                                         @RequestParam(value = "filter", required = false) String filter,
+                                         @RequestParam(value = "sort", required = false) String sort,
+                                         @RequestParam("page[size]") int pageSize);
+
+    /**
+     * Returns the raw response, so large pages can be read as a stream by the {@link ExchangeRateResponseReader}.
+     * The response must be closed by the caller.
+     */
     @GetMapping("/v1/accounting/od/rates_of_exchange")
-    ExchangeRateResponse getExchangeRate(@RequestParam(value = "filter", required = false) String filter,
-                                         @RequestParam(value = "sort", required = false) String sort);
+    Response getExchangeRates(@RequestParam(value = "fields", required = false) String fields,
+                              @RequestParam(value = "filter", required = false) String filter,
+                              @RequestParam(value = "sort", required = false) String sort,
+                              @RequestParam("page[number]") int pageNumber,
+                              @RequestParam("page[size]") int pageSize);
 
 }
@@ -0,0 +1,121 @@
+package com.pablomatheus.purchase.client;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import com.pablomatheus.purchase.config.UnitedStatesTreasuryClientProperties;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Non-blocking counterpart of the {@link UnitedStatesTreasuryResilientClient} and the
+ * {@link UnitedStatesTreasuryRequestCoalescer} for the reactive stack.
+ * <p>
+ * The calls share the bulkhead and circuit breaker of the {@code united-states-treasury} instance, and the identical
+ * concurrent calls subscribe to the same in-flight response. Rejected and failed calls are reported as
+ * {@link HttpStatus#SERVICE_UNAVAILABLE}, except the client errors, which are reported as {@link HttpStatus#BAD_GATEWAY}.
+ */
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Component
+public class UnitedStatesTreasuryReactiveClient {
+
+    private final WebClient webClient;
+    private final CircuitBreakerOperator<ExchangeRateResponse> circuitBreakerOperator;
+    private final BulkheadOperator<ExchangeRateResponse> bulkheadOperator;
+
+    private final ConcurrentMap<RequestKey, Mono<ExchangeRateResponse>> inFlightRequests = new ConcurrentHashMap<>();
+
+    public UnitedStatesTreasuryReactiveClient(WebClient.Builder webClientBuilder,
+                                              UnitedStatesTreasuryClientProperties properties,
+                                              CircuitBreakerRegistry circuitBreakerRegistry,
+                                              BulkheadRegistry bulkheadRegistry) {
+
+        UnitedStatesTreasuryClientProperties.Transport transport = properties.getTransport();
+
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) transport.getConnectTimeout().toMillis())
+                .responseTimeout(transport.getReadTimeout())
+                .compress(transport.isCompression());
+
+        this.webClient = webClientBuilder
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.circuitBreakerOperator = CircuitBreakerOperator.of(
+                circuitBreakerRegistry.circuitBreaker(UnitedStatesTreasuryResilientClient.INSTANCE_NAME));
+        this.bulkheadOperator = BulkheadOperator.of(
+                bulkheadRegistry.bulkhead(UnitedStatesTreasuryResilientClient.INSTANCE_NAME));
+    }
+
+    public Mono<ExchangeRateResponse> getFirstExchangeRate(String filter, String sort) {
+        RequestKey requestKey = new RequestKey(filter, sort);
+
+        return Mono.defer(() -> inFlightRequests.computeIfAbsent(requestKey, key -> request(key)
+                .doFinally(signal -> inFlightRequests.remove(key))
+                .cache()));
+    }
+
+    private Mono<ExchangeRateResponse> request(RequestKey requestKey) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/v1/accounting/od/rates_of_exchange")
+                        .queryParam("fields", "{fields}")
+                        .queryParam("filter", "{filter}")
+                        .queryParam("sort", "{sort}")
+                        .queryParam("page[size]", 1)
+                        .build(UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, requestKey.filter(), requestKey.sort()))
+                .retrieve()
+                .bodyToMono(ExchangeRateResponse.class)
+                .transformDeferred(bulkheadOperator)
+                .transformDeferred(circuitBreakerOperator)
+                .onErrorMap(CallNotPermittedException.class, exception -> {
+                    log.warn("The call to the United States Treasury API was rejected: {}", exception.getMessage());
+                    return unavailable(exception);
+                })
+                .onErrorMap(BulkheadFullException.class, exception -> {
+                    log.warn("The call to the United States Treasury API was rejected: {}", exception.getMessage());
+                    return unavailable(exception);
+                })
+                .onErrorMap(WebClientResponseException.class, exception -> exception.getStatusCode().is4xxClientError()
+                        ? refused(exception)
+                        : exception)
+                .onErrorMap(WebClientException.class, exception -> {
+                    log.warn("The call to the United States Treasury API failed: {}", exception.getMessage());
+                    return unavailable(exception);
+                });
+    }
+
+    private static ResponseStatusException refused(WebClientResponseException cause) {
+        log.error("The call to the United States Treasury API was refused with status [{}]: {}",
+                cause.getStatusCode().value(), cause.getMessage());
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                "The exchange rates request was refused by the United States Treasury API", cause);
+    }
+
+    private static ResponseStatusException unavailable(Exception cause) {
+        return new ResponseStatusException(
+                HttpStatus.SERVICE_UNAVAILABLE, "The exchange rates are temporarily unavailable", cause);
+    }
+
+    private record RequestKey(String filter, String sort) {
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.pablomatheus.purchase.client;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces identical concurrent calls to the {@link UnitedStatesTreasuryResilientClient}.
+ * <p>
+ * The first caller of a filter and sort performs the remote call on its own thread, while the callers that arrive
+ * before it finishes wait for the same result or error instead of calling the API again.
+ */
+@RequiredArgsConstructor
+@Component
+public class UnitedStatesTreasuryRequestCoalescer {
+
+    private final UnitedStatesTreasuryResilientClient unitedStatesTreasuryResilientClient;
+
+    private final ConcurrentMap<RequestKey, CompletableFuture<ExchangeRateResponse>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public ExchangeRateResponse getExchangeRate(String filter, String sort) {
+        RequestKey requestKey = new RequestKey(filter, sort);
+        CompletableFuture<ExchangeRateResponse> request = new CompletableFuture<>();
+        CompletableFuture<ExchangeRateResponse> inFlightRequest = inFlightRequests.putIfAbsent(requestKey, request);
+
+        if (inFlightRequest != null) {
+            coalescedCalls.increment();
+            return join(inFlightRequest);
+        }
+
+        calls.increment();
+
+        try {
+            ExchangeRateResponse exchangeRateResponse = unitedStatesTreasuryResilientClient.getFirstExchangeRate(filter, sort);
+            request.complete(exchangeRateResponse);
+            return exchangeRateResponse;
+        } catch (RuntimeException | Error exception) {
+            request.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlightRequests.remove(requestKey, request);
+        }
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getCoalescedCallCount() {
+        return coalescedCalls.sum();
+    }
+
+    private static ExchangeRateResponse join(CompletableFuture<ExchangeRateResponse> inFlightRequest) {
+        try {
+            return inFlightRequest.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+
+            throw exception;
+        }
+    }
+
+    private record RequestKey(String filter, String sort) {
+    }
+
+}
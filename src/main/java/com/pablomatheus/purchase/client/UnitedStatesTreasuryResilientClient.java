@@ -0,0 +1,72 @@
+package com.pablomatheus.purchase.client;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Calls the {@link UnitedStatesTreasuryClient} through a concurrency bulkhead and a circuit breaker, both configured by
+ * the {@code resilience4j} properties of the {@code united-states-treasury} instance.
+ * <p>
+ * Only the first exchange rate of the filter and sort is requested, with the fields used by the conversion.
+ * <p>
+ * Calls rejected by the bulkhead or the circuit breaker, server errors and timeouts are reported as
+ * {@link HttpStatus#SERVICE_UNAVAILABLE}, so the callers can fall back to the last known exchange rates. Client errors
+ * mean the request itself is wrong and would fail again, so they are reported as {@link HttpStatus#BAD_GATEWAY}
+ * without a fallback, and they are ignored by the circuit breaker.
+ */
+@Slf4j
+@Component
+public class UnitedStatesTreasuryResilientClient {
+
+    static final String INSTANCE_NAME = "united-states-treasury";
+
+    private final UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public UnitedStatesTreasuryResilientClient(UnitedStatesTreasuryClient unitedStatesTreasuryClient,
+                                               CircuitBreakerRegistry circuitBreakerRegistry,
+                                               BulkheadRegistry bulkheadRegistry) {
+
+        this.unitedStatesTreasuryClient = unitedStatesTreasuryClient;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE_NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE_NAME);
+    }
+
+    public ExchangeRateResponse getFirstExchangeRate(String filter, String sort) {
+        try {
+            return circuitBreaker.executeSupplier(
+                    Bulkhead.decorateSupplier(bulkhead, () -> unitedStatesTreasuryClient.getExchangeRate(
+                            UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, filter, sort, 1)));
+        } catch (CallNotPermittedException | BulkheadFullException exception) {
+            log.warn("The call to the United States Treasury API was rejected: {}", exception.getMessage());
+            throw unavailable(exception);
+        } catch (FeignException.FeignServerException | RetryableException exception) {
+            log.warn("The call to the United States Treasury API failed with status [{}]: {}",
+                    exception.status(), exception.getMessage());
+            throw unavailable(exception);
+        } catch (FeignException exception) {
+            log.error("The call to the United States Treasury API was refused with status [{}]: {}",
+                    exception.status(), exception.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                    "The exchange rates request was refused by the United States Treasury API", exception);
+        }
+    }
+
+    private static ResponseStatusException unavailable(Exception cause) {
+        return new ResponseStatusException(
+                HttpStatus.SERVICE_UNAVAILABLE, "The exchange rates are temporarily unavailable", cause);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.pablomatheus.purchase.client.config;
+
+import com.pablomatheus.purchase.config.UnitedStatesTreasuryClientProperties;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.net.http.HttpClient;
+
+/**
+ * Transport of the {@link com.pablomatheus.purchase.client.UnitedStatesTreasuryClient}, configured by the
+ * {@code client.united-states-treasury.transport} properties. It is only registered in the Feign context of the
+ * client, so it must not be annotated with {@code @Configuration}. The connect and read timeouts come from the Feign
+ * client configuration and are applied to each request.
+ */
+public class UnitedStatesTreasuryClientConfiguration {
+
+    private static final String TRANSPORT_PREFIX = "client.united-states-treasury.transport";
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = TRANSPORT_PREFIX, name = "http2", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient unitedStatesTreasuryHttpClient(UnitedStatesTreasuryClientProperties properties) {
+        UnitedStatesTreasuryClientProperties.Transport transport = properties.getTransport();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(transport.getMaxConnections())
+                .setMaxConnPerRoute(transport.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.ofMilliseconds(transport.getConnectionTimeToLive().toMillis()))
+                        .build())
+                .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(transport.getKeepAlive().toMillis()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(transport.getKeepAlive().toMillis()))
+                .evictExpiredConnections();
+
+        if (!transport.isCompression()) {
+            httpClientBuilder.disableContentCompression();
+        }
+
+        return httpClientBuilder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = TRANSPORT_PREFIX, name = "http2", havingValue = "false", matchIfMissing = true)
+    public Client unitedStatesTreasuryFeignClient(CloseableHttpClient unitedStatesTreasuryHttpClient) {
+        return new ApacheHttp5Client(unitedStatesTreasuryHttpClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = TRANSPORT_PREFIX, name = "http2", havingValue = "true")
+    public Client unitedStatesTreasuryHttp2FeignClient() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        return new Http2Client(httpClient);
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.pablomatheus.purchase.client.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
@@ -41,4 +42,11 @@ public class ExchangeRateDataResponse {
 
     private String recordCalendarDay;
 
+    /**
+     * Whether the exchange rate is the last known one, answered while the Treasury API was unavailable, which a later
+     * publication may still supersede.
+     */
+    @JsonIgnore
+    private boolean stale;
+
 }
@@ -0,0 +1,19 @@
+package com.pablomatheus.purchase.client.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ExchangeRateMetaResponse {
+
+    private Integer count;
+
+    @JsonProperty("total-count")
+    private Integer totalCount;
+
+    @JsonProperty("total-pages")
+    private Integer totalPages;
+
+}
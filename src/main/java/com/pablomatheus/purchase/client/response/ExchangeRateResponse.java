@@ -14,4 +14,6 @@ public class ExchangeRateResponse {
 
     private List<ExchangeRateDataResponse> data;
 
+    private ExchangeRateMetaResponse meta;
+
 }
@@ -0,0 +1,151 @@
+package com.pablomatheus.purchase.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection pools of the purchases database, configured by the {@code spring.datasource.hikari} properties.
+ * <p>
+ * When replicas are configured, the application data source routes the read-only transactions to the replica pools and
+ * the other work to the primary pool. The connection usage and wait time of every pool are published as
+ * {@code hikaricp} metrics tagged by pool name.
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfiguration {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties,
+                                              PurchaseDataSourceProperties purchaseDataSourceProperties,
+                                              PurchaseConversionProperties purchaseConversionProperties,
+                                              ObjectProvider<ServerProperties> serverProperties,
+                                              Environment environment) {
+
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        dataSource.setPoolName("primary");
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+        sizePool(dataSource, purchaseDataSourceProperties.getPool(),
+                getThreads(purchaseConversionProperties, serverProperties.getIfAvailable(), environment));
+
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "purchase.datasource", name = "replicas[0].url")
+    public ReadOnlyRoutingDataSource readOnlyRoutingDataSource(HikariDataSource primaryDataSource,
+                                                               DataSourceProperties dataSourceProperties,
+                                                               PurchaseDataSourceProperties purchaseDataSourceProperties,
+                                                               PurchaseConversionProperties purchaseConversionProperties,
+                                                               ObjectProvider<ServerProperties> serverProperties,
+                                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                                               Environment environment) {
+
+        int threads = getThreads(purchaseConversionProperties, serverProperties.getIfAvailable(), environment);
+        List<HikariDataSource> replicaDataSources = new ArrayList<>();
+
+        for (PurchaseDataSourceProperties.Replica replica : purchaseDataSourceProperties.getReplicas()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() == null ? dataSourceProperties.determineUsername() : replica.getUsername())
+                    .password(replica.getPassword() == null ? dataSourceProperties.determinePassword() : replica.getPassword())
+                    .build();
+
+            Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("replica-" + (replicaDataSources.size() + 1));
+            dataSource.setReadOnly(true);
+            sizePool(dataSource, purchaseDataSourceProperties.getPool(), threads);
+
+            // The replica pools are not beans, so their metrics are not bound by the actuator
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+            replicaDataSources.add(dataSource);
+        }
+
+        return new ReadOnlyRoutingDataSource(primaryDataSource, replicaDataSources);
+    }
+
+    /**
+     * Data source of JPA, Flyway and the health checks. The pools are closed by their own beans.
+     */
+    @Bean(destroyMethod = "")
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReadOnlyRoutingDataSource> readOnlyRoutingDataSource) {
+
+        ReadOnlyRoutingDataSource routingDataSource = readOnlyRoutingDataSource.getIfAvailable();
+
+        if (routingDataSource == null) {
+            return primaryDataSource;
+        }
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Returns the number of threads that may hold a connection at the same time, or {@code 0} when it is not bounded. On
+     * the reactive stack the requests are served on the event loops through the R2DBC pool, so only the conversion
+     * executor threads are counted.
+     */
+    static int getThreads(PurchaseConversionProperties purchaseConversionProperties, ServerProperties serverProperties,
+                          Environment environment) {
+
+        if (Threading.VIRTUAL.isActive(environment) || serverProperties == null) {
+            return 0;
+        }
+
+        if (environment.getProperty("spring.main.web-application-type", WebApplicationType.class) == WebApplicationType.REACTIVE) {
+            return purchaseConversionProperties.getParallelism();
+        }
+
+        return serverProperties.getTomcat().getThreads().getMax() + purchaseConversionProperties.getParallelism();
+    }
+
+    /**
+     * Returns the size of the R2DBC pool of the reactive stack, which takes the connections of the maximum size left by
+     * the primary pool, so both pools together stay within it.
+     */
+    static int getReactivePoolSize(PurchaseDataSourceProperties.Pool pool, int primaryPoolSize) {
+        return Math.max(pool.getMinimumSize(), pool.getMaximumSize() - primaryPoolSize);
+    }
+
+    /**
+     * Sizes the pool from the number of threads, unless its maximum size was set by the Hikari properties.
+     */
+    static void sizePool(HikariDataSource dataSource, PurchaseDataSourceProperties.Pool pool, int threads) {
+        if (dataSource.getMaximumPoolSize() > 0) {
+            return;
+        }
+
+        int size = threads > 0
+                ? (int) Math.ceil(threads * pool.getConnectionsPerThread())
+                : pool.getMaximumSize();
+
+        dataSource.setMaximumPoolSize(Math.max(pool.getMinimumSize(), Math.min(pool.getMaximumSize(), size)));
+    }
+
+}
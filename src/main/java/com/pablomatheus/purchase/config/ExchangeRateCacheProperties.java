@@ -0,0 +1,20 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "cache.exchange-rate")
+public class ExchangeRateCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    private Duration timeToLive = Duration.ofHours(12);
+
+}
@@ -0,0 +1,20 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "cache.exchange-rate-index")
+public class ExchangeRateIndexProperties {
+
+    private boolean enabled = false;
+
+    private int pageSize = 10_000;
+
+    private Duration refreshInterval = Duration.ofHours(6);
+
+}
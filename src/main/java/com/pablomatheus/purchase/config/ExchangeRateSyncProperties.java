@@ -0,0 +1,22 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "exchange-rate.sync")
+public class ExchangeRateSyncProperties {
+
+    private boolean enabled = false;
+
+    private int pageSize = 10_000;
+
+    private int chunkSize = 500;
+
+    private Duration interval = Duration.ofHours(1);
+
+}
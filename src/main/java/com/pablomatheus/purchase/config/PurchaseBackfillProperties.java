@@ -0,0 +1,20 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.backfill")
+public class PurchaseBackfillProperties {
+
+    private boolean enabled = false;
+
+    private int batchSize = 1000;
+
+    private Duration interval = Duration.ofMinutes(1);
+
+}
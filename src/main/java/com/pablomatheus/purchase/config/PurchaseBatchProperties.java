@@ -0,0 +1,14 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.batch")
+public class PurchaseBatchProperties {
+
+    private int chunkSize = 500;
+
+}
@@ -0,0 +1,81 @@
+package com.pablomatheus.purchase.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.SharedCacheMode;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache of the purchases, enabled by the {@code cache.purchase} properties.
+ * <p>
+ * The cache lives in a local Caffeine JCache manager, bounded by size and time to live. Its entries are stored by
+ * reference, so a hit is not copied through serialization, and its hits, misses and evictions are published as the
+ * {@code cache.gets}, {@code cache.puts} and {@code cache.evictions} metrics tagged by the region name.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PurchaseCacheConfiguration {
+
+    public static final String PURCHASE_REGION = PurchaseEntity.class.getName();
+
+    private static final URI CACHE_MANAGER_URI = URI.create("purchase-cache");
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cache.purchase", name = "enabled", havingValue = "true")
+    public CacheManager purchaseCacheManager(PurchaseCacheProperties properties) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(properties.getMaximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.getTimeToLive().toNanos()));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+
+        CacheManager cacheManager = new CaffeineCachingProvider()
+                .getCacheManager(CACHE_MANAGER_URI, PurchaseCacheConfiguration.class.getClassLoader());
+        cacheManager.createCache(PURCHASE_REGION, configuration);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer purchaseCacheHibernatePropertiesCustomizer(PurchaseCacheProperties properties,
+                                                                                  ObjectProvider<CacheManager> purchaseCacheManager) {
+        return hibernateProperties -> {
+            CacheManager cacheManager = purchaseCacheManager.getIfAvailable();
+
+            // Hibernate would otherwise pick the JCache region factory up from the classpath by itself
+            if (cacheManager == null) {
+                hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                return;
+            }
+
+            AccessType accessType = properties.isReadOnly() ? AccessType.READ_ONLY : AccessType.READ_WRITE;
+
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            hibernateProperties.put(AvailableSettings.DEFAULT_CACHE_CONCURRENCY_STRATEGY, accessType.getExternalName());
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cache.purchase", name = "enabled", havingValue = "true")
+    public MeterBinder purchaseCacheMeterBinder(CacheManager purchaseCacheManager) {
+        return registry -> JCacheMetrics.monitor(registry, purchaseCacheManager.getCache(PURCHASE_REGION));
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "cache.purchase")
+public class PurchaseCacheProperties {
+
+    private boolean enabled = false;
+
+    private long maximumSize = 100_000;
+
+    private Duration timeToLive = Duration.ofHours(1);
+
+    /**
+     * Caches the purchases with the read-only strategy, which puts them on load and insert without locking or
+     * invalidating the entries, since the purchases are never updated.
+     */
+    private boolean readOnly = true;
+
+}
@@ -0,0 +1,20 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.conversion")
+public class PurchaseConversionProperties {
+
+    private int parallelism = 16;
+
+    private int queueCapacity = 1000;
+
+    private Duration timeout = Duration.ofSeconds(10);
+
+}
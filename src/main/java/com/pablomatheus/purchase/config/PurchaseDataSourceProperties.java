@@ -0,0 +1,52 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.datasource")
+public class PurchaseDataSourceProperties {
+
+    private Pool pool = new Pool();
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Size of the connection pools when {@code spring.datasource.hikari.maximum-pool-size} is not set, derived from the
+     * number of threads that may use a connection at the same time: the server threads and the conversion executor
+     * threads. With virtual threads there is no such bound, so the maximum size is used.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class Pool {
+
+        private double connectionsPerThread = 0.1;
+
+        private int minimumSize = 10;
+
+        private int maximumSize = 50;
+
+    }
+
+    /**
+     * Read replica of the purchases database. The read-only transactions are spread over the replicas in turn, and each
+     * replica pool shares the {@code spring.datasource.hikari} properties of the primary pool.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+    }
+
+}
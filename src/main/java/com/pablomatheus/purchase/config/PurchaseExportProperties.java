@@ -0,0 +1,14 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.export")
+public class PurchaseExportProperties {
+
+    private int fetchSize = 1000;
+
+}
@@ -0,0 +1,35 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.idempotency")
+public class PurchaseIdempotencyProperties {
+
+    /**
+     * Number of idempotency keys the Bloom filter is sized for. Beyond it, more first requests of a key are looked up in
+     * the database before being added.
+     */
+    private long expectedKeys = 1_000_000;
+
+    private double falsePositiveProbability = 0.01;
+
+    /**
+     * Number of recent keys whose purchases are kept in memory to answer the retries.
+     */
+    private long recentKeysMaximumSize = 10_000;
+
+    private Duration recentKeysTimeToLive = Duration.ofHours(1);
+
+    /**
+     * Time after which a key whose purchase was accepted but never persisted can be used again. It must be longer than
+     * an instance takes to be restarted and to persist the purchases left in its write-ahead log.
+     */
+    private Duration abandonedKeyTimeout = Duration.ofMinutes(15);
+
+}
@@ -0,0 +1,47 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.ingestion")
+public class PurchaseIngestionProperties {
+
+    /**
+     * Accepts the purchases into the write-ahead log and persists them in the background, answering with
+     * {@code 202 Accepted} instead of waiting for the insert transaction.
+     */
+    private boolean enabled = false;
+
+    private String directory = "data/purchase-wal";
+
+    /**
+     * Log of the accepted purchases rejected by the database, which are kept there to be repaired instead of stalling
+     * the writer.
+     */
+    private String deadLetterDirectory = "data/purchase-wal-dead-letter";
+
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Forces each accepted purchase to the storage device before answering. Without it, the accepted purchases survive
+     * a crash of the process but not of the host.
+     */
+    private boolean sync = true;
+
+    private int queueCapacity = 100_000;
+
+    private int batchSize = 500;
+
+    private Duration lingerTime = Duration.ofMillis(10);
+
+    private Duration retryInterval = Duration.ofSeconds(1);
+
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,35 @@
+package com.pablomatheus.purchase.config;
+
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection, proxy and resource hints of the native image for what Spring AOT does not infer by itself.
+ * <p>
+ * Feign creates the {@link UnitedStatesTreasuryClient} as a JDK proxy reading the annotations of its methods at
+ * runtime, and decodes the Treasury responses with Jackson. Hibernate instantiates the JCache region factory of the
+ * purchase cache from its short name, and the Caffeine JCache provider reads its defaults from {@code reference.conf}.
+ */
+public class PurchaseRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final TypeReference JCACHE_REGION_FACTORY =
+            TypeReference.of("org.hibernate.cache.jcache.internal.JCacheRegionFactory");
+
+    private final BindingReflectionHintsRegistrar bindingReflectionHintsRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.proxies().registerJdkProxy(UnitedStatesTreasuryClient.class);
+        hints.reflection().registerType(UnitedStatesTreasuryClient.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        bindingReflectionHintsRegistrar.registerReflectionHints(hints.reflection(), ExchangeRateResponse.class);
+
+        hints.reflection().registerType(JCACHE_REGION_FACTORY, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("reference.conf");
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "purchase.reactive")
+public class ReactivePurchaseProperties {
+
+    /**
+     * URL of the database without the {@code pool} driver, since the pool is created and sized by the application.
+     */
+    private String r2dbcUrl;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * Maximum size of the R2DBC pool. Unless it is set, the pool takes the connections of the
+     * {@code purchase.datasource.pool.maximum-size} left by the primary JDBC pool.
+     */
+    private int maximumPoolSize;
+
+}
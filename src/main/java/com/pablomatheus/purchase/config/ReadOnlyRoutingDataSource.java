@@ -0,0 +1,56 @@
+package com.pablomatheus.purchase.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes the read-only transactions to the replicas in turn and everything else to the primary database. It must be
+ * wrapped by a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, since the transaction
+ * manager takes the connection before the transaction is marked as read-only.
+ * <p>
+ * The replica pools are owned by this data source and closed with it, the primary pool is a bean of its own.
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicaDataSources;
+    private final List<String> replicaKeys;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadOnlyRoutingDataSource(DataSource primaryDataSource, List<HikariDataSource> replicaDataSources) {
+        this.replicaDataSources = List.copyOf(replicaDataSources);
+        this.replicaKeys = replicaDataSources.stream().map(HikariDataSource::getPoolName).toList();
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primaryDataSource);
+        replicaDataSources.forEach(replicaDataSource -> targetDataSources.put(replicaDataSource.getPoolName(), replicaDataSource));
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public void destroy() {
+        replicaDataSources.forEach(HikariDataSource::close);
+    }
+
+}
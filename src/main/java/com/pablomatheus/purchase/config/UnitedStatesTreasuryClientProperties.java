@@ -0,0 +1,49 @@
+package com.pablomatheus.purchase.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "client.united-states-treasury")
+public class UnitedStatesTreasuryClientProperties {
+
+    private String name;
+
+    private String baseUrl;
+
+    private Transport transport = new Transport();
+
+    @Data
+    @NoArgsConstructor
+    public static class Transport {
+
+        /**
+         * Uses the JDK HTTP client negotiating HTTP/2 instead of the pooled Apache HTTP client. The JDK client does not
+         * decompress the responses, so the compression is only requested by the Apache HTTP client.
+         */
+        private boolean http2 = false;
+
+        private boolean compression = true;
+
+        private int maxConnections = 50;
+
+        private int maxConnectionsPerRoute = 50;
+
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);
+
+        /**
+         * Timeouts of the reactive client, the Feign client uses the {@code spring.cloud.openfeign} timeouts.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(1);
+
+        private Duration readTimeout = Duration.ofSeconds(2);
+
+    }
+
+}
@@ -1,44 +1,311 @@
 package com.pablomatheus.purchase.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.pablomatheus.purchase.dto.IdempotentPurchaseDto;
 import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseFilterDto;
+import com.pablomatheus.purchase.dto.PurchasePageDto;
+import com.pablomatheus.purchase.enumeration.Currency;
 import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.request.ExchangeRateTargetsRequest;
+import com.pablomatheus.purchase.request.PurchaseBatchRequest;
+import com.pablomatheus.purchase.request.PurchaseConversionRequest;
 import com.pablomatheus.purchase.request.PurchaseRequest;
+import com.pablomatheus.purchase.response.PurchaseBatchResponse;
+import com.pablomatheus.purchase.response.PurchasePageResponse;
 import com.pablomatheus.purchase.response.PurchaseResponse;
+import com.pablomatheus.purchase.service.PurchaseIdempotencyService;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
 import com.pablomatheus.purchase.service.PurchaseService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/v1/purchases")
 public class PurchaseController {
 
+    private static final Duration CONVERSION_MAX_AGE = Duration.ofDays(365);
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final PurchaseService purchaseService;
     private final PurchaseMapper purchaseMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ObjectProvider<PurchaseIngestionService> purchaseIngestionService;
+    private final PurchaseIdempotencyService purchaseIdempotencyService;
 
+    /**
+     * Adds a purchase, answering with {@code 201 Created} once it is persisted. With the asynchronous ingestion, the
+     * purchase is answered with {@code 202 Accepted} and its identifier once it is in the write-ahead log, and it is
+     * persisted shortly after.
+     * <p>
+     * A request with an {@code Idempotency-Key} header adds the purchase once: a retry with the same key is answered with
+     * the purchase added by the first request and the {@code Idempotent-Replayed} header, without adding it again. A key
+     * sent again with a different purchase is answered with {@code 422 Unprocessable Entity}.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public PurchaseResponse addPurchase(@Valid @RequestBody PurchaseRequest purchaseRequest) {
+    public ResponseEntity<PurchaseResponse> addPurchase(@RequestHeader(name = IDEMPOTENCY_KEY, required = false)
+                                                        @Size(min = 1, max = 255) String idempotencyKey,
+                                                        @Valid @RequestBody PurchaseRequest purchaseRequest) {
+
+        PurchaseIngestionService ingestionService = purchaseIngestionService.getIfAvailable();
+
+        if (idempotencyKey != null) {
+            IdempotentPurchaseDto idempotentPurchaseDto =
+                    purchaseIdempotencyService.addPurchase(idempotencyKey, purchaseMapper.toDto(purchaseRequest));
+
+            return toIdempotentResponse(idempotentPurchaseDto, ingestionService != null, purchaseMapper);
+        }
+
+        if (ingestionService != null) {
+            PurchaseDto purchaseDto = ingestionService.acceptPurchase(purchaseMapper.toDto(purchaseRequest));
+            return ResponseEntity.accepted().body(purchaseMapper.toResponse(purchaseDto));
+        }
+
         PurchaseDto purchaseDto = purchaseService.addPurchase(purchaseMapper.toDto(purchaseRequest));
-        return purchaseMapper.toResponse(purchaseDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(purchaseMapper.toResponse(purchaseDto));
+    }
+
+    /**
+     * Answers a purchase added with an idempotency key, shared by the servlet and reactive stacks.
+     */
+    static ResponseEntity<PurchaseResponse> toIdempotentResponse(IdempotentPurchaseDto idempotentPurchaseDto,
+                                                                 boolean accepted, PurchaseMapper purchaseMapper) {
+
+        return ResponseEntity.status(accepted ? HttpStatus.ACCEPTED : HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(idempotentPurchaseDto.isReplayed()))
+                .body(purchaseMapper.toResponse(idempotentPurchaseDto.getPurchase()));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public PurchaseBatchResponse addPurchases(@Valid @RequestBody PurchaseBatchRequest purchaseBatchRequest) {
+        int count = purchaseService.addPurchases(purchaseBatchRequest.getPurchases().stream().map(purchaseMapper::toDto));
+        return new PurchaseBatchResponse(count);
+    }
+
+    /**
+     * Adds the purchases of a newline delimited JSON stream, one purchase per line. The purchases are read, validated
+     * and flushed in chunks while the stream is consumed, all in the same transaction, so an invalid line adds none of
+     * the purchases of the stream. A line that is not a valid JSON, or not a valid purchase, is answered with
+     * {@code 400 Bad Request} and its line number.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public PurchaseBatchResponse addPurchases(InputStream inputStream) throws IOException {
+        AtomicInteger line = new AtomicInteger();
+
+        try (MappingIterator<PurchaseRequest> purchaseRequests = objectMapper.readerFor(PurchaseRequest.class).readValues(inputStream)) {
+            int count = purchaseService.addPurchases(
+                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(purchaseRequests, Spliterator.ORDERED), false)
+                            .map(purchaseRequest -> validate(purchaseRequest, line.incrementAndGet()))
+                            .map(purchaseMapper::toDto));
+
+            return new PurchaseBatchResponse(count);
+        } catch (RuntimeJsonMappingException | JsonProcessingException exception) {
+            throw getInvalidLineException(line.get() + 1, exception);
+        } catch (RuntimeException exception) {
+            // The iterator wraps the parsing errors of the lines it reads in a plain runtime exception
+            if (exception.getCause() instanceof JsonProcessingException) {
+                throw getInvalidLineException(line.get() + 1, exception);
+            }
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Lists the purchases of a transaction date range, ordered by transaction date and identifier. The {@code next}
+     * cursor of a page is sent back as the {@code after} parameter to get the following page.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public PurchasePageResponse getPurchases(@RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+                                             @RequestParam(required = false) Currency currency,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int size) {
+
+        PurchasePageDto purchasePageDto = purchaseService.getPurchases(getFilter(from, to, currency), after, size);
+        return purchaseMapper.toResponse(purchasePageDto);
+    }
+
+    /**
+     * Exports the purchases of a transaction date range as a newline delimited JSON stream, one purchase per line,
+     * written while they are read from the database.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPurchases(@RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                                 @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+                                                                 @RequestParam(required = false) Currency currency) {
+
+        PurchaseFilterDto purchaseFilterDto = getFilter(from, to, currency);
+
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter sequenceWriter = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                purchaseService.exportPurchases(purchaseFilterDto, purchaseDto -> write(sequenceWriter, purchaseDto));
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
+    /**
+     * Converts a purchase with the exchange rate kept on its first conversion, so the response never changes for the
+     * same purchase, currency and country. It is sent with an entity tag and as an immutable response, and a request
+     * with a matching {@code If-None-Match} header is answered with {@code 304 Not Modified}. A conversion made with a
+     * stale exchange rate is not kept, and is sent without an entity tag and with {@code no-cache}.
+     */
     @GetMapping("/{id}/exchange-rates/conversion")
-    public PurchaseResponse getCurrencyConvertedPurchase(@PathVariable Long id,
-                                                         @RequestParam String currency,
-                                                         @RequestParam String country) {
+    public ResponseEntity<PurchaseResponse> getCurrencyConvertedPurchase(@PathVariable Long id,
+                                                                         @RequestParam String currency,
+                                                                         @RequestParam String country) {
 
         PurchaseDto purchaseDto = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
-        return purchaseMapper.toResponse(purchaseDto);
+        return toConversionResponse(id, currency, country, purchaseDto, purchaseMapper);
+    }
+
+    /**
+     * Answers a conversion with the caching headers shared by the servlet and reactive stacks.
+     */
+    static ResponseEntity<PurchaseResponse> toConversionResponse(Long id, String currency, String country,
+                                                                 PurchaseDto purchaseDto, PurchaseMapper purchaseMapper) {
+
+        PurchaseResponse purchaseResponse = purchaseMapper.toResponse(purchaseDto);
+
+        if (purchaseDto.getConvertedAmount() != null && purchaseDto.getConvertedAmount().isStale()) {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(purchaseResponse);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(getConversionETag(id, currency, country, purchaseResponse))
+                .cacheControl(CacheControl.maxAge(CONVERSION_MAX_AGE).cachePublic().immutable())
+                .body(purchaseResponse);
+    }
+
+    /**
+     * Derives the entity tag of a conversion from the purchase, the currency, the country and the applied exchange rate,
+     * which identify the kept conversion, instead of from the serialized response.
+     */
+    private static String getConversionETag(Long id, String currency, String country, PurchaseResponse purchaseResponse) {
+        String exchangeRate = purchaseResponse.getConvertedAmount() != null
+                ? purchaseResponse.getConvertedAmount().getExchangeRate()
+                : null;
+
+        return DigestUtils.md5DigestAsHex(String.join("\0", String.valueOf(id), currency, country,
+                String.valueOf(exchangeRate)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Converts a purchase to several currencies at once, in the order of the targets. The exchange rates of the
+     * currencies without a kept conversion are looked up concurrently.
+     */
+    @PostMapping("/{id}/exchange-rates/conversions")
+    public List<PurchaseResponse> getCurrencyConvertedPurchase(@PathVariable Long id,
+                                                               @Valid @RequestBody ExchangeRateTargetsRequest exchangeRateTargetsRequest) {
+
+        List<PurchaseDto> purchaseDtos = purchaseService.getCurrencyConvertedPurchase(
+                id, purchaseMapper.toDto(exchangeRateTargetsRequest.getTargets()));
+
+        return purchaseMapper.toResponse(purchaseDtos);
+    }
+
+    @PostMapping("/exchange-rates/conversions")
+    public List<PurchaseResponse> getCurrencyConvertedPurchases(@Valid @RequestBody PurchaseConversionRequest purchaseConversionRequest) {
+        List<PurchaseDto> purchaseDtos = purchaseService.getCurrencyConvertedPurchases(
+                purchaseConversionRequest.getPurchaseIds(), purchaseMapper.toDto(purchaseConversionRequest.getTargets()));
+
+        return purchaseMapper.toResponse(purchaseDtos);
+    }
+
+    private PurchaseFilterDto getFilter(LocalDateTime from, LocalDateTime to, Currency currency) {
+        return currency == null
+                ? new PurchaseFilterDto(from, to, null, null)
+                : new PurchaseFilterDto(from, to, currency.getName(), currency.getCountry());
+    }
+
+    private void write(SequenceWriter sequenceWriter, PurchaseDto purchaseDto) {
+        try {
+            sequenceWriter.write(purchaseMapper.toResponse(purchaseDto));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private PurchaseRequest validate(PurchaseRequest purchaseRequest, int line) {
+        Set<ConstraintViolation<PurchaseRequest>> violations = validator.validate(purchaseRequest);
+
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("The purchase at line [%d] is invalid: %s", line, message));
+        }
+
+        return purchaseRequest;
+    }
+
+    private static ResponseStatusException getInvalidLineException(int line, Exception exception) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                String.format("The purchase at line [%d] is not a valid JSON", line), exception);
     }
 
 }
@@ -0,0 +1,72 @@
+package com.pablomatheus.purchase.controller;
+
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.request.PurchaseRequest;
+import com.pablomatheus.purchase.response.PurchaseResponse;
+import com.pablomatheus.purchase.service.PurchaseIdempotencyService;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
+import com.pablomatheus.purchase.service.ReactivePurchaseService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Serves the purchase creation and conversion endpoints of the {@link PurchaseController} on the reactive stack,
+ * enabled by the {@code reactive} profile.
+ */
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/v1/purchases")
+public class ReactivePurchaseController {
+
+    private final ReactivePurchaseService reactivePurchaseService;
+    private final PurchaseMapper purchaseMapper;
+    private final ObjectProvider<PurchaseIngestionService> purchaseIngestionService;
+    private final PurchaseIdempotencyService purchaseIdempotencyService;
+
+    /**
+     * Adds a purchase like the {@link PurchaseController}. A request with an {@code Idempotency-Key} header goes through
+     * the same idempotency service, whose key and purchase are written by JPA in a single transaction, so it is run on a
+     * bounded elastic thread instead of the event loop.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<PurchaseResponse>> addPurchase(@RequestHeader(name = PurchaseController.IDEMPOTENCY_KEY, required = false)
+                                                              @Size(min = 1, max = 255) String idempotencyKey,
+                                                              @Valid @RequestBody PurchaseRequest purchaseRequest) {
+
+        if (idempotencyKey != null) {
+            return Mono.fromCallable(() -> purchaseIdempotencyService.addPurchase(idempotencyKey, purchaseMapper.toDto(purchaseRequest)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .map(idempotentPurchaseDto -> PurchaseController.toIdempotentResponse(idempotentPurchaseDto,
+                            purchaseIngestionService.getIfAvailable() != null, purchaseMapper));
+        }
+
+        return reactivePurchaseService.addPurchase(purchaseMapper.toDto(purchaseRequest))
+                .map(purchaseDto -> ResponseEntity.status(HttpStatus.CREATED).body(purchaseMapper.toResponse(purchaseDto)));
+    }
+
+    @GetMapping("/{id}/exchange-rates/conversion")
+    public Mono<ResponseEntity<PurchaseResponse>> getCurrencyConvertedPurchase(@PathVariable Long id,
+                                                                               @RequestParam String currency,
+                                                                               @RequestParam String country) {
+
+        return reactivePurchaseService.getCurrencyConvertedPurchase(id, currency, country)
+                .map(purchaseDto -> PurchaseController.toConversionResponse(id, currency, country, purchaseDto, purchaseMapper));
+    }
+
+}
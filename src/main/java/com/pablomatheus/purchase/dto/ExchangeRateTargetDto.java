@@ -0,0 +1,13 @@
+package com.pablomatheus.purchase.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ExchangeRateTargetDto {
+
+    private String currency;
+    private String country;
+
+}
@@ -0,0 +1,15 @@
+package com.pablomatheus.purchase.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentPurchaseDto {
+
+    private PurchaseDto purchase;
+    private boolean replayed;
+
+}
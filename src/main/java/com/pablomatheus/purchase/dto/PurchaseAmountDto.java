@@ -12,4 +12,9 @@ public class PurchaseAmountDto {
     private String country;
     private String exchangeRate;
 
+    /**
+     * Whether the amount was converted with a stale exchange rate, so its conversion must not be kept nor cached.
+     */
+    private boolean stale;
+
 }
@@ -0,0 +1,19 @@
+package com.pablomatheus.purchase.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseFilterDto {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String currency;
+    private String country;
+
+}
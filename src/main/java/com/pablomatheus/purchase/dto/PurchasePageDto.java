@@ -0,0 +1,17 @@
+package com.pablomatheus.purchase.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchasePageDto {
+
+    private List<PurchaseDto> purchases;
+    private String next;
+
+}
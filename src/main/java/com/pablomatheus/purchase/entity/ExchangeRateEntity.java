@@ -0,0 +1,36 @@
+package com.pablomatheus.purchase.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@Table(name = "exchange_rates")
+@Entity
+public class ExchangeRateEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rates_sequence_generator")
+    @SequenceGenerator(name = "exchange_rates_sequence_generator", sequenceName = "EXCHANGE_RATES_SEQ", allocationSize = 50)
+    private Long id;
+
+    private String currency;
+
+    private String country;
+
+    private BigDecimal exchangeRate;
+
+    private LocalDate effectiveDate;
+
+    private LocalDate recordDate;
+
+}
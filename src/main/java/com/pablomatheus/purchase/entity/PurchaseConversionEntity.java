@@ -0,0 +1,75 @@
+package com.pablomatheus.purchase.entity;
+
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Exchange rate applied the first time a purchase was converted to a currency and country. The transaction date of a
+ * purchase never changes, so the same conversion answers every later request.
+ * <p>
+ * Until the contract step of the precision migration, the purchase identifier is also written to the
+ * {@code purchase_id_bigint} column added by the V5 migration.
+ */
+@Data
+@NoArgsConstructor
+@Table(name = "purchase_conversions")
+@Entity
+public class PurchaseConversionEntity {
+
+    /**
+     * Increment of the {@code PURCHASE_CONVERSIONS_SEQ} sequence, each value taken from it is the upper bound of a block
+     * of as many identifiers.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_conversions_sequence_generator")
+    @SequenceGenerator(name = "purchase_conversions_sequence_generator", sequenceName = "PURCHASE_CONVERSIONS_SEQ", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "purchase_id")
+    private PurchaseEntity purchase;
+
+    private String currency;
+
+    private String country;
+
+    private BigDecimal exchangeRate;
+
+    private LocalDate effectiveDate;
+
+    private BigDecimal convertedAmount;
+
+    @CreationTimestamp(source = SourceType.VM)
+    private LocalDateTime creationDate;
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "purchase_id_bigint", updatable = false)
+    private Long getPurchaseIdBigint() {
+        return purchase != null ? purchase.getId() : null;
+    }
+
+    private void setPurchaseIdBigint(Long purchaseIdBigint) {
+        // Always the same value as the purchase identifier
+    }
+
+}
@@ -1,5 +1,9 @@
 package com.pablomatheus.purchase.entity;
 
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,24 +13,43 @@ import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Immutable;
 import org.hibernate.annotations.SourceType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * A purchase is never updated after it is inserted, so it is loaded without a dirty checking snapshot and is cached by
+ * the second-level cache when it is enabled.
+ * <p>
+ * Until the contract step of the precision migration, the identifier and the amount are written to both their original
+ * columns and the {@code id_bigint} and {@code amount_decimal} columns added by the V5 migration. The amount is read from
+ * the decimal column, falling back to the original one for the purchases the backfill has not reached yet.
+ */
 @Data
 @NoArgsConstructor
 @Table(name = "purchases")
 @Entity
+@Immutable
+@Cacheable
 public class PurchaseEntity {
 
+    /**
+     * Increment of the {@code PURCHASES_SEQ} sequence, each value taken from it is the upper bound of a block of as many
+     * identifiers.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchases_sequence_generator")
-    @SequenceGenerator(name = "purchases_sequence_generator", sequenceName = "PURCHASES_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "purchases_sequence_generator", sequenceName = "PURCHASES_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String description;
 
+    @Formula("COALESCE(amount_decimal, CAST(amount AS DECIMAL(19, 4)))")
     private BigDecimal amount;
 
     private String currency;
@@ -35,7 +58,37 @@ public class PurchaseEntity {
 
     private LocalDateTime transactionDate;
 
-    @CreationTimestamp(source = SourceType.DB)
+    @CreationTimestamp(source = SourceType.VM)
     private LocalDateTime creationDate;
 
+    @Access(AccessType.PROPERTY)
+    @Column(name = "id_bigint")
+    private Long getIdBigint() {
+        return id;
+    }
+
+    private void setIdBigint(Long idBigint) {
+        // Always the same value as the identifier
+    }
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "amount")
+    private BigDecimal getDoubleAmount() {
+        return amount;
+    }
+
+    private void setDoubleAmount(BigDecimal doubleAmount) {
+        // Read through the amount formula
+    }
+
+    @Access(AccessType.PROPERTY)
+    @Column(name = "amount_decimal")
+    private BigDecimal getDecimalAmount() {
+        return amount;
+    }
+
+    private void setDecimalAmount(BigDecimal decimalAmount) {
+        // Read through the amount formula
+    }
+
 }
@@ -3,13 +3,34 @@ package com.pablomatheus.purchase.enumeration;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Optional;
+
+/**
+ * Currencies the purchases are made in, named by their currency and country in the Treasury Reporting Rates of
+ * Exchange dataset.
+ */
 @Getter
 @AllArgsConstructor
 public enum Currency {
 
-    USD("Dollar", "United States");
+    USD("Dollar", "United States"),
+    EUR("Euro", "Euro Zone"),
+    BRL("Real", "Brazil"),
+    GBP("Pound", "United Kingdom");
+
+    private static final Currency[] VALUES = values();
 
     private final String name;
     private final String country;
 
+    public static Optional<Currency> of(String name, String country) {
+        for (Currency currency : VALUES) {
+            if (currency.name.equals(name) && currency.country.equals(country)) {
+                return Optional.of(currency);
+            }
+        }
+
+        return Optional.empty();
+    }
+
 }
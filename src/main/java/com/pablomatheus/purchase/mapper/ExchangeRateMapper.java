@@ -0,0 +1,35 @@
+package com.pablomatheus.purchase.mapper;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.math.BigDecimal;
+
+@Mapper(componentModel = "spring")
+public interface ExchangeRateMapper {
+
+    @Mapping(target = "id", ignore = true)
+    ExchangeRateEntity toEntity(ExchangeRateDataResponse exchangeRateDataResponse);
+
+    @Mapping(target = "exchangeRate", source = "exchangeRate", qualifiedByName = "toTreasuryExchangeRate")
+    @Mapping(target = "stale", ignore = true)
+    ExchangeRateDataResponse toResponse(ExchangeRateEntity exchangeRateEntity);
+
+    /**
+     * Removes the trailing zeros added by the fixed scale of the column, keeping at least one decimal place like the
+     * exchange rates returned by the Treasury API.
+     */
+    @Named("toTreasuryExchangeRate")
+    default BigDecimal toTreasuryExchangeRate(BigDecimal exchangeRate) {
+        if (exchangeRate == null) {
+            return null;
+        }
+
+        BigDecimal strippedExchangeRate = exchangeRate.stripTrailingZeros();
+        return strippedExchangeRate.scale() < 1 ? strippedExchangeRate.setScale(1) : strippedExchangeRate;
+    }
+
+}
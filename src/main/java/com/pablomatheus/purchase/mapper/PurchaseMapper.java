@@ -1,11 +1,19 @@
 package com.pablomatheus.purchase.mapper;
 
+import com.pablomatheus.purchase.dto.ExchangeRateTargetDto;
 import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.dto.PurchasePageDto;
 import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.request.ExchangeRateTargetRequest;
 import com.pablomatheus.purchase.request.PurchaseRequest;
+import com.pablomatheus.purchase.response.PurchasePageResponse;
 import com.pablomatheus.purchase.response.PurchaseResponse;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.math.BigDecimal;
+import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface PurchaseMapper {
@@ -15,16 +23,38 @@ public interface PurchaseMapper {
     @Mapping(target = "originalAmount.country", source = "currency.country")
     PurchaseDto toDto(PurchaseRequest purchaseRequest);
 
-    @Mapping(target = "originalAmount.value", source = "amount")
+    @Mapping(target = "originalAmount.value", source = "amount", qualifiedByName = "toCentsAmount")
     @Mapping(target = "originalAmount.currency", source = "currency")
     @Mapping(target = "originalAmount.country", source = "currencyCountry")
     PurchaseDto toDto(PurchaseEntity purchaseEntity);
 
+    ExchangeRateTargetDto toDto(ExchangeRateTargetRequest exchangeRateTargetRequest);
+
+    List<ExchangeRateTargetDto> toDto(List<ExchangeRateTargetRequest> exchangeRateTargetRequests);
+
     PurchaseResponse toResponse(PurchaseDto purchaseDto);
 
+    List<PurchaseResponse> toResponse(List<PurchaseDto> purchaseDtos);
+
+    PurchasePageResponse toResponse(PurchasePageDto purchasePageDto);
+
     @Mapping(target = "amount", source = "originalAmount.value")
     @Mapping(target = "currency", source = "originalAmount.currency")
     @Mapping(target = "currencyCountry", source = "originalAmount.country")
     PurchaseEntity toEntity(PurchaseDto purchaseDto);
 
+    /**
+     * Removes the trailing zeros added by the fixed scale of the column, keeping at least the two decimal places of the
+     * cents.
+     */
+    @Named("toCentsAmount")
+    default String toCentsAmount(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+
+        BigDecimal strippedAmount = amount.stripTrailingZeros();
+        return (strippedAmount.scale() < 2 ? strippedAmount.setScale(2) : strippedAmount).toPlainString();
+    }
+
 }
@@ -0,0 +1,62 @@
+package com.pablomatheus.purchase.metrics;
+
+import com.pablomatheus.purchase.cache.ExchangeRateCache;
+import com.pablomatheus.purchase.cache.ExchangeRateIndex;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryRequestCoalescer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the statistics kept by the exchange rate cache, index and request coalescer. The circuit breaker and
+ * bulkhead metrics are bound by the Resilience4j auto-configuration.
+ */
+@RequiredArgsConstructor
+@Component
+public class ExchangeRateMeterBinder implements MeterBinder {
+
+    private final ExchangeRateCache exchangeRateCache;
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final UnitedStatesTreasuryRequestCoalescer unitedStatesTreasuryRequestCoalescer;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("exchange.rate.cache.requests", exchangeRateCache, ExchangeRateCache::getHitCount)
+                .description("Exchange rate cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+
+        FunctionCounter.builder("exchange.rate.cache.requests", exchangeRateCache, ExchangeRateCache::getMissCount)
+                .description("Exchange rate cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+
+        FunctionCounter.builder("exchange.rate.cache.evictions", exchangeRateCache, ExchangeRateCache::getEvictionCount)
+                .description("Exchange rate cache evictions")
+                .register(registry);
+
+        Gauge.builder("exchange.rate.cache.size", exchangeRateCache, ExchangeRateCache::getSize)
+                .description("Estimated number of cached exchange rates")
+                .register(registry);
+
+        Gauge.builder("exchange.rate.index.size", exchangeRateIndex, ExchangeRateIndex::getSize)
+                .description("Number of indexed exchange rates")
+                .register(registry);
+
+        FunctionCounter.builder("treasury.exchange.rate.calls", unitedStatesTreasuryRequestCoalescer,
+                        UnitedStatesTreasuryRequestCoalescer::getCallCount)
+                .description("Exchange rate lookups by whether they were coalesced with an identical call in flight")
+                .tag("coalesced", "false")
+                .register(registry);
+
+        FunctionCounter.builder("treasury.exchange.rate.calls", unitedStatesTreasuryRequestCoalescer,
+                        UnitedStatesTreasuryRequestCoalescer::getCoalescedCallCount)
+                .description("Exchange rate lookups by whether they were coalesced with an identical call in flight")
+                .tag("coalesced", "true")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.pablomatheus.purchase.metrics;
+
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Instrumentation of the purchase conversions. The stages and the Treasury calls are recorded as observations, which
+ * produce a timer and, when tracing is enabled, a span of the current trace.
+ */
+@Component
+public class PurchaseConversionMetrics {
+
+    public static final String STAGE_OBSERVATION = "purchase.conversion.stage";
+    public static final String OUTCOME_COUNTER = "purchase.conversion.outcome";
+    public static final String TREASURY_OBSERVATION = "treasury.exchange.rate.request";
+
+    private final ObservationRegistry observationRegistry;
+
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    public PurchaseConversionMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder(OUTCOME_COUNTER)
+                    .description("Purchase conversions by outcome")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T observeStage(Stage stage, Supplier<T> supplier) {
+        String stageName = stage.name().toLowerCase(Locale.ROOT);
+
+        return Observation.createNotStarted(STAGE_OBSERVATION, observationRegistry)
+                .contextualName("purchase-conversion-" + stageName)
+                .lowCardinalityKeyValue("stage", stageName)
+                .observe(supplier);
+    }
+
+    /**
+     * Observes a call to the Treasury API, tagged by currency and by the HTTP status of the response. Calls rejected by
+     * the circuit breaker or the bulkhead are tagged as {@code REJECTED}, and calls without a response as
+     * {@code IO_ERROR}.
+     */
+    public <T> T observeTreasuryCall(String currency, Supplier<T> supplier) {
+        Observation observation = Observation.createNotStarted(TREASURY_OBSERVATION, observationRegistry)
+                .contextualName("treasury-exchange-rate-request")
+                .lowCardinalityKeyValue("currency", currency)
+                .start();
+
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = supplier.get();
+            observation.lowCardinalityKeyValue("status", "200");
+            return result;
+        } catch (RuntimeException exception) {
+            observation.lowCardinalityKeyValue("status", getStatus(exception));
+            observation.error(exception);
+            throw exception;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    public void incrementOutcome(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private static String getStatus(RuntimeException exception) {
+        Throwable cause = exception instanceof ResponseStatusException && exception.getCause() != null
+                ? exception.getCause()
+                : exception;
+
+        if (cause instanceof FeignException feignException) {
+            return feignException.status() > 0 ? String.valueOf(feignException.status()) : "IO_ERROR";
+        }
+
+        if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+            return "REJECTED";
+        }
+
+        return "UNKNOWN";
+    }
+
+    public enum Stage {
+        FIND,
+        EXCHANGE_RATE,
+        CONVERSION
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        NOT_FOUND,
+        BAD_REQUEST,
+        NO_RATE_FOUND
+    }
+
+}
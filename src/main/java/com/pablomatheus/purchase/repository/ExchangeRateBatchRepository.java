@@ -0,0 +1,16 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+
+import java.util.List;
+
+public interface ExchangeRateBatchRepository {
+
+    /**
+     * Inserts or updates the exchange rates in a single transaction, keeping a single exchange rate per currency,
+     * country and effective date with the latest record date. The exchange rates are detached afterwards, so the
+     * persistence context does not grow with the amount of synchronized exchange rates.
+     */
+    int upsertAll(List<ExchangeRateEntity> exchangeRateEntities);
+
+}
@@ -0,0 +1,102 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ExchangeRateBatchRepositoryImpl implements ExchangeRateBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    @Override
+    public int upsertAll(List<ExchangeRateEntity> exchangeRateEntities) {
+        Collection<ExchangeRateEntity> latestExchangeRates = latestByKey(exchangeRateEntities);
+        Map<ExchangeRateKey, ExchangeRateEntity> storedExchangeRates = findStored(latestExchangeRates);
+        int count = 0;
+
+        for (ExchangeRateEntity exchangeRateEntity : latestExchangeRates) {
+            ExchangeRateEntity storedExchangeRate = storedExchangeRates.get(ExchangeRateKey.of(exchangeRateEntity));
+
+            if (storedExchangeRate == null) {
+                entityManager.persist(exchangeRateEntity);
+                count++;
+                continue;
+            }
+
+            if (!storedExchangeRate.getRecordDate().isAfter(exchangeRateEntity.getRecordDate())) {
+                storedExchangeRate.setExchangeRate(exchangeRateEntity.getExchangeRate());
+                storedExchangeRate.setRecordDate(exchangeRateEntity.getRecordDate());
+                count++;
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        return count;
+    }
+
+    /**
+     * Loads the stored exchange rates of the chunk with a single query. The currencies, countries and effective dates are
+     * matched separately, which is served by the unique index and may load a few more exchange rates than needed, since
+     * a chunk only spans a few effective dates.
+     */
+    private Map<ExchangeRateKey, ExchangeRateEntity> findStored(Collection<ExchangeRateEntity> exchangeRateEntities) {
+        Set<String> currencies = new HashSet<>();
+        Set<String> countries = new HashSet<>();
+        Set<LocalDate> effectiveDates = new HashSet<>();
+
+        for (ExchangeRateEntity exchangeRateEntity : exchangeRateEntities) {
+            currencies.add(exchangeRateEntity.getCurrency());
+            countries.add(exchangeRateEntity.getCountry());
+            effectiveDates.add(exchangeRateEntity.getEffectiveDate());
+        }
+
+        Map<ExchangeRateKey, ExchangeRateEntity> storedExchangeRates = new HashMap<>();
+
+        entityManager.createQuery("""
+                        SELECT e FROM ExchangeRateEntity e
+                        WHERE e.currency IN :currencies AND e.country IN :countries AND e.effectiveDate IN :effectiveDates
+                        """, ExchangeRateEntity.class)
+                .setParameter("currencies", currencies)
+                .setParameter("countries", countries)
+                .setParameter("effectiveDates", effectiveDates)
+                .getResultList()
+                .forEach(storedExchangeRate -> storedExchangeRates.put(ExchangeRateKey.of(storedExchangeRate), storedExchangeRate));
+
+        return storedExchangeRates;
+    }
+
+    private static Collection<ExchangeRateEntity> latestByKey(List<ExchangeRateEntity> exchangeRateEntities) {
+        Map<ExchangeRateKey, ExchangeRateEntity> latestExchangeRates = new LinkedHashMap<>();
+
+        for (ExchangeRateEntity exchangeRateEntity : exchangeRateEntities) {
+            latestExchangeRates.merge(ExchangeRateKey.of(exchangeRateEntity), exchangeRateEntity,
+                    (current, candidate) -> current.getRecordDate().isAfter(candidate.getRecordDate()) ? current : candidate);
+        }
+
+        return latestExchangeRates.values();
+    }
+
+    private record ExchangeRateKey(String currency, String country, LocalDate effectiveDate) {
+
+        static ExchangeRateKey of(ExchangeRateEntity exchangeRateEntity) {
+            return new ExchangeRateKey(exchangeRateEntity.getCurrency(), exchangeRateEntity.getCountry(),
+                    exchangeRateEntity.getEffectiveDate());
+        }
+
+    }
+
+}
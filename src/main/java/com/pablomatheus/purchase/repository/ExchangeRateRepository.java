@@ -0,0 +1,34 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ExchangeRateRepository extends CrudRepository<ExchangeRateEntity, Long>, ExchangeRateBatchRepository {
+
+    @Transactional(readOnly = true)
+    Optional<ExchangeRateEntity> findFirstByCurrencyAndCountryAndEffectiveDateBetweenOrderByEffectiveDateDesc(
+            String currency, String country, LocalDate startDate, LocalDate endDate);
+
+    @Transactional(readOnly = true)
+    List<ExchangeRateEntity> findByCountryIn(Collection<String> countries);
+
+    /**
+     * Reads the primary database, since the synchronization resumes from the records it has written.
+     */
+    @Query("SELECT MAX(e.recordDate) FROM ExchangeRateEntity e")
+    Optional<LocalDate> findLastRecordDate();
+
+    /**
+     * Reads the primary database, since the exchange rate index is loaded right after the synchronization wrote them.
+     */
+    @Query("SELECT e FROM ExchangeRateEntity e")
+    List<ExchangeRateEntity> findAllStored();
+
+}
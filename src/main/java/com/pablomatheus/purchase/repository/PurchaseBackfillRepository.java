@@ -0,0 +1,59 @@
+package com.pablomatheus.purchase.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.OptionalLong;
+
+/**
+ * Copies the original columns of the purchases and purchase conversions into the columns added by the expand step of
+ * the precision migration. Each batch is a range of identifiers updated by its own statement outside of a transaction,
+ * so the locks are only held by the rows of one batch at a time.
+ */
+@RequiredArgsConstructor
+@Repository
+public class PurchaseBackfillRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the last purchase identifier of the batch following the identifier, if there is any purchase after it.
+     */
+    public OptionalLong findPurchasesBatchEnd(long afterId, int batchSize) {
+        return findBatchEnd("purchases", afterId, batchSize);
+    }
+
+    public int backfillPurchases(long afterId, long untilId) {
+        return jdbcTemplate.update("""
+                        UPDATE purchases SET id_bigint = id, amount_decimal = amount
+                        WHERE id > ? AND id <= ? AND (id_bigint IS NULL OR amount_decimal IS NULL)
+                        """,
+                afterId, untilId);
+    }
+
+    /**
+     * Finds the last purchase conversion identifier of the batch following the identifier, if there is any purchase
+     * conversion after it.
+     */
+    public OptionalLong findConversionsBatchEnd(long afterId, int batchSize) {
+        return findBatchEnd("purchase_conversions", afterId, batchSize);
+    }
+
+    public int backfillConversions(long afterId, long untilId) {
+        return jdbcTemplate.update("""
+                        UPDATE purchase_conversions SET purchase_id_bigint = purchase_id
+                        WHERE id > ? AND id <= ? AND purchase_id_bigint IS NULL
+                        """,
+                afterId, untilId);
+    }
+
+    private OptionalLong findBatchEnd(String table, long afterId, int batchSize) {
+        Long batchEnd = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM (SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?) batch",
+                Long.class, afterId, batchSize);
+
+        return batchEnd != null ? OptionalLong.of(batchEnd) : OptionalLong.empty();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+
+import java.util.List;
+
+public interface PurchaseBatchRepository {
+
+    /**
+     * Inserts the purchases in a single transaction, flushing them as JDBC batches and detaching them afterwards, so
+     * the persistence context does not grow with the amount of inserted purchases.
+     */
+    int insertAll(List<PurchaseEntity> purchaseEntities);
+
+}
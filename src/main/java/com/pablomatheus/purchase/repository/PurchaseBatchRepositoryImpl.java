@@ -0,0 +1,26 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class PurchaseBatchRepositoryImpl implements PurchaseBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    @Override
+    public int insertAll(List<PurchaseEntity> purchaseEntities) {
+        purchaseEntities.forEach(entityManager::persist);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        return purchaseEntities.size();
+    }
+
+}
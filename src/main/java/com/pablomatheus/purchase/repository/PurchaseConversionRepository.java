@@ -0,0 +1,23 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseConversionEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PurchaseConversionRepository extends CrudRepository<PurchaseConversionEntity, Long> {
+
+    /**
+     * Returns the conversion together with its purchase in a single query.
+     */
+    @EntityGraph(attributePaths = "purchase")
+    @Transactional(readOnly = true)
+    Optional<PurchaseConversionEntity> findByPurchaseIdAndCurrencyAndCountry(Long purchaseId, String currency, String country);
+
+    @Transactional(readOnly = true)
+    List<PurchaseConversionEntity> findByPurchaseId(Long purchaseId);
+
+}
@@ -0,0 +1,18 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface PurchaseExportRepository {
+
+    /**
+     * Scrolls the purchases of the transaction date range, optionally of a currency and country, ordered by transaction
+     * date and identifier. The rows are fetched from the database cursor in groups of the fetch size and each purchase
+     * is detached once consumed, so the memory used does not grow with the amount of exported purchases.
+     */
+    long forEachPurchase(LocalDateTime from, LocalDateTime to, String currency, String country, int fetchSize,
+                         Consumer<PurchaseEntity> consumer);
+
+}
@@ -0,0 +1,61 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public class PurchaseExportRepositoryImpl implements PurchaseExportRepository {
+
+    private static final String FIND_PURCHASES = """
+            SELECT p FROM PurchaseEntity p
+            WHERE p.transactionDate >= :from AND p.transactionDate < :to
+              AND (:currency IS NULL OR p.currency = :currency)
+              AND (:country IS NULL OR p.currencyCountry = :country)
+            ORDER BY p.transactionDate, p.id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Scrolls the purchases with a server side cursor, which MySQL Connector/J only opens with the
+     * {@code useCursorFetch} data source property, and without going through the second-level cache.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public long forEachPurchase(LocalDateTime from, LocalDateTime to, String currency, String country, int fetchSize,
+                                Consumer<PurchaseEntity> consumer) {
+
+        long count = 0;
+
+        try (ScrollableResults<PurchaseEntity> purchaseEntities = entityManager.unwrap(Session.class)
+                .createQuery(FIND_PURCHASES, PurchaseEntity.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("currency", currency)
+                .setParameter("country", country)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            while (purchaseEntities.next()) {
+                PurchaseEntity purchaseEntity = purchaseEntities.get();
+                consumer.accept(purchaseEntity);
+                entityManager.detach(purchaseEntity);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Idempotency keys of the added purchases, each one recorded with the purchase it added and the hash of the request
+ * that added it. The keys are written with plain JDBC inside the transaction of the caller, so a key that was already
+ * used fails right away with a {@link org.springframework.dao.DuplicateKeyException} instead of at the commit.
+ */
+@RequiredArgsConstructor
+@Repository
+public class PurchaseIdempotencyKeyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(IdempotencyKeyDto idempotencyKey, long purchaseId) {
+        jdbcTemplate.update("""
+                        INSERT INTO purchase_idempotency_keys (idempotency_key, purchase_id, request_hash, creation_date)
+                        VALUES (?, ?, ?, ?)
+                        """,
+                idempotencyKey.getKey(), purchaseId, idempotencyKey.getRequestHash(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Finds the purchase added with the key. It is read outside of a read-only transaction, so it is answered by the
+     * primary database even when there are replicas.
+     */
+    public Optional<IdempotencyKey> find(String idempotencyKey) {
+        List<IdempotencyKey> keys = jdbcTemplate.query(
+                "SELECT purchase_id, request_hash, creation_date FROM purchase_idempotency_keys WHERE idempotency_key = ?",
+                (resultSet, rowNumber) -> new IdempotencyKey(resultSet.getLong("purchase_id"),
+                        resultSet.getString("request_hash"), resultSet.getTimestamp("creation_date").toLocalDateTime()),
+                idempotencyKey);
+
+        return keys.stream().findFirst();
+    }
+
+    /**
+     * Deletes the key while it still points to a purchase that was never persisted, so it can be used again. It returns
+     * whether the key was deleted, which is not the case when the purchase was persisted in the meantime.
+     */
+    public boolean deleteUnpersisted(String idempotencyKey, long purchaseId) {
+        return jdbcTemplate.update("""
+                        DELETE FROM purchase_idempotency_keys
+                        WHERE idempotency_key = ? AND purchase_id = ?
+                            AND NOT EXISTS (SELECT 1 FROM purchases WHERE id = ?)
+                        """,
+                idempotencyKey, purchaseId, purchaseId) > 0;
+    }
+
+    /**
+     * An idempotency key as it was recorded, with the purchase it points to.
+     */
+    public record IdempotencyKey(long purchaseId, String requestHash, LocalDateTime creationDate) {
+    }
+
+}
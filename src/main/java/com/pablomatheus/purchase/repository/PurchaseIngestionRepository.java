@@ -0,0 +1,101 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.repository.PurchaseWriteAheadLog.Entry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Identifier allocation and idempotent insertion of the purchases accepted by the asynchronous ingestion.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "purchase.ingestion", name = "enabled", havingValue = "true")
+@Repository
+public class PurchaseIngestionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the next value of the {@code PURCHASES_SEQ} sequence. Like the JPA pooled optimizer, the value is the upper
+     * bound of a block of {@link PurchaseEntity#ID_ALLOCATION_SIZE} identifiers reserved to the caller.
+     */
+    public long nextIdBlock() {
+        Long value = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR \"PURCHASES_SEQ\"", Long.class);
+
+        if (value == null) {
+            throw new IllegalStateException("The purchases sequence returned no value");
+        }
+
+        return value;
+    }
+
+    /**
+     * Inserts the purchases with their allocated identifiers as a single JDBC batch, leaving the purchases already
+     * inserted unchanged, so the same purchases can be inserted again after a crash. Any other error fails the batch.
+     * <p>
+     * A purchase accepted with an idempotency key is only inserted while its key still points to it. The keys are read
+     * with a locking read, so a key whose purchase is given up concurrently is either inserted with it or not at all.
+     */
+    @Transactional
+    public void insertAll(List<Entry> entries) {
+        Set<Long> keyedPurchaseIds = findKeyedPurchaseIds(entries);
+
+        List<PurchaseEntity> purchaseEntities = entries.stream()
+                .filter(entry -> entry.idempotencyKey() == null || keyedPurchaseIds.contains(entry.purchase().getId()))
+                .map(Entry::purchase)
+                .toList();
+
+        if (purchaseEntities.size() < entries.size()) {
+            log.warn("[{}] accepted purchases were skipped, their idempotency keys no longer point to them",
+                    entries.size() - purchaseEntities.size());
+        }
+
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO purchases
+                            (id, id_bigint, description, amount, amount_decimal, currency, currency_country,
+                             transaction_date, creation_date)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                        ON DUPLICATE KEY UPDATE id = id
+                        """,
+                purchaseEntities, purchaseEntities.size(), (statement, purchaseEntity) -> {
+                    statement.setLong(1, purchaseEntity.getId());
+                    statement.setLong(2, purchaseEntity.getId());
+                    statement.setString(3, purchaseEntity.getDescription());
+                    statement.setBigDecimal(4, purchaseEntity.getAmount());
+                    statement.setBigDecimal(5, purchaseEntity.getAmount());
+                    statement.setString(6, purchaseEntity.getCurrency());
+                    statement.setString(7, purchaseEntity.getCurrencyCountry());
+                    statement.setTimestamp(8, Timestamp.valueOf(purchaseEntity.getTransactionDate()));
+                    statement.setTimestamp(9, Timestamp.valueOf(purchaseEntity.getCreationDate()));
+                });
+    }
+
+    private Set<Long> findKeyedPurchaseIds(List<Entry> entries) {
+        List<String> idempotencyKeys = entries.stream()
+                .map(Entry::idempotencyKey)
+                .filter(Objects::nonNull)
+                .toList();
+
+        if (idempotencyKeys.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT purchase_id FROM purchase_idempotency_keys WHERE idempotency_key IN ("
+                        + String.join(", ", Collections.nCopies(idempotencyKeys.size(), "?")) + ") FOR UPDATE",
+                Long.class, idempotencyKeys.toArray()));
+    }
+
+}
@@ -1,7 +1,32 @@
 package com.pablomatheus.purchase.repository;
 
 import com.pablomatheus.purchase.entity.PurchaseEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PurchaseRepository extends CrudRepository<PurchaseEntity, Long>, PurchaseBatchRepository,
+        PurchaseExportRepository {
+
+    /**
+     * Finds the purchases of the transaction date range that come after the transaction date and identifier of the
+     * last purchase of the previous page, seeking them through the transaction date index instead of skipping an offset.
+     */
+    @Query("""
+            SELECT p FROM PurchaseEntity p
+            WHERE p.transactionDate >= :from AND p.transactionDate < :to
+              AND (:currency IS NULL OR p.currency = :currency)
+              AND (:country IS NULL OR p.currencyCountry = :country)
+              AND p.transactionDate >= :afterTransactionDate
+              AND (p.transactionDate > :afterTransactionDate OR p.id > :afterId)
+            ORDER BY p.transactionDate, p.id
+            """)
+    @Transactional(readOnly = true)
+    List<PurchaseEntity> findPage(LocalDateTime from, LocalDateTime to, String currency, String country,
+                                  LocalDateTime afterTransactionDate, Long afterId, Pageable pageable);
 
-public interface PurchaseRepository extends CrudRepository<PurchaseEntity, Long> {
 }
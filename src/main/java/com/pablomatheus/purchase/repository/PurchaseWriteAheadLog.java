@@ -0,0 +1,312 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable local log of the purchases accepted by the asynchronous ingestion, appended before they are persisted.
+ * <p>
+ * The log is a sequence of memory-mapped segment files of a fixed size, named by their increasing index. Each record is
+ * written as its length, its CRC32C checksum and its content, which starts with the version of the record layout, and
+ * the zeros after the last record mark the end of a segment. A segment is only written by the process that created it: on opening, the records of the existing segments
+ * are recovered up to the first incomplete or corrupted record, and the new records are appended to a new segment.
+ * <p>
+ * The segments are deleted by {@link #release(long)} once all their records were persisted. Records are replayed at
+ * least once, so they carry the identifier allocated on acceptance and their insertion is expected to be idempotent.
+ * A record also carries the idempotency key the purchase was accepted with, or a negative key length without one. A
+ * record of another layout version is not recovered, like a corrupted one.
+ */
+@Slf4j
+public class PurchaseWriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final byte RECORD_VERSION = 1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+    private final List<Entry> recoveredEntries = new ArrayList<>();
+
+    private final Object syncLock = new Object();
+
+    private long segment;
+    private MappedByteBuffer buffer;
+    private long position;
+    private long syncedPosition;
+    private boolean closed;
+
+    public PurchaseWriteAheadLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        try {
+            Files.createDirectories(directory);
+
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .forEach(file -> segments.put(getSegment(file), file));
+            }
+
+            for (Map.Entry<Long, Path> segmentFile : segments.entrySet()) {
+                recover(segmentFile.getKey(), segmentFile.getValue());
+            }
+
+            openSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("It was not possible to open the write-ahead log at " + directory, exception);
+        }
+
+        log.info("[{}] purchases were recovered from [{}] segments of the write-ahead log at [{}]",
+                recoveredEntries.size(), segments.size() - 1, directory);
+    }
+
+    /**
+     * Returns the records found in the segments when the log was opened, in the order they were appended.
+     */
+    public List<Entry> getRecoveredEntries() {
+        return recoveredEntries;
+    }
+
+    public Entry append(PurchaseEntity purchaseEntity) {
+        return append(purchaseEntity, null);
+    }
+
+    /**
+     * Appends the purchase and its idempotency key to the current segment, moving to a new segment when it is full. The
+     * record is durable only after a {@link #sync(long)} up to the position of the returned entry.
+     */
+    public synchronized Entry append(PurchaseEntity purchaseEntity, String idempotencyKey) {
+        if (closed) {
+            throw new IllegalStateException("The write-ahead log is closed");
+        }
+
+        byte[] content = encode(purchaseEntity, idempotencyKey);
+
+        if (HEADER_SIZE + content.length > segmentSize) {
+            throw new IllegalArgumentException("The purchase does not fit in a segment of the write-ahead log");
+        }
+
+        if (buffer.remaining() < HEADER_SIZE + content.length) {
+            buffer.force();
+            openSegment(segment + 1);
+        }
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(content);
+
+        buffer.putInt(content.length)
+                .putInt((int) checksum.getValue())
+                .put(content);
+
+        position += HEADER_SIZE + content.length;
+        return new Entry(segment, position, purchaseEntity, idempotencyKey);
+    }
+
+    /**
+     * Forces the appended records up to the position to the storage device. The threads waiting while a force is in
+     * progress are covered by the next single force, so the concurrent appends share the cost of the disk flushes.
+     */
+    public void sync(long position) {
+        synchronized (syncLock) {
+            if (syncedPosition >= position) {
+                return;
+            }
+
+            MappedByteBuffer currentBuffer;
+            long currentPosition;
+
+            synchronized (this) {
+                currentBuffer = buffer;
+                currentPosition = this.position;
+            }
+
+            // The previous segments were forced when the log moved past them
+            currentBuffer.force();
+            syncedPosition = currentPosition;
+        }
+    }
+
+    /**
+     * Deletes the segments before the given one, except the segment being appended to.
+     */
+    public synchronized void release(long segment) {
+        NavigableMap<Long, Path> releasedSegments = segments.headMap(closed ? segment : Math.min(segment, this.segment), false);
+
+        for (Path file : releasedSegments.values()) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException exception) {
+                log.warn("It was not possible to delete the write-ahead log segment [{}]: {}", file, exception.getMessage());
+                return;
+            }
+        }
+
+        releasedSegments.clear();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            buffer.force();
+            closed = true;
+        }
+    }
+
+    private void openSegment(long segment) {
+        Path file = directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("It was not possible to create the write-ahead log segment " + file, exception);
+        }
+
+        this.segment = segment;
+        this.segments.put(segment, file);
+    }
+
+    private void recover(long segment, Path file) throws IOException {
+        ByteBuffer segmentBuffer = ByteBuffer.wrap(Files.readAllBytes(file));
+
+        while (segmentBuffer.remaining() >= HEADER_SIZE) {
+            int length = segmentBuffer.getInt();
+            int expectedChecksum = segmentBuffer.getInt();
+
+            if (length <= 0 || length > segmentBuffer.remaining()) {
+                break;
+            }
+
+            byte[] content = new byte[length];
+            segmentBuffer.get(content);
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(content);
+
+            if ((int) checksum.getValue() != expectedChecksum) {
+                log.warn("The write-ahead log segment [{}] has a corrupted record, the following records were ignored", file);
+                break;
+            }
+
+            try {
+                recoveredEntries.add(decode(segment, content));
+            } catch (BufferUnderflowException | IllegalArgumentException exception) {
+                log.warn("The write-ahead log segment [{}] has an unreadable record, the following records were ignored", file);
+                break;
+            }
+        }
+    }
+
+    private static long getSegment(Path file) {
+        String fileName = file.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(PurchaseEntity purchaseEntity, String idempotencyKey) {
+        byte[] description = toBytes(purchaseEntity.getDescription());
+        byte[] amount = toBytes(purchaseEntity.getAmount().toPlainString());
+        byte[] currency = toBytes(purchaseEntity.getCurrency());
+        byte[] currencyCountry = toBytes(purchaseEntity.getCurrencyCountry());
+        byte[] key = idempotencyKey == null ? new byte[0] : toBytes(idempotencyKey);
+
+        ByteBuffer content = ByteBuffer.allocate(1 + Long.BYTES + (Long.BYTES + Integer.BYTES) * 2 + Integer.BYTES * 5
+                + description.length + amount.length + currency.length + currencyCountry.length + key.length);
+
+        content.put(RECORD_VERSION);
+        content.putLong(purchaseEntity.getId());
+        putDateTime(content, purchaseEntity.getTransactionDate());
+        putDateTime(content, purchaseEntity.getCreationDate());
+        content.putInt(description.length).put(description);
+        content.putInt(amount.length).put(amount);
+        content.putInt(currency.length).put(currency);
+        content.putInt(currencyCountry.length).put(currencyCountry);
+
+        if (idempotencyKey == null) {
+            content.putInt(-1);
+        } else {
+            content.putInt(key.length).put(key);
+        }
+
+        return content.array();
+    }
+
+    private static Entry decode(long segment, byte[] bytes) {
+        ByteBuffer content = ByteBuffer.wrap(bytes);
+        byte version = content.get();
+
+        if (version != RECORD_VERSION) {
+            throw new IllegalArgumentException("Unknown record version " + version);
+        }
+
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(content.getLong());
+        purchaseEntity.setTransactionDate(getDateTime(content));
+        purchaseEntity.setCreationDate(getDateTime(content));
+        purchaseEntity.setDescription(getString(content));
+        purchaseEntity.setAmount(new BigDecimal(getString(content)));
+        purchaseEntity.setCurrency(getString(content));
+        purchaseEntity.setCurrencyCountry(getString(content));
+
+        int keyLength = content.getInt();
+        String idempotencyKey = keyLength < 0 ? null : getString(content, keyLength);
+
+        if (content.hasRemaining()) {
+            throw new IllegalArgumentException("The record has " + content.remaining() + " unexpected bytes");
+        }
+
+        return new Entry(segment, 0, purchaseEntity, idempotencyKey);
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(ByteBuffer content) {
+        return getString(content, content.getInt());
+    }
+
+    private static String getString(ByteBuffer content, int length) {
+        byte[] value = new byte[length];
+        content.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void putDateTime(ByteBuffer content, LocalDateTime dateTime) {
+        content.putLong(dateTime.toEpochSecond(ZoneOffset.UTC)).putInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer content) {
+        return LocalDateTime.ofEpochSecond(content.getLong(), content.getInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * A purchase appended to the log, with its idempotency key, the segment it was appended to and the position of the
+     * log after it.
+     */
+    public record Entry(long segment, long position, PurchaseEntity purchase, String idempotencyKey) {
+    }
+
+}
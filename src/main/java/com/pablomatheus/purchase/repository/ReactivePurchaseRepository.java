@@ -0,0 +1,213 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.config.DataSourceConfiguration;
+import com.pablomatheus.purchase.config.PurchaseDataSourceProperties;
+import com.pablomatheus.purchase.config.ReactivePurchaseProperties;
+import com.pablomatheus.purchase.entity.PurchaseConversionEntity;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking access to the {@code purchases} and {@code purchase_conversions} tables for the reactive stack, through
+ * its own R2DBC connection pool on the same database as the JPA repositories.
+ * <p>
+ * The connection factory is not exposed as a bean, since it would replace the JDBC data source used by JPA and Flyway.
+ * Instead, the pool is sized from the {@code purchase.datasource.pool} properties together with the primary JDBC pool.
+ * <p>
+ * The identifiers are taken from the same sequences used by JPA. Like the JPA pooled optimizer, each value taken here is
+ * the upper bound of a block of identifiers that are all handed out before the next value is taken, so both can insert
+ * into the same tables. Like the entities, the inserts write the columns added by the expand step of the precision
+ * migration as well.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Component
+public class ReactivePurchaseRepository implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    private final IdBlock purchaseIds = new IdBlock("PURCHASES_SEQ", PurchaseEntity.ID_ALLOCATION_SIZE);
+    private final IdBlock purchaseConversionIds = new IdBlock("PURCHASE_CONVERSIONS_SEQ", PurchaseConversionEntity.ID_ALLOCATION_SIZE);
+
+    public ReactivePurchaseRepository(ReactivePurchaseProperties properties,
+                                      PurchaseDataSourceProperties purchaseDataSourceProperties,
+                                      HikariDataSource primaryDataSource) {
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getR2dbcUrl())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build();
+
+        PurchaseDataSourceProperties.Pool pool = purchaseDataSourceProperties.getPool();
+        int maximumPoolSize = properties.getMaximumPoolSize() > 0
+                ? properties.getMaximumPoolSize()
+                : DataSourceConfiguration.getReactivePoolSize(pool, primaryDataSource.getMaximumPoolSize());
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .initialSize(Math.min(pool.getMinimumSize(), maximumPoolSize))
+                .maxSize(maximumPoolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    public Mono<PurchaseEntity> findById(Long id) {
+        return databaseClient.sql("""
+                        SELECT p.id, p.description, COALESCE(p.amount_decimal, CAST(p.amount AS DECIMAL(19, 4))) AS amount,
+                               p.currency, p.currency_country, p.transaction_date, p.creation_date
+                        FROM purchases p
+                        WHERE p.id = :id
+                        """)
+                .bind("id", id)
+                .map(ReactivePurchaseRepository::toPurchase)
+                .one();
+    }
+
+    public Mono<PurchaseEntity> save(PurchaseEntity purchaseEntity) {
+        LocalDateTime creationDate = LocalDateTime.now();
+
+        return purchaseIds.allocate()
+                .flatMap(id -> databaseClient.sql("""
+                                INSERT INTO purchases
+                                    (id, id_bigint, description, amount, amount_decimal, currency, currency_country,
+                                     transaction_date, creation_date)
+                                VALUES (:id, :id, :description, :amount, :amount, :currency, :currencyCountry,
+                                        :transactionDate, :creationDate)
+                                """)
+                        .bind("id", id)
+                        .bind("description", purchaseEntity.getDescription())
+                        .bind("amount", purchaseEntity.getAmount())
+                        .bind("currency", purchaseEntity.getCurrency())
+                        .bind("currencyCountry", purchaseEntity.getCurrencyCountry())
+                        .bind("transactionDate", purchaseEntity.getTransactionDate())
+                        .bind("creationDate", creationDate)
+                        .then()
+                        .then(Mono.fromSupplier(() -> {
+                            purchaseEntity.setId(id);
+                            purchaseEntity.setCreationDate(creationDate);
+                            return purchaseEntity;
+                        })));
+    }
+
+    public Mono<PurchaseConversionEntity> findConversion(Long purchaseId, String currency, String country) {
+        return databaseClient.sql("""
+                        SELECT c.id AS conversion_id, c.currency AS conversion_currency, c.country AS conversion_country,
+                               c.exchange_rate, c.effective_date, c.converted_amount, c.creation_date AS conversion_creation_date,
+                               p.id, p.description, COALESCE(p.amount_decimal, CAST(p.amount AS DECIMAL(19, 4))) AS amount,
+                               p.currency, p.currency_country, p.transaction_date, p.creation_date
+                        FROM purchase_conversions c
+                        JOIN purchases p ON p.id = c.purchase_id
+                        WHERE c.purchase_id = :purchaseId AND c.currency = :currency AND c.country = :country
+                        """)
+                .bind("purchaseId", purchaseId)
+                .bind("currency", currency)
+                .bind("country", country)
+                .map(row -> {
+                    PurchaseConversionEntity purchaseConversionEntity = new PurchaseConversionEntity();
+                    purchaseConversionEntity.setId(row.get("conversion_id", Long.class));
+                    purchaseConversionEntity.setPurchase(toPurchase(row));
+                    purchaseConversionEntity.setCurrency(row.get("conversion_currency", String.class));
+                    purchaseConversionEntity.setCountry(row.get("conversion_country", String.class));
+                    purchaseConversionEntity.setExchangeRate(row.get("exchange_rate", BigDecimal.class));
+                    purchaseConversionEntity.setEffectiveDate(row.get("effective_date", LocalDate.class));
+                    purchaseConversionEntity.setConvertedAmount(row.get("converted_amount", BigDecimal.class));
+                    purchaseConversionEntity.setCreationDate(row.get("conversion_creation_date", LocalDateTime.class));
+                    return purchaseConversionEntity;
+                })
+                .one();
+    }
+
+    public Mono<Void> saveConversion(PurchaseConversionEntity purchaseConversionEntity) {
+        return purchaseConversionIds.allocate()
+                .flatMap(id -> databaseClient.sql("""
+                                INSERT INTO purchase_conversions
+                                    (id, purchase_id, purchase_id_bigint, currency, country, exchange_rate, effective_date,
+                                     converted_amount, creation_date)
+                                VALUES (:id, :purchaseId, :purchaseId, :currency, :country, :exchangeRate, :effectiveDate,
+                                        :convertedAmount, :creationDate)
+                                """)
+                        .bind("id", id)
+                        .bind("purchaseId", purchaseConversionEntity.getPurchase().getId())
+                        .bind("currency", purchaseConversionEntity.getCurrency())
+                        .bind("country", purchaseConversionEntity.getCountry())
+                        .bind("exchangeRate", purchaseConversionEntity.getExchangeRate())
+                        .bind("effectiveDate", purchaseConversionEntity.getEffectiveDate())
+                        .bind("convertedAmount", purchaseConversionEntity.getConvertedAmount())
+                        .bind("creationDate", LocalDateTime.now())
+                        .then());
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    private static PurchaseEntity toPurchase(Readable row) {
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(row.get("id", Long.class));
+        purchaseEntity.setDescription(row.get("description", String.class));
+        purchaseEntity.setAmount(row.get("amount", BigDecimal.class));
+        purchaseEntity.setCurrency(row.get("currency", String.class));
+        purchaseEntity.setCurrencyCountry(row.get("currency_country", String.class));
+        purchaseEntity.setTransactionDate(row.get("transaction_date", LocalDateTime.class));
+        purchaseEntity.setCreationDate(row.get("creation_date", LocalDateTime.class));
+        return purchaseEntity;
+    }
+
+    /**
+     * Identifiers of a sequence, handed out from the block of the last value taken, and taken again from the sequence
+     * when the block is exhausted. When the block is exhausted by concurrent saves, each takes a new value and the last
+     * one replaces the others, so only their remaining identifiers are skipped.
+     */
+    private class IdBlock {
+
+        private final String sequence;
+        private final int allocationSize;
+
+        private long nextId;
+        private long lastId = -1;
+
+        private IdBlock(String sequence, int allocationSize) {
+            this.sequence = sequence;
+            this.allocationSize = allocationSize;
+        }
+
+        private Mono<Long> allocate() {
+            return Mono.defer(() -> {
+                synchronized (this) {
+                    if (nextId <= lastId) {
+                        return Mono.just(nextId++);
+                    }
+                }
+
+                return databaseClient.sql("SELECT NEXT VALUE FOR \"" + sequence + "\"")
+                        .map(row -> row.get(0, Long.class))
+                        .one()
+                        .map(value -> {
+                            synchronized (this) {
+                                lastId = value;
+                                nextId = Math.max(1, value - allocationSize + 1);
+                                return nextId++;
+                            }
+                        });
+            });
+        }
+
+    }
+
+}
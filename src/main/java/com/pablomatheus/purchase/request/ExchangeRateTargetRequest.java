@@ -0,0 +1,17 @@
+package com.pablomatheus.purchase.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ExchangeRateTargetRequest {
+
+    @NotBlank
+    private String currency;
+
+    @NotBlank
+    private String country;
+
+}
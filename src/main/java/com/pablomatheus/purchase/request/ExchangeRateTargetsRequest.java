@@ -0,0 +1,20 @@
+package com.pablomatheus.purchase.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ExchangeRateTargetsRequest {
+
+    @Size(max = 50)
+    @NotEmpty
+    private List<@NotNull @Valid ExchangeRateTargetRequest> targets;
+
+}
@@ -1,6 +1,7 @@
 package com.pablomatheus.purchase.request;
 
 import com.pablomatheus.purchase.enumeration.Currency;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -21,6 +22,7 @@ public class PurchaseRequest {
     @NotNull
     private LocalDateTime transactionDate;
 
+    @Digits(integer = 15, fraction = 4)
     @NotNull
     private BigDecimal amount;
 
@@ -0,0 +1,14 @@
+package com.pablomatheus.purchase.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseBatchResponse {
+
+    private Integer count;
+
+}
@@ -0,0 +1,15 @@
+package com.pablomatheus.purchase.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class PurchasePageResponse {
+
+    private List<PurchaseResponse> purchases;
+    private String next;
+
+}
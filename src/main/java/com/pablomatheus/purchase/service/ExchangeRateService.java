@@ -0,0 +1,19 @@
+package com.pablomatheus.purchase.service;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface ExchangeRateService {
+
+    Optional<ExchangeRateDataResponse> getExchangeRate(String currency, String country, LocalDate date);
+
+    /**
+     * Returns the rate from the source currency to the currency and country on the date, triangulated through the
+     * exchange rates of both currencies per US Dollar.
+     */
+    Optional<ExchangeRateDataResponse> getCrossExchangeRate(Currency source, String currency, String country, LocalDate date);
+
+}
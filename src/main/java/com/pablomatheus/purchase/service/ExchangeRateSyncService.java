@@ -0,0 +1,23 @@
+package com.pablomatheus.purchase.service;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface ExchangeRateSyncService {
+
+    /**
+     * Stores the exchange rates published since the last stored record date.
+     */
+    void synchronize();
+
+    /**
+     * Returns whether every exchange rate published up to the date was already stored, so the stored exchange rates
+     * answer the lookups of the date without calling the Treasury API.
+     */
+    boolean isSynchronized(LocalDate date);
+
+    Optional<ExchangeRateDataResponse> getExchangeRate(String currency, String country, LocalDate date);
+
+}
@@ -0,0 +1,16 @@
+package com.pablomatheus.purchase.service;
+
+public interface PurchaseBackfillService {
+
+    /**
+     * Fills the columns added by the expand step of the precision migration for the rows written before it.
+     */
+    void backfill();
+
+    /**
+     * Returns whether a whole pass over the tables found no row left to fill, so the contract step can be run once
+     * every instance writes the new columns.
+     */
+    boolean isCompleted();
+
+}
@@ -0,0 +1,10 @@
+package com.pablomatheus.purchase.service;
+
+import com.pablomatheus.purchase.dto.IdempotentPurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+
+public interface PurchaseIdempotencyService {
+
+    IdempotentPurchaseDto addPurchase(String idempotencyKey, PurchaseDto purchaseDto);
+
+}
@@ -0,0 +1,12 @@
+package com.pablomatheus.purchase.service;
+
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+
+public interface PurchaseIngestionService {
+
+    PurchaseDto acceptPurchase(PurchaseDto purchaseDto);
+
+    PurchaseDto acceptPurchase(PurchaseDto purchaseDto, IdempotencyKeyDto idempotencyKey);
+
+}
@@ -1,11 +1,31 @@
 package com.pablomatheus.purchase.service;
 
+import com.pablomatheus.purchase.dto.ExchangeRateTargetDto;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
 import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseFilterDto;
+import com.pablomatheus.purchase.dto.PurchasePageDto;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface PurchaseService {
 
     PurchaseDto addPurchase(PurchaseDto purchaseDto);
 
+    PurchaseDto addPurchase(PurchaseDto purchaseDto, IdempotencyKeyDto idempotencyKey);
+
+    int addPurchases(Stream<PurchaseDto> purchaseDtos);
+
     PurchaseDto getCurrencyConvertedPurchase(Long id, String currency, String country);
 
+    List<PurchaseDto> getCurrencyConvertedPurchase(Long id, List<ExchangeRateTargetDto> targets);
+
+    List<PurchaseDto> getCurrencyConvertedPurchases(List<Long> ids, List<ExchangeRateTargetDto> targets);
+
+    PurchasePageDto getPurchases(PurchaseFilterDto purchaseFilterDto, String cursor, int size);
+
+    long exportPurchases(PurchaseFilterDto purchaseFilterDto, Consumer<PurchaseDto> consumer);
+
 }
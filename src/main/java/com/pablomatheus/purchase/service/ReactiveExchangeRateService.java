@@ -0,0 +1,15 @@
+package com.pablomatheus.purchase.service;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReactiveExchangeRateService {
+
+    Mono<ExchangeRateDataResponse> getExchangeRate(String currency, String country, LocalDate date);
+
+    Mono<ExchangeRateDataResponse> getCrossExchangeRate(Currency source, String currency, String country, LocalDate date);
+
+}
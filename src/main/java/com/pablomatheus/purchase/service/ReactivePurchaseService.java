@@ -0,0 +1,12 @@
+package com.pablomatheus.purchase.service;
+
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePurchaseService {
+
+    Mono<PurchaseDto> addPurchase(PurchaseDto purchaseDto);
+
+    Mono<PurchaseDto> getCurrencyConvertedPurchase(Long id, String currency, String country);
+
+}
@@ -0,0 +1,186 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.cache.CrossRateMatrix;
+import com.pablomatheus.purchase.cache.ExchangeRateCache;
+import com.pablomatheus.purchase.cache.ExchangeRateIndex;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryRequestCoalescer;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics;
+import com.pablomatheus.purchase.service.ExchangeRateService;
+import com.pablomatheus.purchase.service.ExchangeRateSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ExchangeRateServiceImpl implements ExchangeRateService {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final UnitedStatesTreasuryRequestCoalescer unitedStatesTreasuryRequestCoalescer;
+    private final ExchangeRateCache exchangeRateCache;
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final CrossRateMatrix crossRateMatrix;
+    private final ExchangeRateSyncService exchangeRateSyncService;
+    private final PurchaseConversionMetrics purchaseConversionMetrics;
+
+    @Override
+    public Optional<ExchangeRateDataResponse> getExchangeRate(String currency, String country, LocalDate date) {
+        if (exchangeRateIndex.isLoaded()) {
+            return exchangeRateIndex.get(currency, country, date);
+        }
+
+        Optional<ExchangeRateDataResponse> cachedExchangeRate = exchangeRateCache.get(currency, country, date);
+
+        if (cachedExchangeRate.isPresent()) {
+            return cachedExchangeRate;
+        }
+
+        if (exchangeRateSyncService.isSynchronized(date)) {
+            Optional<ExchangeRateDataResponse> storedExchangeRate = exchangeRateSyncService.getExchangeRate(currency, country, date);
+            storedExchangeRate.ifPresent(data -> exchangeRateCache.put(currency, country, date, data));
+            return storedExchangeRate;
+        }
+
+        String filter = getFilter(currency, country, date);
+
+        ExchangeRateResponse exchangeRateResponse;
+
+        try {
+            exchangeRateResponse = purchaseConversionMetrics.observeTreasuryCall(currency,
+                    () -> unitedStatesTreasuryRequestCoalescer.getExchangeRate(filter, "-effective_date"));
+        } catch (ResponseStatusException exception) {
+            if (!isUnavailable(exception)) {
+                throw exception;
+            }
+
+            Optional<ExchangeRateDataResponse> staleExchangeRate = exchangeRateCache.getStale(currency, country, date)
+                    .or(() -> exchangeRateSyncService.getExchangeRate(currency, country, date))
+                    .map(ExchangeRateServiceImpl::stale);
+
+            if (staleExchangeRate.isEmpty()) {
+                throw exception;
+            }
+
+            log.warn("The exchange rates are unavailable, using the last known exchange rate with effective date [{}] for currency [{}] and country [{}]",
+                    staleExchangeRate.get().getEffectiveDate(), currency, country);
+
+            return staleExchangeRate;
+        }
+
+        Optional<ExchangeRateDataResponse> exchangeRate = Optional.ofNullable(exchangeRateResponse)
+                .map(ExchangeRateResponse::getData)
+                .filter(data -> !data.isEmpty())
+                .map(data -> data.get(0));
+
+        exchangeRate.ifPresent(data -> exchangeRateCache.put(currency, country, date, data));
+
+        return exchangeRate;
+    }
+
+    /**
+     * Answers from the {@link CrossRateMatrix} when it has both currencies on the date, otherwise looks up the exchange
+     * rate of each currency and triangulates them.
+     */
+    @Override
+    public Optional<ExchangeRateDataResponse> getCrossExchangeRate(Currency source, String currency, String country,
+                                                                    LocalDate date) {
+
+        Optional<ExchangeRateDataResponse> crossExchangeRate = Currency.of(currency, country)
+                .flatMap(target -> crossRateMatrix.get(source, target, date));
+
+        if (crossExchangeRate.isPresent()) {
+            return crossExchangeRate;
+        }
+
+        Optional<ExchangeRateDataResponse> sourceExchangeRate = getUsDollarExchangeRate(source.getName(), source.getCountry(), date);
+
+        if (sourceExchangeRate.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return getUsDollarExchangeRate(currency, country, date)
+                .map(targetExchangeRate -> triangulate(currency, country, sourceExchangeRate.get(), targetExchangeRate));
+    }
+
+    private Optional<ExchangeRateDataResponse> getUsDollarExchangeRate(String currency, String country, LocalDate date) {
+        return Currency.USD == Currency.of(currency, country).orElse(null)
+                ? Optional.of(usDollarExchangeRate())
+                : getExchangeRate(currency, country, date);
+    }
+
+    /**
+     * Returns the rate of the US Dollar per US Dollar, which has no effective date.
+     */
+    static ExchangeRateDataResponse usDollarExchangeRate() {
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(Currency.USD.getName());
+        exchangeRateDataResponse.setCountry(Currency.USD.getCountry());
+        exchangeRateDataResponse.setExchangeRate(BigDecimal.ONE);
+        return exchangeRateDataResponse;
+    }
+
+    /**
+     * Triangulates the rates of both currencies per US Dollar, the cross rate taking effect with the latest of them.
+     */
+    static ExchangeRateDataResponse triangulate(String currency, String country, ExchangeRateDataResponse sourceExchangeRate,
+                                                ExchangeRateDataResponse targetExchangeRate) {
+
+        LocalDate effectiveDate = Stream.of(sourceExchangeRate.getEffectiveDate(), targetExchangeRate.getEffectiveDate())
+                .filter(Objects::nonNull)
+                .map(LocalDate::parse)
+                .max(LocalDate::compareTo)
+                .orElse(null);
+
+        ExchangeRateDataResponse crossExchangeRate = CrossRateMatrix.triangulate(currency, country,
+                sourceExchangeRate.getExchangeRate(), targetExchangeRate.getExchangeRate(), effectiveDate);
+        crossExchangeRate.setStale(sourceExchangeRate.isStale() || targetExchangeRate.isStale());
+        return crossExchangeRate;
+    }
+
+    /**
+     * Returns a copy of the last known exchange rate marked as stale, leaving the cached one untouched, so the
+     * conversions made with it are neither kept nor cached.
+     */
+    static ExchangeRateDataResponse stale(ExchangeRateDataResponse exchangeRate) {
+        ExchangeRateDataResponse staleExchangeRate = new ExchangeRateDataResponse();
+        staleExchangeRate.setRecordDate(exchangeRate.getRecordDate());
+        staleExchangeRate.setCountry(exchangeRate.getCountry());
+        staleExchangeRate.setCurrency(exchangeRate.getCurrency());
+        staleExchangeRate.setCountryCurrencyDescription(exchangeRate.getCountryCurrencyDescription());
+        staleExchangeRate.setExchangeRate(exchangeRate.getExchangeRate());
+        staleExchangeRate.setEffectiveDate(exchangeRate.getEffectiveDate());
+        staleExchangeRate.setStale(true);
+        return staleExchangeRate;
+    }
+
+    static String getFilter(String currency, String country, LocalDate date) {
+        return "effective_date:gte:" + DATE_FORMATTER.format(date.minusMonths(6)) +
+               ",effective_date:lte:" + DATE_FORMATTER.format(date) +
+               ",currency:eq:" + currency +
+               ",country:eq:" + country;
+    }
+
+    /**
+     * Whether the Treasury API failed in a way the last known exchange rates can stand in for. A request refused by the
+     * API would be refused again, so it is not answered with a stale exchange rate.
+     */
+    static boolean isUnavailable(Throwable exception) {
+        return exception instanceof ResponseStatusException statusException
+                && statusException.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+}
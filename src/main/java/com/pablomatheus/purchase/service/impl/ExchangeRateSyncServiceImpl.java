@@ -0,0 +1,184 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.cache.CrossRateMatrix;
+import com.pablomatheus.purchase.cache.ExchangeRateIndexLoader;
+import com.pablomatheus.purchase.client.ExchangeRateResponseReader;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateMetaResponse;
+import com.pablomatheus.purchase.config.ExchangeRateSyncProperties;
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
+import com.pablomatheus.purchase.repository.ExchangeRateRepository;
+import com.pablomatheus.purchase.service.ExchangeRateSyncService;
+import feign.FeignException;
+import feign.Response;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the exchange rates of the Treasury Reporting Rates of Exchange dataset in the {@code exchange_rates} table.
+ * <p>
+ * Each synchronization only requests the records from the last stored record date onwards, which are read as a
+ * stream and stored in chunks. The records of the last record date are requested again, so an interrupted
+ * synchronization is completed by the next one.
+ * <p>
+ * The synchronized exchange rates of the purchase currencies are merged into the {@link CrossRateMatrix}, which the
+ * first synchronization of the process starts from the stored ones. When the {@link ExchangeRateIndexLoader} is
+ * enabled, the index is loaded from the stored exchange rates after each synchronization, so the dataset is only
+ * downloaded once.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ExchangeRateSyncServiceImpl implements ExchangeRateSyncService {
+
+    private final UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+    private final ExchangeRateResponseReader exchangeRateResponseReader;
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateMapper exchangeRateMapper;
+    private final ExchangeRateSyncProperties exchangeRateSyncProperties;
+    private final CrossRateMatrix crossRateMatrix;
+    private final ObjectProvider<ExchangeRateIndexLoader> exchangeRateIndexLoader;
+
+    private volatile LocalDate synchronizedUntil;
+
+    @Scheduled(fixedDelayString = "${exchange-rate.sync.interval:PT1H}")
+    @Override
+    public void synchronize() {
+        if (!exchangeRateSyncProperties.isEnabled()) {
+            return;
+        }
+
+        try {
+            LocalDate startDate = LocalDate.now();
+            Optional<LocalDate> lastRecordDate = exchangeRateRepository.findLastRecordDate();
+            String filter = lastRecordDate.map(recordDate -> "record_date:gte:" + recordDate).orElse(null);
+
+            CrossRateMatrix.Builder crossRateBuilder = CrossRateMatrix.builder();
+
+            if (!crossRateMatrix.isLoaded()) {
+                exchangeRateRepository.findByCountryIn(CrossRateMatrix.getCountries()).forEach(exchangeRateEntity ->
+                        crossRateBuilder.add(exchangeRateMapper.toResponse(exchangeRateEntity)));
+            }
+
+            int count = fetchAll(filter, crossRateBuilder);
+            crossRateMatrix.update(crossRateBuilder);
+            synchronizedUntil = startDate;
+
+            log.info("[{}] exchange rates were synchronized from the record date [{}]",
+                    count, lastRecordDate.map(LocalDate::toString).orElse("-"));
+
+            ExchangeRateIndexLoader indexLoader = exchangeRateIndexLoader.getIfAvailable();
+
+            if (indexLoader != null) {
+                indexLoader.loadStored();
+            }
+        } catch (RuntimeException exception) {
+            log.error("It was not possible to synchronize the exchange rates, the stored exchange rates will be kept", exception);
+        }
+    }
+
+    @Override
+    public boolean isSynchronized(LocalDate date) {
+        LocalDate currentSynchronizedUntil = synchronizedUntil;
+        return currentSynchronizedUntil != null && !date.isAfter(currentSynchronizedUntil);
+    }
+
+    @Override
+    public Optional<ExchangeRateDataResponse> getExchangeRate(String currency, String country, LocalDate date) {
+        return exchangeRateRepository
+                .findFirstByCurrencyAndCountryAndEffectiveDateBetweenOrderByEffectiveDateDesc(
+                        currency, country, date.minusMonths(6), date)
+                .map(exchangeRateMapper::toResponse);
+    }
+
+    private int fetchAll(String filter, CrossRateMatrix.Builder crossRateBuilder) {
+        int pageSize = exchangeRateSyncProperties.getPageSize();
+        ExchangeRateChunk chunk = new ExchangeRateChunk(exchangeRateSyncProperties.getChunkSize(), crossRateBuilder);
+        int pageNumber = 1;
+        int totalPages;
+
+        do {
+            try (Response response = unitedStatesTreasuryClient.getExchangeRates(
+                    UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, filter, "record_date", pageNumber, pageSize)) {
+                if (response.status() < 200 || response.status() >= 300) {
+                    throw FeignException.errorStatus("UnitedStatesTreasuryClient#getExchangeRates", response);
+                }
+
+                ExchangeRateMetaResponse meta = response.body() == null
+                        ? null
+                        : exchangeRateResponseReader.read(response.body().asInputStream(), chunk::add);
+
+                totalPages = Optional.ofNullable(meta)
+                        .map(ExchangeRateMetaResponse::getTotalPages)
+                        .orElse(pageNumber);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            pageNumber++;
+        } while (pageNumber <= totalPages);
+
+        chunk.flush();
+        return chunk.count;
+    }
+
+    private static boolean isComplete(ExchangeRateDataResponse exchangeRate) {
+        return exchangeRate.getCurrency() != null && exchangeRate.getCountry() != null &&
+               exchangeRate.getExchangeRate() != null && exchangeRate.getEffectiveDate() != null &&
+               exchangeRate.getRecordDate() != null;
+    }
+
+    /**
+     * Stores the exchange rates as they are read, each time the chunk size is reached.
+     */
+    private class ExchangeRateChunk {
+
+        private final int chunkSize;
+
+        private final CrossRateMatrix.Builder crossRateBuilder;
+
+        private List<ExchangeRateEntity> exchangeRateEntities;
+
+        private int count;
+
+        ExchangeRateChunk(int chunkSize, CrossRateMatrix.Builder crossRateBuilder) {
+            this.chunkSize = chunkSize;
+            this.crossRateBuilder = crossRateBuilder;
+            this.exchangeRateEntities = new ArrayList<>(chunkSize);
+        }
+
+        void add(ExchangeRateDataResponse exchangeRate) {
+            if (!isComplete(exchangeRate)) {
+                return;
+            }
+
+            exchangeRateEntities.add(exchangeRateMapper.toEntity(exchangeRate));
+            crossRateBuilder.add(exchangeRate);
+
+            if (exchangeRateEntities.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!exchangeRateEntities.isEmpty()) {
+                count += exchangeRateRepository.upsertAll(exchangeRateEntities);
+                exchangeRateEntities = new ArrayList<>(chunkSize);
+            }
+        }
+
+    }
+
+}
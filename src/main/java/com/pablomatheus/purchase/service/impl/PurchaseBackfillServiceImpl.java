@@ -0,0 +1,85 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.config.PurchaseBackfillProperties;
+import com.pablomatheus.purchase.repository.PurchaseBackfillRepository;
+import com.pablomatheus.purchase.service.PurchaseBackfillService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.OptionalLong;
+
+/**
+ * Backfills the columns of the expand step of the precision migration in background, one batch of identifiers at a
+ * time, until a whole pass over the {@code purchases} and {@code purchase_conversions} tables updates no row. The rows
+ * written by an instance of the previous release during a rolling deployment are caught by a later pass.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class PurchaseBackfillServiceImpl implements PurchaseBackfillService {
+
+    private final PurchaseBackfillRepository purchaseBackfillRepository;
+    private final PurchaseBackfillProperties purchaseBackfillProperties;
+
+    private volatile boolean completed;
+
+    @Scheduled(fixedDelayString = "${purchase.backfill.interval:PT1M}")
+    @Override
+    public void backfill() {
+        if (!purchaseBackfillProperties.isEnabled() || completed) {
+            return;
+        }
+
+        try {
+            int batchSize = purchaseBackfillProperties.getBatchSize();
+            long purchases = backfill(purchaseBackfillRepository::findPurchasesBatchEnd,
+                    purchaseBackfillRepository::backfillPurchases, batchSize);
+            long conversions = backfill(purchaseBackfillRepository::findConversionsBatchEnd,
+                    purchaseBackfillRepository::backfillConversions, batchSize);
+
+            if (purchases == 0 && conversions == 0) {
+                completed = true;
+                log.info("The backfill of the purchases precision migration is completed");
+            } else {
+                log.info("[{}] purchases and [{}] purchase conversions were backfilled", purchases, conversions);
+            }
+        } catch (RuntimeException exception) {
+            log.error("It was not possible to backfill the purchases, it will be resumed by the next run", exception);
+        }
+    }
+
+    @Override
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private static long backfill(BatchEndFinder batchEndFinder, BatchUpdater batchUpdater, int batchSize) {
+        long updated = 0;
+        long afterId = 0;
+        OptionalLong untilId;
+
+        while ((untilId = batchEndFinder.find(afterId, batchSize)).isPresent()) {
+            updated += batchUpdater.update(afterId, untilId.getAsLong());
+            afterId = untilId.getAsLong();
+        }
+
+        return updated;
+    }
+
+    @FunctionalInterface
+    private interface BatchEndFinder {
+
+        OptionalLong find(long afterId, int batchSize);
+
+    }
+
+    @FunctionalInterface
+    private interface BatchUpdater {
+
+        int update(long afterId, long untilId);
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.config.PurchaseConversionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor of the exchange rate lookups of the multiple conversions requests.
+ * <p>
+ * The executor is not exposed as a bean, since an {@code Executor} bean would replace the task executor used by the
+ * asynchronous MVC requests. Lookups submitted while all its threads are busy and its queue is full are rejected with
+ * {@link HttpStatus#SERVICE_UNAVAILABLE}, and the conversions not finished by the request deadline are answered with
+ * {@link HttpStatus#GATEWAY_TIMEOUT}.
+ */
+@Slf4j
+@Component
+public class PurchaseConversionExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public PurchaseConversionExecutor(PurchaseConversionProperties purchaseConversionProperties) {
+        this.executor = new ThreadPoolExecutor(
+                purchaseConversionProperties.getParallelism(), purchaseConversionProperties.getParallelism(),
+                1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(purchaseConversionProperties.getQueueCapacity()),
+                new CustomizableThreadFactory("purchase-conversion-"));
+
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException exception) {
+            log.warn("The exchange rate lookup was rejected, [{}] lookups are waiting", executor.getQueue().size());
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE, "The exchange rates are temporarily unavailable", exception);
+        }
+    }
+
+    /**
+     * Waits for all the futures until the deadline and returns their results in the same order. The first failure is
+     * thrown as soon as it happens, without waiting for the other futures.
+     */
+    public <T> List<T> await(List<CompletableFuture<T>> futures, Instant deadline) {
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        futures.forEach(future -> future.whenComplete((result, exception) -> {
+            if (exception != null) {
+                failure.completeExceptionally(exception);
+            }
+        }));
+
+        CompletableFuture<Void> completion = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+
+        try {
+            CompletableFuture.anyOf(completion, failure).get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "The conversion did not finish in time", exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The conversion was interrupted", exception);
+        } catch (ExecutionException exception) {
+            throw unwrap(exception.getCause());
+        }
+
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Throws a {@link HttpStatus#GATEWAY_TIMEOUT} when the deadline has already passed.
+     */
+    public void checkDeadline(Instant deadline) {
+        if (remainingNanos(deadline) <= 0) {
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "The conversion did not finish in time");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static long remainingNanos(Instant deadline) {
+        return Duration.between(Instant.now(), deadline).toNanos();
+    }
+
+    private static RuntimeException unwrap(Throwable exception) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause()
+                : exception;
+
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+
+        if (cause instanceof Error error) {
+            throw error;
+        }
+
+        return new CompletionException(cause);
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pablomatheus.purchase.cache.BloomFilter;
+import com.pablomatheus.purchase.config.PurchaseIdempotencyProperties;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
+import com.pablomatheus.purchase.dto.IdempotentPurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseAmountDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository.IdempotencyKey;
+import com.pablomatheus.purchase.repository.PurchaseRepository;
+import com.pablomatheus.purchase.service.PurchaseIdempotencyService;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
+import com.pablomatheus.purchase.service.PurchaseService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Additions of purchases keyed by the {@code Idempotency-Key} header, so the retries of a client add a purchase once.
+ * <p>
+ * Each key is recorded in the {@code purchase_idempotency_keys} table together with the purchase it added and a SHA-256
+ * hash of the request, in the same transaction as the purchase or, with the asynchronous ingestion, before the purchase
+ * is appended to the write-ahead log. Its unique key is what guarantees a key adds at most one purchase, and a key sent
+ * again with a different request is rejected. A key whose purchase was accepted but is still not persisted after the
+ * {@code abandoned-key-timeout} is given up, so a process stopped between the two does not block the key forever.
+ * <p>
+ * Most keys are only ever sent once, so a Bloom filter of the keys seen by this instance lets their request skip the
+ * lookup of the table and go straight to the insert. A key added by another instance or before a restart is not in the
+ * filter, and is caught by the unique key instead. The purchases of the recent keys are kept in a bounded cache, so a
+ * retry is usually answered without reading the database, and never goes through the write path again.
+ */
+@Slf4j
+@Service
+public class PurchaseIdempotencyServiceImpl implements PurchaseIdempotencyService, MeterBinder {
+
+    private final PurchaseService purchaseService;
+    private final ObjectProvider<PurchaseIngestionService> purchaseIngestionService;
+    private final PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final PurchaseMapper purchaseMapper;
+    private final TransactionOperations transactionOperations;
+    private final Duration abandonedKeyTimeout;
+
+    private final BloomFilter keys;
+    private final Cache<String, RecentPurchase> recentPurchases;
+
+    private final LongAdder skippedLookups = new LongAdder();
+    private final LongAdder recentLookups = new LongAdder();
+    private final LongAdder databaseLookups = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+
+    public PurchaseIdempotencyServiceImpl(PurchaseService purchaseService,
+                                          ObjectProvider<PurchaseIngestionService> purchaseIngestionService,
+                                          PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository,
+                                          PurchaseRepository purchaseRepository,
+                                          PurchaseMapper purchaseMapper,
+                                          TransactionOperations transactionOperations,
+                                          PurchaseIdempotencyProperties purchaseIdempotencyProperties) {
+
+        this.purchaseService = purchaseService;
+        this.purchaseIngestionService = purchaseIngestionService;
+        this.purchaseIdempotencyKeyRepository = purchaseIdempotencyKeyRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.purchaseMapper = purchaseMapper;
+        this.transactionOperations = transactionOperations;
+        this.abandonedKeyTimeout = purchaseIdempotencyProperties.getAbandonedKeyTimeout();
+        this.keys = new BloomFilter(purchaseIdempotencyProperties.getExpectedKeys(),
+                purchaseIdempotencyProperties.getFalsePositiveProbability());
+        this.recentPurchases = Caffeine.newBuilder()
+                .maximumSize(purchaseIdempotencyProperties.getRecentKeysMaximumSize())
+                .expireAfterWrite(purchaseIdempotencyProperties.getRecentKeysTimeToLive())
+                .build();
+    }
+
+    @Override
+    public IdempotentPurchaseDto addPurchase(String key, PurchaseDto purchaseDto) {
+        IdempotencyKeyDto idempotencyKey = new IdempotencyKeyDto(key, requestHash(purchaseDto));
+
+        if (keys.mightContain(key)) {
+            Optional<PurchaseDto> purchase = findPurchase(idempotencyKey);
+
+            if (purchase.isPresent()) {
+                return replay(key, purchase.get());
+            }
+        } else {
+            skippedLookups.increment();
+        }
+
+        PurchaseDto addedPurchase;
+
+        try {
+            addedPurchase = add(purchaseDto, idempotencyKey);
+        } catch (DuplicateKeyException exception) {
+            // The key was added concurrently, by another instance or before this one was restarted
+            Optional<PurchaseDto> purchase = findPurchase(idempotencyKey);
+
+            if (purchase.isPresent()) {
+                return replay(key, purchase.get());
+            }
+
+            // The key was given up in the meantime, so the purchase is added once more
+            try {
+                addedPurchase = add(purchaseDto, idempotencyKey);
+            } catch (DuplicateKeyException retryException) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "The purchase of the idempotency key is still being processed", retryException);
+            }
+        }
+
+        remember(idempotencyKey, addedPurchase);
+        return new IdempotentPurchaseDto(addedPurchase, false);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindLookups(registry, "skipped", skippedLookups);
+        bindLookups(registry, "recent", recentLookups);
+        bindLookups(registry, "database", databaseLookups);
+
+        FunctionCounter.builder("purchase.idempotency.replays", replays, LongAdder::sum)
+                .description("Purchases answered again for an idempotency key that was already used")
+                .register(registry);
+    }
+
+    private void bindLookups(MeterRegistry registry, String source, LongAdder lookups) {
+        FunctionCounter.builder("purchase.idempotency.lookups", lookups, LongAdder::sum)
+                .description("Lookups of the idempotency keys by source, the skipped ones were never seen by the Bloom filter")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private PurchaseDto add(PurchaseDto purchaseDto, IdempotencyKeyDto idempotencyKey) {
+        PurchaseIngestionService ingestionService = purchaseIngestionService.getIfAvailable();
+
+        return ingestionService != null
+                ? ingestionService.acceptPurchase(purchaseDto, idempotencyKey)
+                : purchaseService.addPurchase(purchaseDto, idempotencyKey);
+    }
+
+    /**
+     * Finds the purchase added with the key, first among the recent keys and then in the database. A key whose purchase
+     * was never persisted is deleted once it is older than the timeout, and is then reported as not found.
+     */
+    private Optional<PurchaseDto> findPurchase(IdempotencyKeyDto idempotencyKey) {
+        RecentPurchase recentPurchase = recentPurchases.getIfPresent(idempotencyKey.getKey());
+
+        if (recentPurchase != null) {
+            recentLookups.increment();
+            checkRequestHash(recentPurchase.requestHash(), idempotencyKey);
+            return Optional.of(recentPurchase.purchase());
+        }
+
+        databaseLookups.increment();
+
+        Optional<IdempotencyKey> storedKey = purchaseIdempotencyKeyRepository.find(idempotencyKey.getKey());
+
+        if (storedKey.isEmpty()) {
+            return Optional.empty();
+        }
+
+        checkRequestHash(storedKey.get().requestHash(), idempotencyKey);
+        long purchaseId = storedKey.get().purchaseId();
+
+        // Read from the primary database, since the purchase may have been added after the last replication
+        Optional<PurchaseEntity> purchaseEntity = transactionOperations.execute(
+                status -> purchaseRepository.findById(purchaseId));
+
+        if (purchaseEntity == null || purchaseEntity.isEmpty()) {
+            if (storedKey.get().creationDate().isBefore(LocalDateTime.now().minus(abandonedKeyTimeout))
+                    && purchaseIdempotencyKeyRepository.deleteUnpersisted(idempotencyKey.getKey(), purchaseId)) {
+                log.warn("The idempotency key of the purchase [{}] was given up, the purchase was never persisted", purchaseId);
+                return Optional.empty();
+            }
+
+            // Accepted by the asynchronous ingestion of another instance, but not persisted yet
+            log.warn("The purchase [{}] of an idempotency key was not persisted yet", purchaseId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The purchase of the idempotency key is still being processed");
+        }
+
+        PurchaseDto purchase = purchaseMapper.toDto(purchaseEntity.get());
+        remember(idempotencyKey, purchase);
+        return Optional.of(purchase);
+    }
+
+    private void checkRequestHash(String requestHash, IdempotencyKeyDto idempotencyKey) {
+        if (!requestHash.equals(idempotencyKey.getRequestHash())) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "The idempotency key was already used with a different purchase");
+        }
+    }
+
+    private IdempotentPurchaseDto replay(String idempotencyKey, PurchaseDto purchase) {
+        log.info("The purchase [{}] was answered again for an idempotency key that was already used", purchase.getId());
+        keys.put(idempotencyKey);
+        replays.increment();
+        return new IdempotentPurchaseDto(purchase, true);
+    }
+
+    private void remember(IdempotencyKeyDto idempotencyKey, PurchaseDto purchase) {
+        keys.put(idempotencyKey.getKey());
+        recentPurchases.put(idempotencyKey.getKey(), new RecentPurchase(purchase, idempotencyKey.getRequestHash()));
+    }
+
+    /**
+     * Hashes the fields of the purchase sent with the key, with the amount stripped of its trailing zeros so the same
+     * amount written with another scale is the same request.
+     */
+    static String requestHash(PurchaseDto purchaseDto) {
+        PurchaseAmountDto amount = purchaseDto.getOriginalAmount();
+
+        String request = String.join("\0", purchaseDto.getDescription(),
+                String.valueOf(purchaseDto.getTransactionDate()),
+                new BigDecimal(amount.getValue()).stripTrailingZeros().toPlainString(),
+                amount.getCurrency(), amount.getCountry());
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("The SHA-256 algorithm is not available", exception);
+        }
+    }
+
+    private record RecentPurchase(PurchaseDto purchase, String requestHash) {
+    }
+
+}
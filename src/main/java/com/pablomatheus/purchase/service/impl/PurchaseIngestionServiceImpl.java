@@ -0,0 +1,333 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.config.PurchaseIngestionProperties;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository;
+import com.pablomatheus.purchase.repository.PurchaseIngestionRepository;
+import com.pablomatheus.purchase.repository.PurchaseWriteAheadLog;
+import com.pablomatheus.purchase.repository.PurchaseWriteAheadLog.Entry;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous ingestion of the purchases, which decouples the response from the commit of the insert.
+ * <p>
+ * An accepted purchase gets an identifier from a block of the purchases sequence and is appended to the write-ahead
+ * log before it is answered. A single writer thread persists the accepted purchases in micro-batches of up to
+ * {@code batch-size} purchases, waiting up to {@code linger-time} for a batch to fill, and retries a failed batch until
+ * it is persisted. A batch rejected by the database is split in halves until the rejected purchases are found, which
+ * are moved to a dead-letter log, so a single invalid purchase does not stall the writer. The purchases left in the log
+ * by a previous process are persisted again on start, which is harmless since their identifiers were already allocated.
+ */
+@Slf4j
+@ConditionalOnProperty(prefix = "purchase.ingestion", name = "enabled", havingValue = "true")
+@Service
+public class PurchaseIngestionServiceImpl implements PurchaseIngestionService, MeterBinder, DisposableBean {
+
+    private final PurchaseIngestionRepository purchaseIngestionRepository;
+    private final PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository;
+    private final PurchaseMapper purchaseMapper;
+    private final PurchaseIngestionProperties purchaseIngestionProperties;
+
+    private final PurchaseWriteAheadLog writeAheadLog;
+    private final BlockingQueue<Entry> pendingEntries;
+    private final Thread writer;
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    private volatile PurchaseWriteAheadLog deadLetterLog;
+
+    private volatile boolean running = true;
+
+    private long nextId;
+    private long lastId = -1;
+
+    public PurchaseIngestionServiceImpl(PurchaseIngestionRepository purchaseIngestionRepository,
+                                        PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository,
+                                        PurchaseMapper purchaseMapper,
+                                        PurchaseIngestionProperties purchaseIngestionProperties) {
+
+        this.purchaseIngestionRepository = purchaseIngestionRepository;
+        this.purchaseIdempotencyKeyRepository = purchaseIdempotencyKeyRepository;
+        this.purchaseMapper = purchaseMapper;
+        this.purchaseIngestionProperties = purchaseIngestionProperties;
+        this.writeAheadLog = new PurchaseWriteAheadLog(Path.of(purchaseIngestionProperties.getDirectory()),
+                (int) purchaseIngestionProperties.getSegmentSize().toBytes());
+        this.pendingEntries = new LinkedBlockingQueue<>(purchaseIngestionProperties.getQueueCapacity());
+        this.writer = new CustomizableThreadFactory("purchase-ingestion-").newThread(this::write);
+        this.writer.start();
+
+        try {
+            for (Entry entry : writeAheadLog.getRecoveredEntries()) {
+                pendingEntries.put(entry);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The recovery of the write-ahead log was interrupted", exception);
+        }
+    }
+
+    @Override
+    public PurchaseDto acceptPurchase(PurchaseDto purchaseDto) {
+        return acceptPurchase(purchaseDto, null);
+    }
+
+    /**
+     * Accepts the purchase like {@link #acceptPurchase(PurchaseDto)}. When there is an idempotency key, it is inserted
+     * with the allocated identifier before the purchase is appended, so a key that was already used fails before the
+     * purchase is accepted, and it is removed again when the purchase is rejected. The key is also appended with the
+     * purchase, which is only persisted while the key still points to it.
+     * <p>
+     * Once the purchase is queued the key is kept, even if forcing the log fails, since the writer persists it anyway. A
+     * key left by a process that stopped before appending its purchase is given up by the idempotency service after a
+     * timeout.
+     */
+    @Override
+    public PurchaseDto acceptPurchase(PurchaseDto purchaseDto, IdempotencyKeyDto idempotencyKey) {
+        PurchaseEntity purchaseEntity = purchaseMapper.toEntity(purchaseDto);
+        purchaseEntity.setCreationDate(LocalDateTime.now());
+
+        if (idempotencyKey != null) {
+            synchronized (this) {
+                purchaseEntity.setId(allocateId());
+            }
+
+            purchaseIdempotencyKeyRepository.insert(idempotencyKey, purchaseEntity.getId());
+        }
+
+        Entry entry;
+
+        try {
+            // Appended and queued in the same order, so the segments are released in the order they were written
+            synchronized (this) {
+                if (!running) {
+                    log.warn("The purchase was rejected, the ingestion is shutting down");
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The purchases are temporarily not accepted");
+                }
+
+                if (pendingEntries.remainingCapacity() == 0) {
+                    log.warn("The purchase was rejected, [{}] accepted purchases are waiting to be persisted", pendingEntries.size());
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The purchases are temporarily not accepted");
+                }
+
+                if (purchaseEntity.getId() == null) {
+                    purchaseEntity.setId(allocateId());
+                }
+
+                entry = writeAheadLog.append(purchaseEntity, idempotencyKey == null ? null : idempotencyKey.getKey());
+                pendingEntries.add(entry);
+            }
+        } catch (RuntimeException exception) {
+            if (idempotencyKey != null) {
+                purchaseIdempotencyKeyRepository.deleteUnpersisted(idempotencyKey.getKey(), purchaseEntity.getId());
+            }
+
+            throw exception;
+        }
+
+        if (purchaseIngestionProperties.isSync()) {
+            writeAheadLog.sync(entry.position());
+        }
+
+        return purchaseMapper.toDto(purchaseEntity);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("purchase.ingestion.pending", pendingEntries, BlockingQueue::size)
+                .description("Accepted purchases waiting to be persisted")
+                .register(registry);
+
+        FunctionCounter.builder("purchase.ingestion.persisted", persisted, LongAdder::sum)
+                .description("Accepted purchases persisted by the ingestion writer")
+                .register(registry);
+
+        FunctionCounter.builder("purchase.ingestion.dead.lettered", deadLettered, LongAdder::sum)
+                .description("Accepted purchases rejected by the database and moved to the dead-letter log")
+                .register(registry);
+    }
+
+    /**
+     * Stops accepting purchases and waits for the writer to persist the accepted ones. The log is removed when they were
+     * all persisted, otherwise the remaining purchases are persisted by the next process.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        // Under the lock of the appends, so the writer sees every purchase appended before it stops
+        synchronized (this) {
+            running = false;
+        }
+
+        writer.join(purchaseIngestionProperties.getShutdownTimeout().toMillis());
+
+        synchronized (this) {
+            writeAheadLog.close();
+
+            if (deadLetterLog != null) {
+                deadLetterLog.close();
+            }
+
+            // The writer only finishes by itself when no accepted purchase is left
+            if (writer.isAlive()) {
+                log.warn("[{}] accepted purchases were not persisted before the shutdown", pendingEntries.size());
+                writer.interrupt();
+            } else {
+                writeAheadLog.release(Long.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * Takes the next identifier of the current block, taking a new block from the sequence when it is exhausted.
+     */
+    private long allocateId() {
+        if (nextId > lastId) {
+            lastId = purchaseIngestionRepository.nextIdBlock();
+            nextId = Math.max(1, lastId - PurchaseEntity.ID_ALLOCATION_SIZE + 1);
+        }
+
+        return nextId++;
+    }
+
+    private void write() {
+        int batchSize = purchaseIngestionProperties.getBatchSize();
+        List<Entry> batch = new ArrayList<>(batchSize);
+
+        try {
+            while (running || !pendingEntries.isEmpty() || !batch.isEmpty()) {
+                if (batch.isEmpty() && !fill(batch, batchSize)) {
+                    continue;
+                }
+
+                try {
+                    persist(batch);
+                } catch (RuntimeException exception) {
+                    log.warn("It was not possible to persist [{}] accepted purchases, retrying in [{}]: {}",
+                            batch.size(), purchaseIngestionProperties.getRetryInterval(), exception.getMessage());
+                    Thread.sleep(purchaseIngestionProperties.getRetryInterval().toMillis());
+                    continue;
+                }
+
+                release(batch.get(batch.size() - 1));
+                batch.clear();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Inserts the purchases, splitting them in halves while the database rejects them, so only the rejected purchases
+     * are moved to the dead-letter log. Any other failure is thrown to retry the whole batch, which inserts the halves
+     * already persisted again without changing them.
+     */
+    private void persist(List<Entry> entries) {
+        try {
+            purchaseIngestionRepository.insertAll(entries);
+        } catch (DataIntegrityViolationException exception) {
+            if (entries.size() == 1) {
+                deadLetter(entries.get(0), exception);
+                return;
+            }
+
+            int middle = entries.size() / 2;
+            persist(entries.subList(0, middle));
+            persist(entries.subList(middle, entries.size()));
+            return;
+        }
+
+        persisted.add(entries.size());
+    }
+
+    /**
+     * Appends the rejected purchase to the dead-letter log, opened on the first rejection, and forces it before the
+     * purchase is released from the write-ahead log. The idempotency key of the purchase is removed, since it would
+     * otherwise point to a purchase that is never persisted.
+     */
+    private void deadLetter(Entry entry, DataIntegrityViolationException exception) {
+        log.error("The accepted purchase [{}] was rejected by the database and moved to the dead-letter log: {}",
+                entry.purchase().getId(), exception.getMessage());
+
+        if (deadLetterLog == null) {
+            deadLetterLog = new PurchaseWriteAheadLog(Path.of(purchaseIngestionProperties.getDeadLetterDirectory()),
+                    (int) purchaseIngestionProperties.getSegmentSize().toBytes());
+        }
+
+        Entry deadLetterEntry = deadLetterLog.append(entry.purchase(), entry.idempotencyKey());
+        deadLetterLog.sync(deadLetterEntry.position());
+
+        if (entry.idempotencyKey() != null) {
+            purchaseIdempotencyKeyRepository.deleteUnpersisted(entry.idempotencyKey(), entry.purchase().getId());
+        }
+
+        deadLettered.increment();
+    }
+
+    /**
+     * Deletes the segments of the log whose purchases were all persisted. It holds the lock of the appends, so no
+     * purchase is appended to a segment between looking at the pending purchases and releasing it.
+     */
+    private synchronized void release(Entry lastPersistedEntry) {
+        Entry nextEntry = pendingEntries.peek();
+        writeAheadLog.release(nextEntry == null ? lastPersistedEntry.segment() + 1 : nextEntry.segment());
+    }
+
+    /**
+     * Takes the next accepted purchases into the batch, waiting up to the linger time after the first one for the batch
+     * to be filled.
+     */
+    private boolean fill(List<Entry> batch, int batchSize) throws InterruptedException {
+        Entry first = pendingEntries.poll(1, TimeUnit.SECONDS);
+
+        if (first == null) {
+            return false;
+        }
+
+        batch.add(first);
+        long deadline = System.nanoTime() + purchaseIngestionProperties.getLingerTime().toNanos();
+
+        while (batch.size() < batchSize) {
+            pendingEntries.drainTo(batch, batchSize - batch.size());
+
+            long remainingNanos = deadline - System.nanoTime();
+
+            if (batch.size() == batchSize || remainingNanos <= 0) {
+                break;
+            }
+
+            Entry next = pendingEntries.poll(remainingNanos, TimeUnit.NANOSECONDS);
+
+            if (next == null) {
+                break;
+            }
+
+            batch.add(next);
+        }
+
+        return true;
+    }
+
+}
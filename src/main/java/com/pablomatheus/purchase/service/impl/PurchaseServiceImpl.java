@@ -1,35 +1,84 @@
 package com.pablomatheus.purchase.service.impl;
 
-import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
-import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
 import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.config.PurchaseBatchProperties;
+import com.pablomatheus.purchase.config.PurchaseConversionProperties;
+import com.pablomatheus.purchase.config.PurchaseExportProperties;
+import com.pablomatheus.purchase.dto.ExchangeRateTargetDto;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
 import com.pablomatheus.purchase.dto.PurchaseAmountDto;
 import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseFilterDto;
+import com.pablomatheus.purchase.dto.PurchasePageDto;
+import com.pablomatheus.purchase.entity.PurchaseConversionEntity;
 import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
 import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics.Outcome;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics.Stage;
+import com.pablomatheus.purchase.repository.PurchaseConversionRepository;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository;
 import com.pablomatheus.purchase.repository.PurchaseRepository;
+import com.pablomatheus.purchase.service.ExchangeRateService;
 import com.pablomatheus.purchase.service.PurchaseService;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.format.DateTimeFormatter;
-import java.util.Objects;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class PurchaseServiceImpl implements PurchaseService {
 
+    /**
+     * Scale of the {@code exchange_rate} column of the {@code purchase_conversions} table.
+     */
+    private static final int CONVERSION_EXCHANGE_RATE_SCALE = 6;
+
     private final PurchaseRepository purchaseRepository;
+    private final PurchaseConversionRepository purchaseConversionRepository;
     private final PurchaseMapper purchaseMapper;
-    private final UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+    private final ExchangeRateMapper exchangeRateMapper;
+    private final ExchangeRateService exchangeRateService;
+    private final PurchaseBatchProperties purchaseBatchProperties;
+    private final PurchaseExportProperties purchaseExportProperties;
+    private final PurchaseConversionProperties purchaseConversionProperties;
+    private final PurchaseConversionExecutor purchaseConversionExecutor;
+    private final TransactionOperations transactionOperations;
+    private final PurchaseConversionMetrics purchaseConversionMetrics;
+    private final PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository;
 
     @Transactional
     @Override
@@ -38,73 +87,541 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchaseMapper.toDto(purchaseEntity);
     }
 
+    /**
+     * Adds the purchase together with its idempotency key. The key is inserted before the purchase is flushed, so a key
+     * that was already used fails right away and rolls the purchase back.
+     */
+    @Transactional
+    @Override
+    public PurchaseDto addPurchase(PurchaseDto purchaseDto, IdempotencyKeyDto idempotencyKey) {
+        PurchaseEntity purchaseEntity = purchaseRepository.save(purchaseMapper.toEntity(purchaseDto));
+        purchaseIdempotencyKeyRepository.insert(idempotencyKey, purchaseEntity.getId());
+        return purchaseMapper.toDto(purchaseEntity);
+    }
+
+    /**
+     * Adds the purchases in a single transaction, so a purchase that fails while the stream is consumed rolls back the
+     * chunks already flushed. Each chunk is flushed and cleared from the persistence context, so only one chunk is held
+     * in memory at a time.
+     */
+    @Transactional
+    @Override
+    public int addPurchases(Stream<PurchaseDto> purchaseDtos) {
+        int chunkSize = purchaseBatchProperties.getChunkSize();
+        List<PurchaseEntity> purchaseEntities = new ArrayList<>(chunkSize);
+        int count = 0;
+
+        Iterator<PurchaseDto> purchaseDtoIterator = purchaseDtos.iterator();
+
+        while (purchaseDtoIterator.hasNext()) {
+            purchaseEntities.add(purchaseMapper.toEntity(purchaseDtoIterator.next()));
+
+            if (purchaseEntities.size() == chunkSize) {
+                count += purchaseRepository.insertAll(purchaseEntities);
+                purchaseEntities = new ArrayList<>(chunkSize);
+            }
+        }
+
+        if (!purchaseEntities.isEmpty()) {
+            count += purchaseRepository.insertAll(purchaseEntities);
+        }
+
+        log.info("[{}] purchases were added in chunks of [{}]", count, chunkSize);
+        return count;
+    }
+
     @Override
     public PurchaseDto getCurrencyConvertedPurchase(Long id, String currency, String country) {
-        Optional<PurchaseEntity> purchaseEntityOptional = purchaseRepository.findById(id);
+        Optional<PurchaseConversionEntity> purchaseConversionEntity = purchaseConversionMetrics.observeStage(Stage.FIND,
+                () -> purchaseConversionRepository.findByPurchaseIdAndCurrencyAndCountry(id, currency, country));
+
+        if (purchaseConversionEntity.isPresent()) {
+            PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseConversionEntity.get().getPurchase());
+            purchaseDto.setConvertedAmount(getConvertedAmount(purchaseConversionEntity.get(), exchangeRateMapper));
+
+            purchaseConversionMetrics.incrementOutcome(Outcome.SUCCESS);
+            return purchaseDto;
+        }
+
+        PurchaseEntity purchaseEntity = purchaseConversionMetrics.observeStage(Stage.FIND, () -> findPurchase(id));
+        Currency source = validateConvertiblePurchase(id, purchaseEntity, currency, country, purchaseConversionMetrics);
+
+        PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseEntity);
+        ConversionRate conversionRate = purchaseConversionMetrics.observeStage(Stage.EXCHANGE_RATE,
+                () -> ConversionRate.of(getExchangeRateData(purchaseDto, source, currency, country)));
+        purchaseDto.setConvertedAmount(purchaseConversionMetrics.observeStage(Stage.CONVERSION,
+                () -> getConvertedAmount(purchaseDto, conversionRate)));
+
+        PurchaseConversionEntity keptConversion = savePurchaseConversion(purchaseEntity, currency, country,
+                conversionRate, purchaseDto.getConvertedAmount());
+
+        // Answered like the next requests of the same conversion, which read it back
+        if (keptConversion != null) {
+            purchaseDto.setConvertedAmount(getConvertedAmount(keptConversion, exchangeRateMapper));
+        }
+
+        purchaseConversionMetrics.incrementOutcome(Outcome.SUCCESS);
+        return purchaseDto;
+    }
+
+    /**
+     * Converts a purchase to several currencies. The kept conversions are read back, and the exchange rates of the other
+     * currencies are looked up concurrently before their conversions are kept.
+     */
+    @Override
+    public List<PurchaseDto> getCurrencyConvertedPurchase(Long id, List<ExchangeRateTargetDto> targets) {
+        Instant deadline = Instant.now().plus(purchaseConversionProperties.getTimeout());
+
+        PurchaseEntity purchaseEntity = purchaseConversionMetrics.observeStage(Stage.FIND, () -> findPurchase(id));
+        Currency source = null;
+
+        for (ExchangeRateTargetDto target : targets) {
+            source = validateConvertiblePurchase(id, purchaseEntity, target.getCurrency(), target.getCountry(),
+                    purchaseConversionMetrics);
+        }
+
+        Map<ExchangeRateTargetKey, PurchaseConversionEntity> purchaseConversionEntities = new HashMap<>();
+        purchaseConversionMetrics.observeStage(Stage.FIND, () -> purchaseConversionRepository.findByPurchaseId(id))
+                .forEach(purchaseConversionEntity -> purchaseConversionEntities.put(
+                        new ExchangeRateTargetKey(purchaseConversionEntity.getCurrency(), purchaseConversionEntity.getCountry()),
+                        purchaseConversionEntity));
+
+        purchaseConversionExecutor.checkDeadline(deadline);
+
+        // The repeated targets are converted once
+        Map<ExchangeRateTargetKey, CompletableFuture<PurchaseDto>> conversions = new LinkedHashMap<>();
+        Map<ExchangeRateTargetKey, CompletableFuture<ConversionRate>> conversionRates = new HashMap<>();
 
-        if (purchaseEntityOptional.isEmpty()) {
+        List<PurchaseDto> purchaseDtos;
+
+        try {
+            for (ExchangeRateTargetDto target : targets) {
+                ExchangeRateTargetKey targetKey = new ExchangeRateTargetKey(target.getCurrency(), target.getCountry());
+
+                if (conversions.containsKey(targetKey)) {
+                    continue;
+                }
+
+                PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseEntity);
+                PurchaseConversionEntity purchaseConversionEntity = purchaseConversionEntities.get(targetKey);
+
+                if (purchaseConversionEntity != null) {
+                    purchaseDto.setConvertedAmount(getConvertedAmount(purchaseConversionEntity, exchangeRateMapper));
+                    conversions.put(targetKey, CompletableFuture.completedFuture(purchaseDto));
+                    continue;
+                }
+
+                CompletableFuture<ConversionRate> conversionRate = getConversionRate(
+                        purchaseDto, source, targetKey.currency(), targetKey.country());
+                conversionRates.put(targetKey, conversionRate);
+                conversions.put(targetKey, conversionRate.thenApply(rate -> {
+                    purchaseDto.setConvertedAmount(getConvertedAmount(purchaseDto, rate));
+                    return purchaseDto;
+                }));
+            }
+
+            purchaseDtos = purchaseConversionExecutor.await(new ArrayList<>(conversions.values()), deadline);
+        } finally {
+            conversionRates.values().forEach(conversionRate -> conversionRate.cancel(false));
+        }
+
+        conversionRates.forEach((targetKey, conversionRate) -> {
+            PurchaseDto purchaseDto = conversions.get(targetKey).join();
+            PurchaseConversionEntity keptConversion = savePurchaseConversion(purchaseEntity, targetKey.currency(),
+                    targetKey.country(), conversionRate.join(), purchaseDto.getConvertedAmount());
+
+            if (keptConversion != null) {
+                purchaseDto.setConvertedAmount(getConvertedAmount(keptConversion, exchangeRateMapper));
+            }
+        });
+
+        purchaseDtos.forEach(purchaseDto -> purchaseConversionMetrics.incrementOutcome(Outcome.SUCCESS));
+        return purchaseDtos;
+    }
+
+    /**
+     * Converts several purchases to several currencies. The purchases are validated before any exchange rate is looked
+     * up, the distinct exchange rates are looked up concurrently and each conversion is computed as soon as its
+     * exchange rate arrives.
+     */
+    @Override
+    public List<PurchaseDto> getCurrencyConvertedPurchases(List<Long> ids, List<ExchangeRateTargetDto> targets) {
+        Instant deadline = Instant.now().plus(purchaseConversionProperties.getTimeout());
+        List<Long> distinctIds = ids.stream().distinct().toList();
+
+        Map<Long, PurchaseEntity> purchaseEntities = purchaseConversionMetrics.observeStage(Stage.FIND,
+                () -> findPurchases(distinctIds));
+
+        Map<Long, Currency> sources = new HashMap<>();
+
+        for (Long id : distinctIds) {
+            for (ExchangeRateTargetDto target : targets) {
+                sources.put(id, validateConvertiblePurchase(id, purchaseEntities.get(id), target.getCurrency(),
+                        target.getCountry(), purchaseConversionMetrics));
+            }
+        }
+
+        purchaseConversionExecutor.checkDeadline(deadline);
+
+        // Purchases converted between the same currencies are grouped, and each exchange rate of a group is looked up
+        // once for all the transaction dates it is in effect on, instead of once per transaction date
+        Map<ExchangeRateKey, NavigableMap<LocalDate, PurchaseDto>> transactionDates = new HashMap<>();
+        List<PurchaseDto> purchaseDtosToConvert = new ArrayList<>(distinctIds.size() * targets.size());
+        List<ExchangeRateKey> exchangeRateKeys = new ArrayList<>(distinctIds.size() * targets.size());
+
+        for (Long id : distinctIds) {
+            for (ExchangeRateTargetDto target : targets) {
+                PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseEntities.get(id));
+                ExchangeRateKey exchangeRateKey = new ExchangeRateKey(sources.get(id), target.getCurrency(), target.getCountry());
+
+                transactionDates.computeIfAbsent(exchangeRateKey, key -> new TreeMap<>())
+                        .putIfAbsent(purchaseDto.getTransactionDate().toLocalDate(), purchaseDto);
+                purchaseDtosToConvert.add(purchaseDto);
+                exchangeRateKeys.add(exchangeRateKey);
+            }
+        }
+
+        Map<ExchangeRateKey, CompletableFuture<NavigableMap<LocalDate, ConversionRate>>> conversionRates = new HashMap<>();
+        Queue<CompletableFuture<ConversionRate>> lookups = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<PurchaseDto>> conversions = new ArrayList<>(purchaseDtosToConvert.size());
+
+        List<PurchaseDto> purchaseDtos;
+
+        try {
+            transactionDates.forEach((exchangeRateKey, purchasesByDate) -> conversionRates.put(exchangeRateKey,
+                    getConversionRates(exchangeRateKey, purchasesByDate, new TreeMap<>(), lookups)));
+
+            for (int index = 0; index < purchaseDtosToConvert.size(); index++) {
+                PurchaseDto purchaseDto = purchaseDtosToConvert.get(index);
+                LocalDate transactionDate = purchaseDto.getTransactionDate().toLocalDate();
+
+                conversions.add(conversionRates.get(exchangeRateKeys.get(index)).thenApply(rates -> {
+                    purchaseDto.setConvertedAmount(getConvertedAmount(purchaseDto, rates.floorEntry(transactionDate).getValue()));
+                    return purchaseDto;
+                }));
+            }
+
+            purchaseDtos = purchaseConversionExecutor.await(conversions, deadline);
+        } finally {
+            // The lookups still queued are skipped when the request fails
+            conversionRates.values().forEach(conversionRate -> conversionRate.cancel(false));
+            lookups.forEach(lookup -> lookup.cancel(false));
+        }
+
+        purchaseDtos.forEach(purchaseDto -> purchaseConversionMetrics.incrementOutcome(Outcome.SUCCESS));
+        return purchaseDtos;
+    }
+
+    @Override
+    public PurchasePageDto getPurchases(PurchaseFilterDto purchaseFilterDto, String cursor, int size) {
+        PurchaseCursor after = cursor == null
+                ? new PurchaseCursor(purchaseFilterDto.getFrom(), 0L)
+                : PurchaseCursor.decode(cursor);
+
+        // One more purchase than the page size is fetched to know whether there is a next page
+        List<PurchaseEntity> purchaseEntities = purchaseRepository.findPage(
+                purchaseFilterDto.getFrom(), purchaseFilterDto.getTo(),
+                purchaseFilterDto.getCurrency(), purchaseFilterDto.getCountry(),
+                after.transactionDate(), after.id(), PageRequest.of(0, size + 1));
+
+        List<PurchaseDto> purchaseDtos = purchaseEntities.stream()
+                .limit(size)
+                .map(purchaseMapper::toDto)
+                .toList();
+
+        String next = purchaseEntities.size() > size
+                ? PurchaseCursor.of(purchaseEntities.get(size - 1)).encode()
+                : null;
+
+        return new PurchasePageDto(purchaseDtos, next);
+    }
+
+    @Override
+    public long exportPurchases(PurchaseFilterDto purchaseFilterDto, Consumer<PurchaseDto> consumer) {
+        long count = purchaseRepository.forEachPurchase(
+                purchaseFilterDto.getFrom(), purchaseFilterDto.getTo(),
+                purchaseFilterDto.getCurrency(), purchaseFilterDto.getCountry(),
+                purchaseExportProperties.getFetchSize(),
+                purchaseEntity -> consumer.accept(purchaseMapper.toDto(purchaseEntity)));
+
+        log.info("[{}] purchases were exported from [{}] to [{}]", count, purchaseFilterDto.getFrom(), purchaseFilterDto.getTo());
+        return count;
+    }
+
+    /**
+     * Finds the purchase in the read-only transaction of the repository, which is answered by a replica when there are
+     * replicas. A purchase not found there is looked up again in a read-write transaction of the primary database, since
+     * it may have been added after the last replication.
+     */
+    private PurchaseEntity findPurchase(Long id) {
+        return purchaseRepository.findById(id)
+                .or(() -> transactionOperations.execute(status -> purchaseRepository.findById(id)))
+                .orElse(null);
+    }
+
+    /**
+     * Finds the purchases like {@link #findPurchase(Long)}, looking up again only the purchases not found.
+     */
+    private Map<Long, PurchaseEntity> findPurchases(List<Long> ids) {
+        Map<Long, PurchaseEntity> purchaseEntities = new HashMap<>();
+        purchaseRepository.findAllById(ids).forEach(purchaseEntity -> purchaseEntities.put(purchaseEntity.getId(), purchaseEntity));
+
+        List<Long> missingIds = ids.stream().filter(id -> !purchaseEntities.containsKey(id)).toList();
+
+        if (!missingIds.isEmpty()) {
+            transactionOperations.executeWithoutResult(status -> purchaseRepository.findAllById(missingIds)
+                    .forEach(purchaseEntity -> purchaseEntities.put(purchaseEntity.getId(), purchaseEntity)));
+        }
+
+        return purchaseEntities;
+    }
+
+    /**
+     * Returns the currency the purchase was made in, when it can be converted.
+     */
+    static Currency validateConvertiblePurchase(Long id, PurchaseEntity purchaseEntity, String currency, String country,
+                                                PurchaseConversionMetrics purchaseConversionMetrics) {
+
+        if (purchaseEntity == null) {
             log.warn("The purchase was not found with the ID [{}]", id);
+            purchaseConversionMetrics.incrementOutcome(Outcome.NOT_FOUND);
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The purchase was not found");
         }
 
-        PurchaseEntity purchaseEntity = purchaseEntityOptional.get();
-
-        if (!Objects.equals(purchaseEntity.getCurrency(), "Dollar") ||
-            !Objects.equals(purchaseEntity.getCurrencyCountry(), "United States")) {
+        Optional<Currency> source = Currency.of(purchaseEntity.getCurrency(), purchaseEntity.getCurrencyCountry());
 
+        if (source.isEmpty()) {
             log.warn("It's not possible to convert the purchase with ID [{}], the currency conversion is not available for [{}] and  country [{}]",
                     id, currency, country);
 
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The conversion is not available, the original purchase was not made in US Dollars");
+            purchaseConversionMetrics.incrementOutcome(Outcome.BAD_REQUEST);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The conversion is not available, the original purchase was not made in a supported currency");
         }
 
-        PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseEntity);
-        PurchaseAmountDto convertedAmountDto = getConvertedAmount(purchaseDto, currency, country);
-        purchaseDto.setConvertedAmount(convertedAmountDto);
-        return purchaseDto;
+        return source.get();
     }
 
-    private PurchaseAmountDto getConvertedAmount(PurchaseDto purchaseDto,
-                                                 String currency,
-                                                 String country) {
+    static PurchaseAmountDto getConvertedAmount(PurchaseDto purchaseDto, ConversionRate conversionRate) {
+        PurchaseAmountDto convertedAmountDto = new PurchaseAmountDto();
+        convertedAmountDto.setCurrency(conversionRate.exchangeRate().getCurrency());
+        convertedAmountDto.setCountry(conversionRate.exchangeRate().getCountry());
+        convertedAmountDto.setValue(conversionRate.convert(purchaseDto.getOriginalAmount().getValue()));
+        convertedAmountDto.setExchangeRate(conversionRate.plainExchangeRate());
+        convertedAmountDto.setStale(conversionRate.exchangeRate().isStale());
 
-        ExchangeRateDataResponse exchangeRateDataResponse = getExchangeRateData(purchaseDto, currency, country);
+        return convertedAmountDto;
+    }
 
-        String convertedAmountValue = new BigDecimal(purchaseDto.getOriginalAmount().getValue())
-                .multiply(exchangeRateDataResponse.getExchangeRate())
-                .setScale(2, RoundingMode.HALF_EVEN)
-                .toPlainString();
+    static PurchaseAmountDto getConvertedAmount(PurchaseConversionEntity purchaseConversionEntity,
+                                                ExchangeRateMapper exchangeRateMapper) {
 
         PurchaseAmountDto convertedAmountDto = new PurchaseAmountDto();
-        convertedAmountDto.setCurrency(exchangeRateDataResponse.getCurrency());
-        convertedAmountDto.setCountry(exchangeRateDataResponse.getCountry());
-        convertedAmountDto.setValue(convertedAmountValue);
-        convertedAmountDto.setExchangeRate(exchangeRateDataResponse.getExchangeRate().toPlainString());
+        convertedAmountDto.setCurrency(purchaseConversionEntity.getCurrency());
+        convertedAmountDto.setCountry(purchaseConversionEntity.getCountry());
+        convertedAmountDto.setValue(purchaseConversionEntity.getConvertedAmount().toPlainString());
+
+        // Rounded to the scale of the column, so the conversion is the same before and after it is read back
+        BigDecimal exchangeRate = purchaseConversionEntity.getExchangeRate()
+                .setScale(CONVERSION_EXCHANGE_RATE_SCALE, RoundingMode.HALF_EVEN);
+        convertedAmountDto.setExchangeRate(exchangeRateMapper.toTreasuryExchangeRate(exchangeRate).toPlainString());
 
         return convertedAmountDto;
     }
 
-    private ExchangeRateDataResponse getExchangeRateData(PurchaseDto purchaseDto, String currency, String country) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        String startDate = purchaseDto.getTransactionDate().toLocalDate().minusMonths(6).format(formatter);
-        String endDate = purchaseDto.getTransactionDate().toLocalDate().format(formatter);
+    /**
+     * Keeps the conversion, so the next requests of the same purchase, currency and country do not look up the exchange
+     * rate again. A failure to keep it does not fail the conversion, which is kept by a later request.
+     * <p>
+     * Returns the conversion to answer with, which is the one kept by a concurrent request when that request kept it
+     * first, or {@code null} when the exchange rate has no effective date to be kept with.
+     */
+    private PurchaseConversionEntity savePurchaseConversion(PurchaseEntity purchaseEntity, String currency, String country,
+                                                            ConversionRate conversionRate,
+                                                            PurchaseAmountDto convertedAmountDto) {
+
+        PurchaseConversionEntity purchaseConversionEntity = toPurchaseConversion(
+                purchaseEntity, currency, country, conversionRate, convertedAmountDto);
+
+        if (purchaseConversionEntity == null) {
+            return null;
+        }
+
+        try {
+            purchaseConversionRepository.save(purchaseConversionEntity);
+        } catch (DataIntegrityViolationException exception) {
+            // Read from the primary database, since the concurrent conversion may have been kept after the last replication
+            Optional<PurchaseConversionEntity> keptConversion = transactionOperations.execute(status ->
+                    purchaseConversionRepository.findByPurchaseIdAndCurrencyAndCountry(purchaseEntity.getId(), currency, country));
+
+            if (keptConversion != null && keptConversion.isPresent()) {
+                return keptConversion.get();
+            }
+
+            log.warn("It was not possible to keep the conversion of the purchase with ID [{}] to currency [{}] and country [{}]: {}",
+                    purchaseEntity.getId(), currency, country, exception.getMessage());
+        } catch (DataAccessException exception) {
+            log.warn("It was not possible to keep the conversion of the purchase with ID [{}] to currency [{}] and country [{}]: {}",
+                    purchaseEntity.getId(), currency, country, exception.getMessage());
+        }
+
+        return purchaseConversionEntity;
+    }
+
+    /**
+     * Returns the conversion to be kept, or {@code null} when the exchange rate has no effective date to be kept with or
+     * is a stale one, answered while the Treasury API was unavailable and possibly superseded by a later publication.
+     */
+    static PurchaseConversionEntity toPurchaseConversion(PurchaseEntity purchaseEntity, String currency, String country,
+                                                         ConversionRate conversionRate, PurchaseAmountDto convertedAmountDto) {
+
+        if (conversionRate.exchangeRate().getEffectiveDate() == null || conversionRate.exchangeRate().isStale()) {
+            return null;
+        }
+
+        PurchaseConversionEntity purchaseConversionEntity = new PurchaseConversionEntity();
+        purchaseConversionEntity.setPurchase(purchaseEntity);
+        purchaseConversionEntity.setCurrency(currency);
+        purchaseConversionEntity.setCountry(country);
+        purchaseConversionEntity.setExchangeRate(conversionRate.exchangeRate().getExchangeRate());
+        purchaseConversionEntity.setEffectiveDate(LocalDate.parse(conversionRate.exchangeRate().getEffectiveDate()));
+        purchaseConversionEntity.setConvertedAmount(new BigDecimal(convertedAmountDto.getValue()));
+
+        return purchaseConversionEntity;
+    }
+
+    /**
+     * Looks up the exchange rates of the purchases of a group, by the date from which each one is in effect. The
+     * exchange rate of the latest transaction date is looked up first: it is in effect from its effective date until
+     * that transaction date, so only the purchases made before its effective date need another lookup.
+     */
+    private CompletableFuture<NavigableMap<LocalDate, ConversionRate>> getConversionRates(
+            ExchangeRateKey exchangeRateKey, NavigableMap<LocalDate, PurchaseDto> purchasesByDate,
+            NavigableMap<LocalDate, ConversionRate> conversionRates, Queue<CompletableFuture<ConversionRate>> lookups) {
+
+        Map.Entry<LocalDate, PurchaseDto> latestPurchase = purchasesByDate.lastEntry();
+        CompletableFuture<ConversionRate> lookup = getConversionRate(latestPurchase.getValue(),
+                exchangeRateKey.source(), exchangeRateKey.currency(), exchangeRateKey.country());
+        lookups.add(lookup);
 
-        String filter = String.format("effective_date:gte:%s,effective_date:lte:%s,currency:eq:%s,country:eq:%s",
-                startDate, endDate, currency, country);
+        return lookup.thenCompose(conversionRate -> {
+            LocalDate effectiveDate = getEffectiveDate(conversionRate, latestPurchase.getKey());
+            conversionRates.put(effectiveDate, conversionRate);
 
-        ExchangeRateResponse exchangeRateResponse = unitedStatesTreasuryClient.getExchangeRate(filter, "-effective_date");
+            NavigableMap<LocalDate, PurchaseDto> earlierPurchases = purchasesByDate.headMap(effectiveDate, false);
 
-        return Optional.ofNullable(exchangeRateResponse)
-                .map(ExchangeRateResponse::getData)
-                .filter(data -> !data.isEmpty())
-                .map(data -> data.get(0))
-                .orElseThrow(() -> {
-                    log.warn("It was not possible to convert the purchase with ID [{}], no exchange rates were found with start date [{}], end date [{}], currency [{}] and country [{}]",
-                            purchaseDto.getId(), startDate, endDate, currency, country);
+            return earlierPurchases.isEmpty()
+                    ? CompletableFuture.completedFuture(conversionRates)
+                    : getConversionRates(exchangeRateKey, earlierPurchases, conversionRates, lookups);
+        });
+    }
+
+    /**
+     * Returns the date from which the exchange rate looked up for the transaction date is in effect. A rate without an
+     * effective date, like the rate of the US Dollar, is in effect on any date.
+     */
+    private static LocalDate getEffectiveDate(ConversionRate conversionRate, LocalDate transactionDate) {
+        if (conversionRate.exchangeRate().getEffectiveDate() == null) {
+            return LocalDate.MIN;
+        }
+
+        LocalDate effectiveDate = LocalDate.parse(conversionRate.exchangeRate().getEffectiveDate());
+        return effectiveDate.isAfter(transactionDate) ? transactionDate : effectiveDate;
+    }
+
+    /**
+     * Looks up the exchange rate on the {@link PurchaseConversionExecutor}, so the lookups of a request run concurrently.
+     */
+    private CompletableFuture<ConversionRate> getConversionRate(PurchaseDto purchaseDto, Currency source, String currency,
+                                                                String country) {
+
+        return purchaseConversionExecutor.submit(() -> purchaseConversionMetrics.observeStage(Stage.EXCHANGE_RATE,
+                () -> ConversionRate.of(getExchangeRateData(purchaseDto, source, currency, country))));
+    }
+
+    /**
+     * Looks up the Treasury exchange rate of the US Dollar purchases, and the cross rate of the other purchases.
+     */
+    private ExchangeRateDataResponse getExchangeRateData(PurchaseDto purchaseDto, Currency source, String currency,
+                                                         String country) {
+
+        LocalDate date = purchaseDto.getTransactionDate().toLocalDate();
+
+        Optional<ExchangeRateDataResponse> exchangeRate = source == Currency.USD
+                ? exchangeRateService.getExchangeRate(currency, country, date)
+                : exchangeRateService.getCrossExchangeRate(source, currency, country, date);
+
+        return exchangeRate.orElseThrow(() -> noExchangeRateFound(purchaseDto, currency, country, purchaseConversionMetrics));
+    }
+
+    static ResponseStatusException noExchangeRateFound(PurchaseDto purchaseDto, String currency, String country,
+                                                       PurchaseConversionMetrics purchaseConversionMetrics) {
+
+        log.warn("It was not possible to convert the purchase with ID [{}], no exchange rates were found with transaction date [{}], currency [{}] and country [{}]",
+                purchaseDto.getId(), purchaseDto.getTransactionDate().toLocalDate(), currency, country);
+
+        purchaseConversionMetrics.incrementOutcome(Outcome.NO_RATE_FOUND);
+        return new ResponseStatusException(
+                HttpStatus.INTERNAL_SERVER_ERROR, "No exchange rates were found to perform the conversion");
+    }
+
+    private record ExchangeRateKey(Currency source, String currency, String country) {
+    }
+
+    private record ExchangeRateTargetKey(String currency, String country) {
+    }
+
+    /**
+     * Position of the last purchase of a page, sent to the clients as an opaque URL safe token.
+     */
+    private record PurchaseCursor(LocalDateTime transactionDate, Long id) {
+
+        static PurchaseCursor of(PurchaseEntity purchaseEntity) {
+            return new PurchaseCursor(purchaseEntity.getTransactionDate(), purchaseEntity.getId());
+        }
+
+        static PurchaseCursor decode(String cursor) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", 2);
+                return new PurchaseCursor(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException exception) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The cursor is not valid", exception);
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((transactionDate + "," + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+    }
+
+    /**
+     * Exchange rate prepared once for the conversions, with the rate as a {@link ScaledDecimal} and its plain
+     * representation. The converted amount is rounded with {@link RoundingMode#HALF_EVEN} to 2 decimal places, falling
+     * back to {@link BigDecimal} when the amount or the product does not fit in a {@code long}.
+     */
+    record ConversionRate(ExchangeRateDataResponse exchangeRate, ScaledDecimal scaledExchangeRate,
+                          String plainExchangeRate) {
+
+        static ConversionRate of(ExchangeRateDataResponse exchangeRate) {
+            return new ConversionRate(exchangeRate, ScaledDecimal.of(exchangeRate.getExchangeRate()),
+                    exchangeRate.getExchangeRate().toPlainString());
+        }
+
+        String convert(String amount) {
+            ScaledDecimal scaledAmount = scaledExchangeRate == null ? null : ScaledDecimal.parse(amount);
+            ScaledDecimal convertedAmount = scaledAmount == null ? null : scaledAmount.multiply(scaledExchangeRate, 2);
+
+            if (convertedAmount != null) {
+                return convertedAmount.toPlainString();
+            }
+
+            return new BigDecimal(amount)
+                    .multiply(exchangeRate.getExchangeRate())
+                    .setScale(2, RoundingMode.HALF_EVEN)
+                    .toPlainString();
+        }
 
-                    return new ResponseStatusException(
-                            HttpStatus.INTERNAL_SERVER_ERROR, "No exchange rates were found to perform the conversion");
-                });
     }
 
 }
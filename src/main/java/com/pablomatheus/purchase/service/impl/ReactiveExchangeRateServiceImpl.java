@@ -0,0 +1,100 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.cache.CrossRateMatrix;
+import com.pablomatheus.purchase.cache.ExchangeRateCache;
+import com.pablomatheus.purchase.cache.ExchangeRateIndex;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryReactiveClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.service.ExchangeRateSyncService;
+import com.pablomatheus.purchase.service.ReactiveExchangeRateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Looks up the exchange rates in the same order as the {@link ExchangeRateServiceImpl}, without blocking the event loop.
+ * The index and the cache are read in memory, the Treasury API is called by the
+ * {@link UnitedStatesTreasuryReactiveClient}, and only the stored exchange rates, read through JPA, are looked up on
+ * the bounded elastic scheduler.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveExchangeRateServiceImpl implements ReactiveExchangeRateService {
+
+    private final UnitedStatesTreasuryReactiveClient unitedStatesTreasuryReactiveClient;
+    private final ExchangeRateCache exchangeRateCache;
+    private final ExchangeRateIndex exchangeRateIndex;
+    private final CrossRateMatrix crossRateMatrix;
+    private final ExchangeRateSyncService exchangeRateSyncService;
+
+    @Override
+    public Mono<ExchangeRateDataResponse> getExchangeRate(String currency, String country, LocalDate date) {
+        if (exchangeRateIndex.isLoaded()) {
+            return Mono.justOrEmpty(exchangeRateIndex.get(currency, country, date));
+        }
+
+        Optional<ExchangeRateDataResponse> cachedExchangeRate = exchangeRateCache.get(currency, country, date);
+
+        if (cachedExchangeRate.isPresent()) {
+            return Mono.just(cachedExchangeRate.get());
+        }
+
+        if (exchangeRateSyncService.isSynchronized(date)) {
+            return getStoredExchangeRate(currency, country, date)
+                    .doOnNext(data -> exchangeRateCache.put(currency, country, date, data));
+        }
+
+        return unitedStatesTreasuryReactiveClient
+                .getFirstExchangeRate(ExchangeRateServiceImpl.getFilter(currency, country, date), "-effective_date")
+                .mapNotNull(ExchangeRateResponse::getData)
+                .filter(data -> !data.isEmpty())
+                .map(data -> data.get(0))
+                .doOnNext(data -> exchangeRateCache.put(currency, country, date, data))
+                .onErrorResume(ExchangeRateServiceImpl::isUnavailable, exception -> Mono
+                        .justOrEmpty(exchangeRateCache.getStale(currency, country, date))
+                        .switchIfEmpty(getStoredExchangeRate(currency, country, date))
+                        .map(ExchangeRateServiceImpl::stale)
+                        .doOnNext(data -> log.warn("The exchange rates are unavailable, using the last known exchange rate with effective date [{}] for currency [{}] and country [{}]",
+                                data.getEffectiveDate(), currency, country))
+                        .switchIfEmpty(Mono.error(exception)));
+    }
+
+    @Override
+    public Mono<ExchangeRateDataResponse> getCrossExchangeRate(Currency source, String currency, String country,
+                                                               LocalDate date) {
+
+        Optional<ExchangeRateDataResponse> crossExchangeRate = Currency.of(currency, country)
+                .flatMap(target -> crossRateMatrix.get(source, target, date));
+
+        if (crossExchangeRate.isPresent()) {
+            return Mono.just(crossExchangeRate.get());
+        }
+
+        return getUsDollarExchangeRate(source.getName(), source.getCountry(), date)
+                .zipWith(getUsDollarExchangeRate(currency, country, date), (sourceExchangeRate, targetExchangeRate) ->
+                        ExchangeRateServiceImpl.triangulate(currency, country, sourceExchangeRate, targetExchangeRate));
+    }
+
+    private Mono<ExchangeRateDataResponse> getUsDollarExchangeRate(String currency, String country, LocalDate date) {
+        return Currency.USD == Currency.of(currency, country).orElse(null)
+                ? Mono.fromSupplier(ExchangeRateServiceImpl::usDollarExchangeRate)
+                : getExchangeRate(currency, country, date);
+    }
+
+    private Mono<ExchangeRateDataResponse> getStoredExchangeRate(String currency, String country, LocalDate date) {
+        return Mono.fromCallable(() -> exchangeRateSyncService.getExchangeRate(currency, country, date))
+                .subscribeOn(Schedulers.boundedElastic())
+                .mapNotNull(exchangeRate -> exchangeRate.orElse(null));
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.entity.PurchaseConversionEntity;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics.Outcome;
+import com.pablomatheus.purchase.repository.ReactivePurchaseRepository;
+import com.pablomatheus.purchase.service.ReactiveExchangeRateService;
+import com.pablomatheus.purchase.service.ReactivePurchaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Reactive counterpart of the {@link PurchaseServiceImpl}, with the same validations, conversion and kept conversions.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactivePurchaseServiceImpl implements ReactivePurchaseService {
+
+    private final ReactivePurchaseRepository reactivePurchaseRepository;
+    private final PurchaseMapper purchaseMapper;
+    private final ExchangeRateMapper exchangeRateMapper;
+    private final ReactiveExchangeRateService reactiveExchangeRateService;
+    private final PurchaseConversionMetrics purchaseConversionMetrics;
+
+    @Override
+    public Mono<PurchaseDto> addPurchase(PurchaseDto purchaseDto) {
+        return reactivePurchaseRepository.save(purchaseMapper.toEntity(purchaseDto))
+                .map(purchaseMapper::toDto);
+    }
+
+    @Override
+    public Mono<PurchaseDto> getCurrencyConvertedPurchase(Long id, String currency, String country) {
+        return reactivePurchaseRepository.findConversion(id, currency, country)
+                .map(purchaseConversionEntity -> {
+                    PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseConversionEntity.getPurchase());
+                    purchaseDto.setConvertedAmount(
+                            PurchaseServiceImpl.getConvertedAmount(purchaseConversionEntity, exchangeRateMapper));
+                    return purchaseDto;
+                })
+                .switchIfEmpty(Mono.defer(() -> convert(id, currency, country)))
+                .doOnNext(purchaseDto -> purchaseConversionMetrics.incrementOutcome(Outcome.SUCCESS));
+    }
+
+    private Mono<PurchaseDto> convert(Long id, String currency, String country) {
+        return reactivePurchaseRepository.findById(id)
+                .switchIfEmpty(Mono.fromRunnable(() -> PurchaseServiceImpl.validateConvertiblePurchase(
+                        id, null, currency, country, purchaseConversionMetrics)))
+                .flatMap(purchaseEntity -> {
+                    Currency source = PurchaseServiceImpl.validateConvertiblePurchase(
+                            id, purchaseEntity, currency, country, purchaseConversionMetrics);
+
+                    PurchaseDto purchaseDto = purchaseMapper.toDto(purchaseEntity);
+
+                    return getExchangeRate(purchaseDto, source, currency, country)
+                            .switchIfEmpty(Mono.error(() -> PurchaseServiceImpl.noExchangeRateFound(
+                                    purchaseDto, currency, country, purchaseConversionMetrics)))
+                            .map(PurchaseServiceImpl.ConversionRate::of)
+                            .flatMap(conversionRate -> {
+                                purchaseDto.setConvertedAmount(PurchaseServiceImpl.getConvertedAmount(purchaseDto, conversionRate));
+
+                                PurchaseConversionEntity purchaseConversionEntity = PurchaseServiceImpl.toPurchaseConversion(
+                                        purchaseEntity, currency, country, conversionRate, purchaseDto.getConvertedAmount());
+
+                                if (purchaseConversionEntity == null) {
+                                    return Mono.just(purchaseDto);
+                                }
+
+                                // Answered like the next requests of the same conversion, which read it back
+                                return savePurchaseConversion(purchaseConversionEntity).map(keptConversion -> {
+                                    purchaseDto.setConvertedAmount(
+                                            PurchaseServiceImpl.getConvertedAmount(keptConversion, exchangeRateMapper));
+                                    return purchaseDto;
+                                });
+                            });
+                });
+    }
+
+    private Mono<ExchangeRateDataResponse> getExchangeRate(PurchaseDto purchaseDto, Currency source, String currency,
+                                                           String country) {
+
+        LocalDate date = purchaseDto.getTransactionDate().toLocalDate();
+
+        return source == Currency.USD
+                ? reactiveExchangeRateService.getExchangeRate(currency, country, date)
+                : reactiveExchangeRateService.getCrossExchangeRate(source, currency, country, date);
+    }
+
+    /**
+     * Keeps the conversion like the {@link PurchaseServiceImpl}, a failure to keep it does not fail the conversion. It
+     * emits the conversion to answer with, which is the one kept by a concurrent request when that request kept it first.
+     */
+    private Mono<PurchaseConversionEntity> savePurchaseConversion(PurchaseConversionEntity purchaseConversionEntity) {
+        return reactivePurchaseRepository.saveConversion(purchaseConversionEntity)
+                .thenReturn(purchaseConversionEntity)
+                .onErrorResume(DataIntegrityViolationException.class, exception -> reactivePurchaseRepository
+                        .findConversion(purchaseConversionEntity.getPurchase().getId(),
+                                purchaseConversionEntity.getCurrency(), purchaseConversionEntity.getCountry())
+                        .switchIfEmpty(Mono.error(exception)))
+                .onErrorResume(exception -> {
+                    log.warn("It was not possible to keep the conversion of the purchase with ID [{}] to currency [{}] and country [{}]: {}",
+                            purchaseConversionEntity.getPurchase().getId(), purchaseConversionEntity.getCurrency(),
+                            purchaseConversionEntity.getCountry(), exception.getMessage());
+                    return Mono.just(purchaseConversionEntity);
+                });
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.pablomatheus.purchase.service.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * Decimal number represented by an unscaled {@code long} and a scale, used by the conversion arithmetic instead of
+ * {@link BigDecimal}. Values that do not fit in 18 digits are not represented, so the callers fall back to
+ * {@link BigDecimal}.
+ */
+record ScaledDecimal(long unscaledValue, int scale) {
+
+    private static final int MAX_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    /**
+     * Parses a plain decimal number, returning null when it has an exponent, more than 18 digits or is not a number.
+     */
+    static ScaledDecimal parse(String value) {
+        int length = value.length();
+        int index = 0;
+        boolean negative = false;
+
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+
+        long unscaledValue = 0;
+        int digits = 0;
+        int scale = -1;
+
+        for (; index < length; index++) {
+            char character = value.charAt(index);
+
+            if (character == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+
+            if (character < '0' || character > '9' || digits == MAX_DIGITS) {
+                return null;
+            }
+
+            unscaledValue = unscaledValue * 10 + (character - '0');
+            digits++;
+
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+
+        if (digits == 0) {
+            return null;
+        }
+
+        return new ScaledDecimal(negative ? -unscaledValue : unscaledValue, Math.max(scale, 0));
+    }
+
+    /**
+     * Returns null when the value has a negative scale or more than 18 digits.
+     */
+    static ScaledDecimal of(BigDecimal value) {
+        if (value.scale() < 0 || value.scale() > MAX_DIGITS || value.precision() > MAX_DIGITS) {
+            return null;
+        }
+
+        return new ScaledDecimal(value.unscaledValue().longValue(), value.scale());
+    }
+
+    /**
+     * Multiplies both values and rounds the product to the scale with {@link java.math.RoundingMode#HALF_EVEN},
+     * returning null when the product does not fit in a {@code long}.
+     */
+    ScaledDecimal multiply(ScaledDecimal other, int resultScale) {
+        long product = unscaledValue * other.unscaledValue;
+
+        if (Math.multiplyHigh(unscaledValue, other.unscaledValue) != product >> 63) {
+            return null;
+        }
+
+        int productScale = scale + other.scale;
+
+        if (productScale <= resultScale) {
+            return rescaleUp(product, resultScale - productScale, resultScale);
+        }
+
+        int shift = productScale - resultScale;
+
+        if (shift > MAX_DIGITS) {
+            return null;
+        }
+
+        long divisor = POWERS_OF_TEN[shift];
+        long quotient = product / divisor;
+        long remainder = Math.abs(product % divisor);
+
+        if (remainder > divisor - remainder || (remainder == divisor - remainder && (quotient & 1) != 0)) {
+            quotient += product < 0 ? -1 : 1;
+        }
+
+        return new ScaledDecimal(quotient, resultScale);
+    }
+
+    /**
+     * Returns the same representation of {@link BigDecimal#toPlainString()}.
+     */
+    String toPlainString() {
+        String digits = Long.toString(unscaledValue);
+
+        if (scale == 0) {
+            return digits;
+        }
+
+        int signLength = unscaledValue < 0 ? 1 : 0;
+        int integerLength = digits.length() - signLength - scale;
+        StringBuilder plainString = new StringBuilder(digits.length() + Math.max(2 - integerLength, 1));
+        plainString.append(digits, 0, signLength);
+
+        if (integerLength > 0) {
+            plainString.append(digits, signLength, signLength + integerLength).append('.');
+        } else {
+            plainString.append("0.");
+
+            for (int zeros = integerLength; zeros < 0; zeros++) {
+                plainString.append('0');
+            }
+        }
+
+        return plainString.append(digits, digits.length() - Math.min(scale, digits.length() - signLength), digits.length())
+                .toString();
+    }
+
+    private static ScaledDecimal rescaleUp(long value, int shift, int resultScale) {
+        if (shift > MAX_DIGITS) {
+            return null;
+        }
+
+        long factor = POWERS_OF_TEN[shift];
+        long rescaledValue = value * factor;
+
+        if (Math.multiplyHigh(value, factor) != rescaledValue >> 63) {
+            return null;
+        }
+
+        return new ScaledDecimal(rescaledValue, resultScale);
+    }
+
+}
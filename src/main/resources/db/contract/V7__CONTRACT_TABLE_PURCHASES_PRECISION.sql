@@ -0,0 +1,56 @@
+-- Contract step of the purchases precision migration, kept out of the Flyway locations on purpose. It is moved to
+-- db/migration by the release after the backfill of V5 was completed, once no running instance reads or writes the old
+-- columns anymore. The primary key is dropped and added in the same ALTER TABLE, so the table is never left without it.
+-- Catches the rows an instance of the previous release may have written after the last pass of the backfill
+UPDATE purchases
+SET id_bigint = id, amount_decimal = amount
+WHERE id_bigint IS NULL OR amount_decimal IS NULL;
+
+UPDATE purchase_conversions
+SET purchase_id_bigint = purchase_id
+WHERE purchase_id_bigint IS NULL;
+
+ALTER TABLE purchase_conversions
+    DROP FOREIGN KEY purchase_conversions_purchase_fk;
+
+CREATE UNIQUE INDEX purchase_conversions_purchase_id_currency_country_idx
+    ON purchase_conversions (purchase_id_bigint, currency, country);
+
+DROP INDEX purchase_conversions_purchase_currency_country_idx ON purchase_conversions;
+
+ALTER TABLE purchase_conversions
+    DROP COLUMN purchase_id;
+
+ALTER TABLE purchase_conversions
+    RENAME COLUMN purchase_id_bigint TO purchase_id;
+
+ALTER TABLE purchase_conversions
+    MODIFY purchase_id BIGINT NOT NULL;
+
+ALTER TABLE purchases
+    MODIFY id_bigint BIGINT NOT NULL;
+
+ALTER TABLE purchases
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id_bigint);
+
+ALTER TABLE purchases
+    DROP COLUMN id;
+
+ALTER TABLE purchases
+    RENAME COLUMN id_bigint TO id;
+
+ALTER TABLE purchases
+    DROP COLUMN amount;
+
+ALTER TABLE purchases
+    RENAME COLUMN amount_decimal TO amount;
+
+ALTER TABLE purchases
+    MODIFY amount DECIMAL(19, 4) NOT NULL;
+
+ALTER TABLE purchase_conversions
+    ADD CONSTRAINT purchase_conversions_purchase_fk FOREIGN KEY (purchase_id) REFERENCES purchases (id);
+
+ALTER SEQUENCE PURCHASES_SEQ
+    MAXVALUE 9223372036854775807;
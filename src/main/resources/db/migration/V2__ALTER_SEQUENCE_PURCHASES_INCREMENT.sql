@@ -0,0 +1,2 @@
+ALTER SEQUENCE "PURCHASES_SEQ"
+    INCREMENT BY 50;
@@ -0,0 +1,21 @@
+CREATE TABLE exchange_rates
+(
+    id             BIGINT PRIMARY KEY,
+    currency       VARCHAR(50)    NOT NULL,
+    country        VARCHAR(50)    NOT NULL,
+    exchange_rate  DECIMAL(19, 6) NOT NULL,
+    effective_date DATE           NOT NULL,
+    record_date    DATE           NOT NULL
+);
+
+CREATE UNIQUE INDEX exchange_rates_currency_country_effective_date_idx
+    ON exchange_rates (currency, country, effective_date);
+
+CREATE INDEX exchange_rates_record_date_idx
+    ON exchange_rates (record_date);
+
+CREATE SEQUENCE "EXCHANGE_RATES_SEQ"
+    MINVALUE 1
+    MAXVALUE 9223372036854775807
+    INCREMENT BY 50
+    START WITH 1;
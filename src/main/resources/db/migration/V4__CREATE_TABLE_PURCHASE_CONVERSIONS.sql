@@ -0,0 +1,21 @@
+CREATE TABLE purchase_conversions
+(
+    id               BIGINT PRIMARY KEY,
+    purchase_id      INTEGER        NOT NULL,
+    currency         VARCHAR(50)    NOT NULL,
+    country          VARCHAR(50)    NOT NULL,
+    exchange_rate    DECIMAL(19, 6) NOT NULL,
+    effective_date   DATE           NOT NULL,
+    converted_amount DECIMAL(19, 2) NOT NULL,
+    creation_date    DATETIME       NOT NULL,
+    CONSTRAINT purchase_conversions_purchase_fk FOREIGN KEY (purchase_id) REFERENCES purchases (id)
+);
+
+CREATE UNIQUE INDEX purchase_conversions_purchase_currency_country_idx
+    ON purchase_conversions (purchase_id, currency, country);
+
+CREATE SEQUENCE "PURCHASE_CONVERSIONS_SEQ"
+    MINVALUE 1
+    MAXVALUE 9223372036854775807
+    INCREMENT BY 50
+    START WITH 1;
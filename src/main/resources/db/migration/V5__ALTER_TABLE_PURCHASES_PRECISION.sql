@@ -0,0 +1,17 @@
+-- Expand step of the purchases precision migration. The new columns are nullable, so adding them does not rewrite the
+-- table, and the application writes both the old and the new columns from now on. The existing rows are backfilled in
+-- batches by the purchase.backfill job, and the old columns are only dropped by the db/contract migration.
+ALTER TABLE purchases
+    ADD COLUMN id_bigint BIGINT;
+
+ALTER TABLE purchases
+    ADD COLUMN amount_decimal DECIMAL(19, 4);
+
+ALTER TABLE purchase_conversions
+    ADD COLUMN purchase_id_bigint BIGINT;
+
+CREATE INDEX purchases_transaction_date_idx
+    ON purchases (transaction_date);
+
+CREATE INDEX purchases_creation_date_idx
+    ON purchases (creation_date);
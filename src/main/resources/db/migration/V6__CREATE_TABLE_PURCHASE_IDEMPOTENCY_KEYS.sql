@@ -0,0 +1,7 @@
+CREATE TABLE purchase_idempotency_keys
+(
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    purchase_id     BIGINT       NOT NULL,
+    request_hash    CHAR(64)     NOT NULL,
+    creation_date   DATETIME     NOT NULL
+);
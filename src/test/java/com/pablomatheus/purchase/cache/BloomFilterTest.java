@@ -0,0 +1,40 @@
+package com.pablomatheus.purchase.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+class BloomFilterTest {
+
+    @Test
+    void givenAddedValuesWhenMightContainThenReturnTrue() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+
+        IntStream.range(0, 1000).forEach(index -> bloomFilter.put("key-" + index));
+
+        Assertions.assertTrue(IntStream.range(0, 1000).allMatch(index -> bloomFilter.mightContain("key-" + index)));
+    }
+
+    @Test
+    void givenExpectedInsertionsWhenMightContainNewValuesThenKeepFalsePositiveProbability() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(index -> bloomFilter.put(UUID.randomUUID().toString()));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(index -> bloomFilter.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        Assertions.assertEquals(7, bloomFilter.getHashCount());
+        Assertions.assertTrue(falsePositives < 200, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void givenInvalidProbabilityWhenCreateThenThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1000, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+
+}
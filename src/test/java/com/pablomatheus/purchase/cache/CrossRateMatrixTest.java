@@ -0,0 +1,117 @@
+package com.pablomatheus.purchase.cache;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+class CrossRateMatrixTest {
+
+    private final CrossRateMatrix crossRateMatrix = new CrossRateMatrix();
+
+    @Test
+    void givenNotLoadedMatrixWhenGetThenReturnEmpty() {
+        Assertions.assertFalse(crossRateMatrix.isLoaded());
+        Assertions.assertTrue(crossRateMatrix.get(Currency.EUR, Currency.BRL, LocalDate.of(2023, 11, 15)).isEmpty());
+    }
+
+    @Test
+    void givenLoadedMatrixWhenGetThenReturnCrossRateBetweenAnyCurrencies() {
+        update(exchangeRate(Currency.EUR, "2023-09-30", "2023-09-30", "0.945"),
+                exchangeRate(Currency.BRL, "2023-09-30", "2023-09-30", "5.031"),
+                exchangeRate(Currency.GBP, "2023-09-30", "2023-09-30", "0.82"),
+                exchangeRate(Currency.BRL, "2023-10-31", "2023-10-31", "5.05"));
+
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        Assertions.assertTrue(crossRateMatrix.isLoaded());
+        Assertions.assertEquals(2, crossRateMatrix.getSize());
+        Assertions.assertEquals(new BigDecimal("5.343915"), exchangeRate(Currency.EUR, Currency.BRL, date));
+        Assertions.assertEquals(new BigDecimal("0.187129"), exchangeRate(Currency.BRL, Currency.EUR, date));
+        Assertions.assertEquals(new BigDecimal("1.219512"), exchangeRate(Currency.GBP, Currency.USD, date));
+        Assertions.assertEquals(new BigDecimal("0.945"), exchangeRate(Currency.USD, Currency.EUR, date));
+        Assertions.assertEquals(new BigDecimal("1.0"), exchangeRate(Currency.EUR, Currency.EUR, date));
+
+        // The cross rate takes effect with the latest rate of both currencies
+        ExchangeRateDataResponse crossRate = crossRateMatrix.get(Currency.EUR, Currency.BRL, date).orElseThrow();
+        Assertions.assertEquals("Real", crossRate.getCurrency());
+        Assertions.assertEquals("Brazil", crossRate.getCountry());
+        Assertions.assertEquals("2023-10-31", crossRate.getEffectiveDate());
+        Assertions.assertEquals("2023-09-30",
+                crossRateMatrix.get(Currency.EUR, Currency.GBP, date).orElseThrow().getEffectiveDate());
+    }
+
+    @Test
+    void givenExchangeRateOlderThanSixMonthsWhenGetThenReturnEmpty() {
+        update(exchangeRate(Currency.EUR, "2023-03-31", "2023-03-31", "0.92"),
+                exchangeRate(Currency.BRL, "2023-09-30", "2023-09-30", "5.031"));
+
+        Assertions.assertTrue(crossRateMatrix.get(Currency.EUR, Currency.BRL, LocalDate.of(2023, 3, 30)).isEmpty());
+        Assertions.assertTrue(crossRateMatrix.get(Currency.EUR, Currency.BRL, LocalDate.of(2023, 10, 15)).isEmpty());
+        Assertions.assertTrue(crossRateMatrix.get(Currency.EUR, Currency.GBP, LocalDate.of(2023, 4, 15)).isEmpty());
+        Assertions.assertTrue(crossRateMatrix.get(Currency.EUR, Currency.BRL, LocalDate.of(2023, 9, 30)).isPresent());
+    }
+
+    @Test
+    void givenNewQuarterWhenUpdateThenKeepPreviousCrossRates() {
+        update(exchangeRate(Currency.EUR, "2023-09-30", "2023-09-30", "0.945"),
+                exchangeRate(Currency.BRL, "2023-09-30", "2023-09-30", "5.031"));
+
+        Optional<ExchangeRateDataResponse> september = crossRateMatrix.get(Currency.EUR, Currency.BRL, LocalDate.of(2023, 11, 15));
+
+        // The whole dataset is merged again, only the new quarter changes the matrix
+        update(exchangeRate(Currency.EUR, "2023-09-30", "2023-09-30", "0.945"),
+                exchangeRate(Currency.BRL, "2023-09-30", "2023-09-30", "5.031"),
+                exchangeRate(Currency.EUR, "2023-12-31", "2023-12-31", "0.904"),
+                exchangeRate(Currency.BRL, "2023-12-31", "2023-12-31", "4.852"));
+
+        Assertions.assertEquals(2, crossRateMatrix.getSize());
+        Assertions.assertEquals(september, crossRateMatrix.get(Currency.EUR, Currency.BRL, LocalDate.of(2023, 11, 15)));
+        Assertions.assertEquals(new BigDecimal("5.367257"), exchangeRate(Currency.EUR, Currency.BRL, LocalDate.of(2024, 1, 15)));
+    }
+
+    @Test
+    void givenAmendedExchangeRateWhenUpdateThenComputeFollowingRowsAgain() {
+        update(exchangeRate(Currency.EUR, "2023-09-30", "2023-09-30", "0.945"),
+                exchangeRate(Currency.BRL, "2023-09-30", "2023-09-30", "5.031"),
+                exchangeRate(Currency.EUR, "2023-12-31", "2023-12-31", "0.904"));
+
+        update(exchangeRate(Currency.BRL, "2023-09-30", "2023-10-15", "5.0"),
+                exchangeRate(Currency.BRL, "2023-09-30", "2023-09-30", "5.031"));
+
+        Assertions.assertEquals(2, crossRateMatrix.getSize());
+        Assertions.assertEquals(new BigDecimal("5.291005"), exchangeRate(Currency.EUR, Currency.BRL, LocalDate.of(2023, 11, 15)));
+        Assertions.assertEquals(new BigDecimal("5.530973"), exchangeRate(Currency.EUR, Currency.BRL, LocalDate.of(2024, 1, 15)));
+    }
+
+    private BigDecimal exchangeRate(Currency source, Currency target, LocalDate date) {
+        return crossRateMatrix.get(source, target, date).map(ExchangeRateDataResponse::getExchangeRate).orElseThrow();
+    }
+
+    private void update(ExchangeRateDataResponse... exchangeRates) {
+        CrossRateMatrix.Builder builder = CrossRateMatrix.builder();
+
+        for (ExchangeRateDataResponse exchangeRate : exchangeRates) {
+            builder.add(exchangeRate);
+        }
+
+        crossRateMatrix.update(builder);
+    }
+
+    private static ExchangeRateDataResponse exchangeRate(Currency currency, String effectiveDate, String recordDate,
+                                                         String exchangeRate) {
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(currency.getName());
+        exchangeRateDataResponse.setCountry(currency.getCountry());
+        exchangeRateDataResponse.setEffectiveDate(effectiveDate);
+        exchangeRateDataResponse.setRecordDate(recordDate);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal(exchangeRate));
+        return exchangeRateDataResponse;
+    }
+
+}
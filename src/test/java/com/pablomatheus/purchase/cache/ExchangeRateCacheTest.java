@@ -0,0 +1,126 @@
+package com.pablomatheus.purchase.cache;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.config.ExchangeRateCacheProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ExchangeRateCacheTest {
+
+    private static final String CURRENCY = "Real";
+    private static final String COUNTRY = "Brazil";
+
+    private ExchangeRateCache exchangeRateCache;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateCache = new ExchangeRateCache(new ExchangeRateCacheProperties());
+    }
+
+    @Test
+    void givenCachedWindowWhenGetWithDateInsideWindowThenReturnExchangeRate() {
+        ExchangeRateDataResponse exchangeRate = exchangeRate("2023-09-30", "4.858");
+
+        exchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 15), exchangeRate);
+
+        Assertions.assertEquals(Optional.of(exchangeRate), exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 9, 30)));
+        Assertions.assertEquals(Optional.of(exchangeRate), exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 10, 20)));
+        Assertions.assertEquals(Optional.of(exchangeRate), exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 15)));
+        Assertions.assertEquals(3, exchangeRateCache.getHitCount());
+        Assertions.assertEquals(0, exchangeRateCache.getMissCount());
+    }
+
+    @Test
+    void givenCachedWindowWhenGetWithDateOutsideWindowThenReturnEmpty() {
+        exchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 15), exchangeRate("2023-09-30", "4.858"));
+
+        Assertions.assertTrue(exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 9, 29)).isEmpty());
+        Assertions.assertTrue(exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 16)).isEmpty());
+        Assertions.assertTrue(exchangeRateCache.get("Euro", "Euro Zone", LocalDate.of(2023, 10, 20)).isEmpty());
+        Assertions.assertEquals(0, exchangeRateCache.getHitCount());
+        Assertions.assertEquals(3, exchangeRateCache.getMissCount());
+    }
+
+    @Test
+    void givenSameEffectiveDateConfirmedLaterWhenPutThenExtendWindow() {
+        ExchangeRateDataResponse exchangeRate = exchangeRate("2023-09-30", "4.858");
+
+        exchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 10, 1), exchangeRate);
+        exchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 1), exchangeRate);
+        exchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 1), exchangeRate);
+
+        Assertions.assertEquals(Optional.of(exchangeRate), exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 1)));
+        Assertions.assertEquals(1, exchangeRateCache.getSize());
+    }
+
+    @Test
+    void givenEarlierDateConfirmedAfterLaterDateWhenPutThenKeepTimeToLiveOfLaterDate() {
+        ExchangeRateCacheProperties properties = new ExchangeRateCacheProperties();
+        properties.setTimeToLive(Duration.ofHours(1));
+
+        AtomicLong nanos = new AtomicLong();
+        ExchangeRateDataResponse exchangeRate = exchangeRate("2023-09-30", "4.858");
+
+        ExchangeRateCache tickingExchangeRateCache = new ExchangeRateCache(properties, nanos::get);
+        tickingExchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 1), exchangeRate);
+
+        nanos.set(Duration.ofMinutes(40).toNanos());
+        tickingExchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 1), exchangeRate);
+
+        nanos.set(Duration.ofMinutes(70).toNanos());
+
+        // The confirmation up to 2023-12-01 expired, and the newer one only confirmed the rate up to 2023-11-01
+        Assertions.assertTrue(tickingExchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 1)).isEmpty());
+        Assertions.assertEquals(Optional.of(exchangeRate), tickingExchangeRateCache.getStale(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 1)));
+    }
+
+    @Test
+    void givenEffectiveDateOlderThanSixMonthsWhenGetThenReturnEmpty() {
+        exchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2024, 6, 30), exchangeRate("2023-09-30", "4.858"));
+
+        Assertions.assertTrue(exchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2024, 5, 1)).isEmpty());
+    }
+
+    @Test
+    void givenExpiredEntryWhenGetThenReturnEmptyAndKeepItAsStale() {
+        ExchangeRateCacheProperties properties = new ExchangeRateCacheProperties();
+        properties.setTimeToLive(Duration.ZERO);
+
+        ExchangeRateDataResponse exchangeRate = exchangeRate("2023-09-30", "4.858");
+
+        ExchangeRateCache expiringExchangeRateCache = new ExchangeRateCache(properties);
+        expiringExchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 10, 15), exchangeRate);
+
+        Assertions.assertTrue(expiringExchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 10, 1)).isEmpty());
+        Assertions.assertEquals(Optional.of(exchangeRate), expiringExchangeRateCache.getStale(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 1)));
+        Assertions.assertTrue(expiringExchangeRateCache.getStale(CURRENCY, COUNTRY, LocalDate.of(2024, 6, 1)).isEmpty());
+    }
+
+    @Test
+    void givenDisabledCacheWhenGetThenReturnEmpty() {
+        ExchangeRateCacheProperties properties = new ExchangeRateCacheProperties();
+        properties.setEnabled(false);
+
+        ExchangeRateCache disabledExchangeRateCache = new ExchangeRateCache(properties);
+        disabledExchangeRateCache.put(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 15), exchangeRate("2023-09-30", "4.858"));
+
+        Assertions.assertTrue(disabledExchangeRateCache.get(CURRENCY, COUNTRY, LocalDate.of(2023, 10, 20)).isEmpty());
+    }
+
+    private static ExchangeRateDataResponse exchangeRate(String effectiveDate, String exchangeRate) {
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(CURRENCY);
+        exchangeRateDataResponse.setCountry(COUNTRY);
+        exchangeRateDataResponse.setEffectiveDate(effectiveDate);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal(exchangeRate));
+        return exchangeRateDataResponse;
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.pablomatheus.purchase.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pablomatheus.purchase.client.ExchangeRateResponseReader;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.config.ExchangeRateIndexProperties;
+import com.pablomatheus.purchase.config.ExchangeRateSyncProperties;
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
+import com.pablomatheus.purchase.repository.ExchangeRateRepository;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateIndexLoaderTest {
+
+    private static final String FIELDS = UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS;
+
+    @Mock
+    private UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private ExchangeRateSyncProperties exchangeRateSyncProperties;
+
+    private ExchangeRateIndex exchangeRateIndex;
+
+    private CrossRateMatrix crossRateMatrix;
+
+    private ExchangeRateIndexLoader exchangeRateIndexLoader;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeRateIndexProperties properties = new ExchangeRateIndexProperties();
+        properties.setPageSize(2);
+
+        exchangeRateSyncProperties = new ExchangeRateSyncProperties();
+        exchangeRateSyncProperties.setEnabled(false);
+
+        exchangeRateIndex = new ExchangeRateIndex();
+        crossRateMatrix = new CrossRateMatrix();
+        exchangeRateIndexLoader = new ExchangeRateIndexLoader(unitedStatesTreasuryClient,
+                new ExchangeRateResponseReader(new ObjectMapper()), exchangeRateIndex, crossRateMatrix, properties,
+                exchangeRateSyncProperties, exchangeRateRepository, Mappers.getMapper(ExchangeRateMapper.class));
+    }
+
+    @Test
+    void givenMultiplePagesWhenRefreshThenLoadAllPagesIntoIndex() {
+        given(unitedStatesTreasuryClient.getExchangeRates(FIELDS, null, "effective_date", 1, 2)).willReturn(response(200, """
+                {"data":[
+                {"record_date":"2023-03-31","country":"Brazil","currency":"Real","exchange_rate":"5.076","effective_date":"2023-03-31"},
+                {"record_date":"2023-06-30","country":"Brazil","currency":"Real","exchange_rate":"4.858","effective_date":"2023-06-30"}],
+                "meta":{"count":2,"total-count":3,"total-pages":2}}
+                """));
+        given(unitedStatesTreasuryClient.getExchangeRates(FIELDS, null, "effective_date", 2, 2)).willReturn(response(200, """
+                {"data":[
+                {"record_date":"2023-09-30","country":"Brazil","currency":"Real","exchange_rate":"5.031","effective_date":"2023-09-30"}],
+                "meta":{"count":1,"total-count":3,"total-pages":2}}
+                """));
+
+        exchangeRateIndexLoader.refresh();
+
+        verify(unitedStatesTreasuryClient, times(1)).getExchangeRates(FIELDS, null, "effective_date", 1, 2);
+        verify(unitedStatesTreasuryClient, times(1)).getExchangeRates(FIELDS, null, "effective_date", 2, 2);
+
+        Assertions.assertEquals(3, exchangeRateIndex.getSize());
+        Assertions.assertEquals(new BigDecimal("4.858"), exchangeRateIndex.get("Real", "Brazil", LocalDate.of(2023, 7, 15))
+                .map(ExchangeRateDataResponse::getExchangeRate)
+                .orElseThrow());
+        Assertions.assertEquals(3, crossRateMatrix.getSize());
+
+        verifyNoMoreInteractions(unitedStatesTreasuryClient);
+    }
+
+    @Test
+    void givenClientFailureWhenRefreshThenKeepPreviousIndex() {
+        ExchangeRateDataResponse previous = new ExchangeRateDataResponse();
+        previous.setCountry("Brazil");
+        previous.setCurrency("Real");
+        previous.setExchangeRate(new BigDecimal("4.858"));
+        previous.setEffectiveDate("2023-06-30");
+        exchangeRateIndex.load(List.of(previous));
+
+        given(unitedStatesTreasuryClient.getExchangeRates(FIELDS, null, "effective_date", 1, 2))
+                .willReturn(response(503, "Service unavailable"));
+
+        Assertions.assertDoesNotThrow(() -> exchangeRateIndexLoader.refresh());
+
+        Assertions.assertEquals(Optional.of(previous), exchangeRateIndex.get("Real", "Brazil", LocalDate.of(2023, 7, 15)));
+    }
+
+    @Test
+    void givenSyncEnabledWhenRefreshThenDoNotDownloadDataset() {
+        exchangeRateSyncProperties.setEnabled(true);
+
+        exchangeRateIndexLoader.refresh();
+
+        verify(unitedStatesTreasuryClient, never()).getExchangeRates(FIELDS, null, "effective_date", 1, 2);
+        Assertions.assertFalse(exchangeRateIndex.isLoaded());
+    }
+
+    @Test
+    void givenStoredExchangeRatesWhenLoadStoredThenLoadIndexFromDatabase() {
+        ExchangeRateEntity exchangeRateEntity = new ExchangeRateEntity();
+        exchangeRateEntity.setCurrency("Real");
+        exchangeRateEntity.setCountry("Brazil");
+        exchangeRateEntity.setExchangeRate(new BigDecimal("4.858000"));
+        exchangeRateEntity.setEffectiveDate(LocalDate.of(2023, 6, 30));
+        exchangeRateEntity.setRecordDate(LocalDate.of(2023, 6, 30));
+
+        given(exchangeRateRepository.findAllStored()).willReturn(List.of(exchangeRateEntity));
+
+        exchangeRateIndexLoader.loadStored();
+
+        Assertions.assertEquals(1, exchangeRateIndex.getSize());
+        Assertions.assertEquals(new BigDecimal("4.858"), exchangeRateIndex.get("Real", "Brazil", LocalDate.of(2023, 7, 15))
+                .map(ExchangeRateDataResponse::getExchangeRate)
+                .orElseThrow());
+        Assertions.assertEquals(0, crossRateMatrix.getSize());
+
+        verifyNoMoreInteractions(unitedStatesTreasuryClient);
+    }
+
+    private static Response response(int status, String body) {
+        Request request = Request.create(Request.HttpMethod.GET, "/v1/accounting/od/rates_of_exchange",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.pablomatheus.purchase.cache;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+class ExchangeRateIndexTest {
+
+    private static final String CURRENCY = "Real";
+    private static final String COUNTRY = "Brazil";
+
+    private final ExchangeRateIndex exchangeRateIndex = new ExchangeRateIndex();
+
+    @Test
+    void givenNotLoadedIndexWhenGetThenReturnEmpty() {
+        Assertions.assertFalse(exchangeRateIndex.isLoaded());
+        Assertions.assertTrue(exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2023, 11, 15)).isEmpty());
+    }
+
+    @Test
+    void givenLoadedIndexWhenGetThenReturnLatestExchangeRateOnOrBeforeDate() {
+        ExchangeRateDataResponse june = exchangeRate("2023-06-30", "2023-06-30", "4.82");
+        ExchangeRateDataResponse september = exchangeRate("2023-09-30", "2023-09-30", "4.858");
+        ExchangeRateDataResponse december = exchangeRate("2023-12-31", "2023-12-31", "4.852");
+
+        exchangeRateIndex.load(List.of(december, june, september));
+
+        Assertions.assertTrue(exchangeRateIndex.isLoaded());
+        Assertions.assertEquals(3, exchangeRateIndex.getSize());
+        Assertions.assertEquals(Optional.of(june), exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2023, 9, 29)));
+        Assertions.assertEquals(Optional.of(september), exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2023, 9, 30)));
+        Assertions.assertEquals(Optional.of(september), exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2023, 12, 30)));
+        Assertions.assertEquals(Optional.of(december), exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2024, 3, 1)));
+    }
+
+    @Test
+    void givenExchangeRateOlderThanSixMonthsWhenGetThenReturnEmpty() {
+        exchangeRateIndex.load(List.of(exchangeRate("2023-06-30", "2023-06-30", "4.82")));
+
+        Assertions.assertTrue(exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2023, 6, 29)).isEmpty());
+        Assertions.assertTrue(exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2024, 1, 1)).isEmpty());
+        Assertions.assertTrue(exchangeRateIndex.get("Euro", "Euro Zone", LocalDate.of(2023, 7, 1)).isEmpty());
+    }
+
+    @Test
+    void givenDuplicatedEffectiveDatesWhenLoadThenKeepLatestRecord() {
+        ExchangeRateDataResponse first = exchangeRate("2023-06-30", "2023-06-30", "4.82");
+        ExchangeRateDataResponse latest = exchangeRate("2023-06-30", "2023-07-15", "4.83");
+
+        exchangeRateIndex.load(List.of(latest, first));
+
+        Assertions.assertEquals(1, exchangeRateIndex.getSize());
+        Assertions.assertEquals(Optional.of(latest), exchangeRateIndex.get(CURRENCY, COUNTRY, LocalDate.of(2023, 7, 1)));
+    }
+
+    private static ExchangeRateDataResponse exchangeRate(String effectiveDate, String recordDate, String exchangeRate) {
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(CURRENCY);
+        exchangeRateDataResponse.setCountry(COUNTRY);
+        exchangeRateDataResponse.setEffectiveDate(effectiveDate);
+        exchangeRateDataResponse.setRecordDate(recordDate);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal(exchangeRate));
+        return exchangeRateDataResponse;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.pablomatheus.purchase.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateMetaResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class ExchangeRateResponseReaderTest {
+
+    private final ExchangeRateResponseReader exchangeRateResponseReader = new ExchangeRateResponseReader(new ObjectMapper());
+
+    @Test
+    void givenPageWhenReadThenConsumeEachExchangeRateAndReturnMeta() throws IOException {
+        List<ExchangeRateDataResponse> data = new ArrayList<>();
+
+        ExchangeRateMetaResponse meta = exchangeRateResponseReader.read(inputStream("""
+                {"data":[
+                {"record_date":"2023-06-30","country":"Brazil","currency":"Real","country_currency_desc":"Brazil-Real",
+                "exchange_rate":"4.858","effective_date":"2023-06-30","src_line_nbr":"12"},
+                {"record_date":"2023-06-30","country":"Canada","currency":"Dollar","exchange_rate":1.325,
+                "effective_date":"2023-06-30","nested":{"ignored":[1,2,3]}}],
+                "meta":{"count":2,"labels":{"country":"Country"},"total-count":2,"total-pages":1},
+                "links":{"self":"&page%5Bnumber%5D=1&page%5Bsize%5D=2"}}
+                """), data::add);
+
+        Assertions.assertEquals(2, data.size());
+
+        Assertions.assertEquals("2023-06-30", data.get(0).getRecordDate());
+        Assertions.assertEquals("Brazil", data.get(0).getCountry());
+        Assertions.assertEquals("Real", data.get(0).getCurrency());
+        Assertions.assertEquals(new BigDecimal("4.858"), data.get(0).getExchangeRate());
+        Assertions.assertEquals("2023-06-30", data.get(0).getEffectiveDate());
+        Assertions.assertNull(data.get(0).getCountryCurrencyDescription());
+        Assertions.assertNull(data.get(0).getSourceLineNumber());
+
+        Assertions.assertEquals("Canada", data.get(1).getCountry());
+        Assertions.assertEquals(new BigDecimal("1.325"), data.get(1).getExchangeRate());
+
+        Assertions.assertEquals(2, meta.getCount());
+        Assertions.assertEquals(2, meta.getTotalCount());
+        Assertions.assertEquals(1, meta.getTotalPages());
+    }
+
+    @Test
+    void givenPageWithoutMetaAndEmptyRateWhenReadThenReturnNullMeta() throws IOException {
+        List<ExchangeRateDataResponse> data = new ArrayList<>();
+
+        ExchangeRateMetaResponse meta = exchangeRateResponseReader.read(inputStream("""
+                {"data":[{"country":"Brazil","currency":"Real","exchange_rate":null,"effective_date":"2023-06-30"}]}
+                """), data::add);
+
+        Assertions.assertNull(meta);
+        Assertions.assertEquals(1, data.size());
+        Assertions.assertNull(data.get(0).getExchangeRate());
+    }
+
+    @Test
+    void givenNonObjectWhenReadThenThrowParseException() {
+        Assertions.assertThrows(JsonParseException.class,
+                () -> exchangeRateResponseReader.read(inputStream("[]"), exchangeRate -> {
+                }));
+    }
+
+    private static InputStream inputStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
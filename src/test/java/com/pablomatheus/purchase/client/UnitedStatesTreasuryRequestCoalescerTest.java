@@ -0,0 +1,120 @@
+package com.pablomatheus.purchase.client;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class UnitedStatesTreasuryRequestCoalescerTest {
+
+    private static final String FILTER = "currency:eq:Real,country:eq:Brazil";
+    private static final String SORT = "-effective_date";
+
+    @Mock
+    private UnitedStatesTreasuryResilientClient unitedStatesTreasuryResilientClient;
+
+    @InjectMocks
+    private UnitedStatesTreasuryRequestCoalescer unitedStatesTreasuryRequestCoalescer;
+
+    @Test
+    void givenConcurrentIdenticalCallsWhenGetExchangeRateThenCallClientOnce() throws Exception {
+        int callers = 8;
+        ExchangeRateResponse exchangeRateResponse = new ExchangeRateResponse();
+        CountDownLatch clientCalled = new CountDownLatch(1);
+        CountDownLatch releaseClient = new CountDownLatch(1);
+
+        given(unitedStatesTreasuryResilientClient.getFirstExchangeRate(FILTER, SORT)).willAnswer(invocation -> {
+            clientCalled.countDown();
+            releaseClient.await(5, TimeUnit.SECONDS);
+            return exchangeRateResponse;
+        });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<ExchangeRateResponse>> results = new ArrayList<>();
+            results.add(executorService.submit(() -> unitedStatesTreasuryRequestCoalescer.getExchangeRate(FILTER, SORT)));
+            Assertions.assertTrue(clientCalled.await(5, TimeUnit.SECONDS));
+
+            for (int caller = 1; caller < callers; caller++) {
+                results.add(executorService.submit(() -> unitedStatesTreasuryRequestCoalescer.getExchangeRate(FILTER, SORT)));
+            }
+
+            awaitCoalescedCalls(callers - 1);
+            releaseClient.countDown();
+
+            for (Future<ExchangeRateResponse> result : results) {
+                Assertions.assertSame(exchangeRateResponse, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, unitedStatesTreasuryRequestCoalescer.getCallCount());
+        Assertions.assertEquals(callers - 1, unitedStatesTreasuryRequestCoalescer.getCoalescedCallCount());
+
+        verify(unitedStatesTreasuryResilientClient, times(1)).getExchangeRate(FILTER, SORT);
+    }
+
+    @Test
+    void givenFailedCallWhenGetExchangeRateThenShareErrorAndAllowNewCall() throws Exception {
+        IllegalStateException failure = new IllegalStateException("Service unavailable");
+        CountDownLatch clientCalled = new CountDownLatch(1);
+        CountDownLatch releaseClient = new CountDownLatch(1);
+
+        given(unitedStatesTreasuryResilientClient.getFirstExchangeRate(FILTER, SORT)).willAnswer(invocation -> {
+            clientCalled.countDown();
+            releaseClient.await(5, TimeUnit.SECONDS);
+            throw failure;
+        });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ExchangeRateResponse> leader = executorService.submit(() -> unitedStatesTreasuryRequestCoalescer.getExchangeRate(FILTER, SORT));
+            Assertions.assertTrue(clientCalled.await(5, TimeUnit.SECONDS));
+
+            Future<ExchangeRateResponse> follower = executorService.submit(() -> unitedStatesTreasuryRequestCoalescer.getExchangeRate(FILTER, SORT));
+            awaitCoalescedCalls(1);
+            releaseClient.countDown();
+
+            ExecutionException leaderException = Assertions.assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException followerException = Assertions.assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+
+            Assertions.assertSame(failure, leaderException.getCause());
+            Assertions.assertSame(failure, followerException.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assertions.assertThrows(IllegalStateException.class, () -> unitedStatesTreasuryRequestCoalescer.getExchangeRate(FILTER, SORT));
+
+        verify(unitedStatesTreasuryResilientClient, times(2)).getExchangeRate(FILTER, SORT);
+    }
+
+    private void awaitCoalescedCalls(long coalescedCalls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (unitedStatesTreasuryRequestCoalescer.getCoalescedCallCount() < coalescedCalls && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+}
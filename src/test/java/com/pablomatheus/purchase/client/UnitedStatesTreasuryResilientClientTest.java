@@ -0,0 +1,95 @@
+package com.pablomatheus.purchase.client;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class UnitedStatesTreasuryResilientClientTest {
+
+    private static final String FILTER = "currency:eq:Real,country:eq:Brazil";
+    private static final String SORT = "-effective_date";
+
+    @Mock
+    private UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+
+    private UnitedStatesTreasuryResilientClient unitedStatesTreasuryResilientClient;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build();
+
+        unitedStatesTreasuryResilientClient = new UnitedStatesTreasuryResilientClient(unitedStatesTreasuryClient,
+                CircuitBreakerRegistry.of(circuitBreakerConfig), BulkheadRegistry.ofDefaults());
+    }
+
+    @Test
+    void givenAvailableApiWhenGetExchangeRateThenReturnResponse() {
+        ExchangeRateResponse exchangeRateResponse = new ExchangeRateResponse();
+
+        given(unitedStatesTreasuryClient.getExchangeRate(UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, FILTER, SORT, 1)).willReturn(exchangeRateResponse);
+
+        Assertions.assertSame(exchangeRateResponse, unitedStatesTreasuryResilientClient.getFirstExchangeRate(FILTER, SORT));
+    }
+
+    @Test
+    void givenFailingApiWhenGetExchangeRateThenOpenCircuitAndStopCallingApi() {
+        Request request = Request.create(Request.HttpMethod.GET, "/v1/accounting/od/rates_of_exchange",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+
+        given(unitedStatesTreasuryClient.getExchangeRate(UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, FILTER, SORT, 1))
+                .willThrow(new FeignException.ServiceUnavailable("Service Unavailable", request, null, Map.of()));
+
+        for (int call = 0; call < 3; call++) {
+            ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                    () -> unitedStatesTreasuryResilientClient.getFirstExchangeRate(FILTER, SORT));
+
+            Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+            Assertions.assertEquals("The exchange rates are temporarily unavailable", exception.getReason());
+        }
+
+        verify(unitedStatesTreasuryClient, times(2)).getExchangeRate(UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, FILTER, SORT, 1);
+    }
+
+    @Test
+    void givenRefusedRequestWhenGetExchangeRateThenStatus502BadGatewayWithoutOpeningCircuit() {
+        Request request = Request.create(Request.HttpMethod.GET, "/v1/accounting/od/rates_of_exchange",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+
+        given(unitedStatesTreasuryClient.getExchangeRate(UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, FILTER, SORT, 1))
+                .willThrow(new FeignException.BadRequest("Bad Request", request, null, Map.of()));
+
+        for (int call = 0; call < 3; call++) {
+            ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                    () -> unitedStatesTreasuryResilientClient.getFirstExchangeRate(FILTER, SORT));
+
+            Assertions.assertEquals(HttpStatus.BAD_GATEWAY, exception.getStatusCode());
+        }
+
+        verify(unitedStatesTreasuryClient, times(3)).getExchangeRate(UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS, FILTER, SORT, 1);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.pablomatheus.purchase.client.config;
+
+import com.pablomatheus.purchase.config.UnitedStatesTreasuryClientProperties;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnitedStatesTreasuryClientConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(UnitedStatesTreasuryClientProperties.class, UnitedStatesTreasuryClientProperties::new)
+            .withUserConfiguration(UnitedStatesTreasuryClientConfiguration.class);
+
+    @Test
+    void givenDefaultTransportWhenCreateClientThenUsePooledApacheHttpClient() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(CloseableHttpClient.class);
+            assertThat(context).getBean(Client.class).isInstanceOf(ApacheHttp5Client.class);
+        });
+    }
+
+    @Test
+    void givenHttp2TransportWhenCreateClientThenUseJdkHttpClient() {
+        contextRunner.withPropertyValues("client.united-states-treasury.transport.http2=true").run(context -> {
+            assertThat(context).doesNotHaveBean(CloseableHttpClient.class);
+            assertThat(context).getBean(Client.class).isInstanceOf(Http2Client.class);
+        });
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.pablomatheus.purchase.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class))
+            .withUserConfiguration(PropertiesConfiguration.class, DataSourceConfiguration.class)
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+
+    @Test
+    void givenNoReplicaWhenCreateDataSourceThenUsePrimaryPoolSizedByThreads() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean("replicaDataSource");
+            assertThat(context.getBean("dataSource")).isSameAs(context.getBean("primaryDataSource"));
+
+            // 200 server threads and 16 conversion executor threads, with 0.1 connection per thread
+            assertThat(context.getBean("primaryDataSource", HikariDataSource.class).getMaximumPoolSize()).isEqualTo(22);
+        });
+    }
+
+    @Test
+    void givenMaximumPoolSizeWhenCreateDataSourceThenKeepMaximumPoolSize() {
+        contextRunner.withPropertyValues("spring.datasource.hikari.maximum-pool-size=5").run(context ->
+                assertThat(context.getBean("primaryDataSource", HikariDataSource.class).getMaximumPoolSize()).isEqualTo(5));
+    }
+
+    @Test
+    void givenReactiveStackWhenCreateDataSourceThenLeaveMaximumSizeToReactivePool() {
+        contextRunner.withPropertyValues("spring.main.web-application-type=reactive").run(context -> {
+            HikariDataSource primaryDataSource = context.getBean("primaryDataSource", HikariDataSource.class);
+            PurchaseDataSourceProperties purchaseDataSourceProperties = context.getBean(PurchaseDataSourceProperties.class);
+
+            // 16 conversion executor threads, with 0.1 connection per thread, raised to the minimum size
+            assertThat(primaryDataSource.getMaximumPoolSize()).isEqualTo(10);
+            assertThat(DataSourceConfiguration.getReactivePoolSize(purchaseDataSourceProperties.getPool(),
+                    primaryDataSource.getMaximumPoolSize())).isEqualTo(40);
+        });
+    }
+
+    @Test
+    void givenReplicasWhenReadOnlyTransactionsThenUseReplicasInTurn() {
+        contextRunner.withPropertyValues(
+                "purchase.datasource.replicas[0].url=jdbc:h2:mem:first-replica;DB_CLOSE_DELAY=-1",
+                "purchase.datasource.replicas[1].url=jdbc:h2:mem:second-replica;DB_CLOSE_DELAY=-1").run(context -> {
+            assertThat(context).getBean("dataSource").isInstanceOf(LazyConnectionDataSourceProxy.class);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean("dataSource", DataSource.class));
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            readOnlyTransactionTemplate.setReadOnly(true);
+
+            assertThat(transactionTemplate.execute(status -> getDatabase(jdbcTemplate))).isEqualToIgnoringCase("primary");
+            assertThat(readOnlyTransactionTemplate.execute(status -> getDatabase(jdbcTemplate))).isEqualToIgnoringCase("first-replica");
+            assertThat(readOnlyTransactionTemplate.execute(status -> getDatabase(jdbcTemplate))).isEqualToIgnoringCase("second-replica");
+            assertThat(readOnlyTransactionTemplate.execute(status -> getDatabase(jdbcTemplate))).isEqualToIgnoringCase("first-replica");
+        });
+    }
+
+    private static String getDatabase(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    @EnableConfigurationProperties({PurchaseDataSourceProperties.class, PurchaseConversionProperties.class, ServerProperties.class})
+    static class PropertiesConfiguration {
+    }
+
+}
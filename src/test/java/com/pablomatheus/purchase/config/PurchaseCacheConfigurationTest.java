@@ -0,0 +1,78 @@
+package com.pablomatheus.purchase.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PurchaseCacheConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PropertiesConfiguration.class, PurchaseCacheConfiguration.class);
+
+    @Test
+    void givenDisabledCacheWhenCustomizeHibernateThenDisableSecondLevelCache() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(CacheManager.class);
+
+            Map<String, Object> hibernateProperties = customize(context.getBean(HibernatePropertiesCustomizer.class));
+
+            assertThat(hibernateProperties).containsEntry(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        });
+    }
+
+    @Test
+    void givenEnabledCacheWhenCustomizeHibernateThenUseReadOnlyRegionWithMetrics() {
+        contextRunner.withPropertyValues("cache.purchase.enabled=true").run(context -> {
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+
+            Map<String, Object> hibernateProperties = customize(context.getBean(HibernatePropertiesCustomizer.class));
+
+            assertThat(hibernateProperties)
+                    .containsEntry(AvailableSettings.USE_SECOND_LEVEL_CACHE, true)
+                    .containsEntry(AvailableSettings.DEFAULT_CACHE_CONCURRENCY_STRATEGY, "read-only")
+                    .containsEntry(ConfigSettings.CACHE_MANAGER, cacheManager);
+
+            Cache<Object, Object> cache = cacheManager.getCache(PurchaseCacheConfiguration.PURCHASE_REGION);
+
+            cache.put(1L, "purchase");
+            cache.get(1L);
+            cache.get(2L);
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            context.getBean(MeterBinder.class).bindTo(meterRegistry);
+
+            assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void givenReadWriteCacheWhenCustomizeHibernateThenUseReadWriteRegion() {
+        contextRunner.withPropertyValues("cache.purchase.enabled=true", "cache.purchase.read-only=false").run(context ->
+                assertThat(customize(context.getBean(HibernatePropertiesCustomizer.class)))
+                        .containsEntry(AvailableSettings.DEFAULT_CACHE_CONCURRENCY_STRATEGY, "read-write"));
+    }
+
+    private static Map<String, Object> customize(HibernatePropertiesCustomizer customizer) {
+        Map<String, Object> hibernateProperties = new HashMap<>();
+        customizer.customize(hibernateProperties);
+        return hibernateProperties;
+    }
+
+    @EnableConfigurationProperties(PurchaseCacheProperties.class)
+    static class PropertiesConfiguration {
+    }
+
+}
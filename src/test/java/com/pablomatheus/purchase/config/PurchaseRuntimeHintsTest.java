@@ -0,0 +1,37 @@
+package com.pablomatheus.purchase.config;
+
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateMetaResponse;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class PurchaseRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void givenPurchaseRuntimeHintsWhenRegisterHintsThenTreasuryClientIsProxiedAndDecoded() {
+        new PurchaseRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        Assertions.assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(UnitedStatesTreasuryClient.class).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(UnitedStatesTreasuryClient.class, "getExchangeRates").test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ExchangeRateDataResponse.class, "setExchangeRate").test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(ExchangeRateMetaResponse.class).test(hints));
+    }
+
+    @Test
+    void givenPurchaseRuntimeHintsWhenRegisterHintsThenPurchaseCacheIsAvailable() {
+        new PurchaseRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(JCacheRegionFactory.class).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.resource().forResource("reference.conf").test(hints));
+    }
+
+}
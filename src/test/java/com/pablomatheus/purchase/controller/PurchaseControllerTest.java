@@ -1,32 +1,61 @@
 package com.pablomatheus.purchase.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pablomatheus.purchase.dto.ExchangeRateTargetDto;
+import com.pablomatheus.purchase.dto.IdempotentPurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseAmountDto;
 import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseFilterDto;
+import com.pablomatheus.purchase.dto.PurchasePageDto;
 import com.pablomatheus.purchase.enumeration.Currency;
 import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.request.ExchangeRateTargetRequest;
+import com.pablomatheus.purchase.request.ExchangeRateTargetsRequest;
+import com.pablomatheus.purchase.request.PurchaseBatchRequest;
+import com.pablomatheus.purchase.request.PurchaseConversionRequest;
 import com.pablomatheus.purchase.request.PurchaseRequest;
+import com.pablomatheus.purchase.response.PurchaseAmountResponse;
+import com.pablomatheus.purchase.response.PurchasePageResponse;
 import com.pablomatheus.purchase.response.PurchaseResponse;
+import com.pablomatheus.purchase.service.PurchaseIdempotencyService;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
 import com.pablomatheus.purchase.service.PurchaseService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles("test")
@@ -35,6 +64,9 @@ class PurchaseControllerTest {
 
     private static final String V1_PURCHASES = "/v1/purchases";
     private static final String V1_PURCHASES_ID_EXCHANGERATES_CONVERSION = V1_PURCHASES + "/{id}/exchange-rates/conversion";
+    private static final String V1_PURCHASES_BATCH = V1_PURCHASES + "/batch";
+    private static final String V1_PURCHASES_EXCHANGERATES_CONVERSIONS = V1_PURCHASES + "/exchange-rates/conversions";
+    private static final String V1_PURCHASES_ID_EXCHANGERATES_CONVERSIONS = V1_PURCHASES + "/{id}/exchange-rates/conversions";
 
     @Autowired
     private MockMvc mvc;
@@ -48,6 +80,9 @@ class PurchaseControllerTest {
     @MockBean
     private PurchaseService purchaseService;
 
+    @MockBean
+    private PurchaseIdempotencyService purchaseIdempotencyService;
+
     @Test
     void givenValidRequestWhenAddPurchaseThenStatus201CreatedAndReturnSavedInformation() throws Exception {
         PurchaseRequest purchaseRequest = new PurchaseRequest();
@@ -81,6 +116,60 @@ class PurchaseControllerTest {
         verifyNoMoreInteractions(purchaseService);
     }
 
+    @Test
+    void givenUsedIdempotencyKeyWhenAddPurchaseThenStatus201CreatedAndReturnOriginalPurchase() throws Exception {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setAmount(new BigDecimal("11.25"));
+        purchaseRequest.setDescription("Test");
+        purchaseRequest.setTransactionDate(LocalDateTime.now());
+        purchaseRequest.setCurrency(Currency.USD);
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        PurchaseDto originalPurchaseDto = new PurchaseDto();
+        originalPurchaseDto.setId(1L);
+
+        PurchaseResponse purchaseResponse = new PurchaseResponse();
+        purchaseResponse.setId(1L);
+
+        given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(purchaseDto);
+        given(purchaseIdempotencyService.addPurchase("key", purchaseDto))
+                .willReturn(new IdempotentPurchaseDto(originalPurchaseDto, true));
+        given(purchaseMapper.toResponse(originalPurchaseDto)).willReturn(purchaseResponse);
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES)
+                .header("Idempotency-Key", "key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(purchaseIdempotencyService, times(1)).addPurchase("key", purchaseDto);
+        verifyNoInteractions(purchaseService);
+    }
+
+    @Test
+    void givenOutOfLimitIdempotencyKeyWhenAddPurchaseThenStatus400BadRequest() throws Exception {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setAmount(new BigDecimal("11.25"));
+        purchaseRequest.setDescription("Test");
+        purchaseRequest.setTransactionDate(LocalDateTime.now());
+        purchaseRequest.setCurrency(Currency.USD);
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES)
+                .header("Idempotency-Key", "k".repeat(256))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseIdempotencyService);
+        verifyNoInteractions(purchaseService);
+    }
+
     @Test
     void givenNullAmountWhenAddPurchaseThenStatus400BadRequest() throws Exception {
         PurchaseRequest purchaseRequest = new PurchaseRequest();
@@ -183,6 +272,256 @@ class PurchaseControllerTest {
         verifyNoInteractions(purchaseService);
     }
 
+    @Test
+    void givenValidJsonBatchWhenAddPurchasesThenStatus201CreatedAndReturnCount() throws Exception {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setAmount(new BigDecimal("11.25"));
+        purchaseRequest.setDescription("Test");
+        purchaseRequest.setTransactionDate(LocalDateTime.now());
+        purchaseRequest.setCurrency(Currency.USD);
+
+        PurchaseBatchRequest purchaseBatchRequest = new PurchaseBatchRequest();
+        purchaseBatchRequest.setPurchases(List.of(purchaseRequest, purchaseRequest));
+
+        given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(new PurchaseDto());
+        given(purchaseService.addPurchases(Mockito.any())).willAnswer(invocation -> invocation.<Stream<PurchaseDto>>getArgument(0).toList().size());
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_BATCH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseBatchRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.count").value(2));
+
+        verify(purchaseService, times(1)).addPurchases(Mockito.any());
+        verify(purchaseMapper, times(2)).toDto(Mockito.any(PurchaseRequest.class));
+
+        verifyNoMoreInteractions(purchaseService);
+        verifyNoMoreInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenInvalidPurchaseInJsonBatchWhenAddPurchasesThenStatus400BadRequest() throws Exception {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setDescription("Test");
+
+        PurchaseBatchRequest purchaseBatchRequest = new PurchaseBatchRequest();
+        purchaseBatchRequest.setPurchases(List.of(purchaseRequest));
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_BATCH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseBatchRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseService);
+        verifyNoInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenValidNdjsonBatchWhenAddPurchasesThenStatus201CreatedAndReturnCount() throws Exception {
+        String ndjsonRequest = """
+                {"description":"Test","transactionDate":"2023-10-21T13:00:00","amount":"11.25","currency":"USD"}
+                {"description":"Test","transactionDate":"2023-10-22T13:00:00","amount":"12.25","currency":"USD"}
+                {"description":"Test","transactionDate":"2023-10-23T13:00:00","amount":"13.25","currency":"USD"}
+                """;
+
+        given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(new PurchaseDto());
+        given(purchaseService.addPurchases(Mockito.any())).willAnswer(invocation -> invocation.<Stream<PurchaseDto>>getArgument(0).toList().size());
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_BATCH)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjsonRequest);
+
+        mvc.perform(request)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.count").value(3));
+
+        verify(purchaseService, times(1)).addPurchases(Mockito.any());
+        verify(purchaseMapper, times(3)).toDto(Mockito.any(PurchaseRequest.class));
+
+        verifyNoMoreInteractions(purchaseService);
+        verifyNoMoreInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenInvalidPurchaseInNdjsonBatchWhenAddPurchasesThenStatus400BadRequest() throws Exception {
+        String ndjsonRequest = """
+                {"description":"Test","transactionDate":"2023-10-21T13:00:00","amount":"11.25","currency":"USD"}
+                {"description":"Test","transactionDate":"2023-10-22T13:00:00","currency":"USD"}
+                """;
+
+        given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(new PurchaseDto());
+        given(purchaseService.addPurchases(Mockito.any())).willAnswer(invocation -> invocation.<Stream<PurchaseDto>>getArgument(0).toList().size());
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_BATCH)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjsonRequest);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verify(purchaseMapper, times(1)).toDto(Mockito.any(PurchaseRequest.class));
+    }
+
+    @Test
+    void givenMalformedLineInNdjsonBatchWhenAddPurchasesThenStatus400BadRequestWithLineNumber() throws Exception {
+        String ndjsonRequest = """
+                {"description":"Test","transactionDate":"2023-10-21T13:00:00","amount":"11.25","currency":"USD"}
+                {"description":"Test","transactionDate":"2023-10-22T13:00:00","amount":12.25,currency:"USD"}
+                {"description":"Test","transactionDate":"2023-10-23T13:00:00","amount":"13.25","currency":"USD"}
+                """;
+
+        given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(new PurchaseDto());
+        given(purchaseService.addPurchases(Mockito.any())).willAnswer(invocation -> invocation.<Stream<PurchaseDto>>getArgument(0).toList().size());
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_BATCH)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjsonRequest);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("The purchase at line [2] is not a valid JSON"));
+
+        verify(purchaseMapper, times(1)).toDto(Mockito.any(PurchaseRequest.class));
+    }
+
+    @Test
+    void givenInvalidLineAfterFirstChunkInNdjsonBatchWhenAddPurchasesThenStatus400BadRequestAndFailTheWholeBatch() throws Exception {
+        String ndjsonRequest = """
+                {"description":"Test","transactionDate":"2023-10-21T13:00:00","amount":"11.25","currency":"USD"}
+                {"description":"Test","transactionDate":"2023-10-22T13:00:00","amount":"12.25","currency":"USD"}
+                {"description":"Test","transactionDate":"2023-10-23T13:00:00","currency":"USD"}
+                """;
+
+        List<Integer> flushedChunks = new ArrayList<>();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(new PurchaseDto());
+        given(purchaseService.addPurchases(Mockito.any())).willAnswer(invocation -> {
+            Iterator<PurchaseDto> purchaseDtos = invocation.<Stream<PurchaseDto>>getArgument(0).iterator();
+            int chunk = 0;
+
+            try {
+                while (purchaseDtos.hasNext()) {
+                    purchaseDtos.next();
+
+                    if (++chunk == 2) {
+                        flushedChunks.add(chunk);
+                        chunk = 0;
+                    }
+                }
+            } catch (RuntimeException exception) {
+                failure.set(exception);
+                throw exception;
+            }
+
+            return 3;
+        });
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_BATCH)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjsonRequest);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        // The invalid line fails the service call after a chunk was flushed, which rolls back its transaction
+        Assertions.assertEquals(List.of(2), flushedChunks);
+        Assertions.assertNotNull(failure.get());
+        verify(purchaseMapper, times(2)).toDto(Mockito.any(PurchaseRequest.class));
+    }
+
+    @Test
+    void givenValidRequestWhenGetPurchasesThenStatus200OkAndReturnPage() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        PurchaseFilterDto purchaseFilterDto = new PurchaseFilterDto(from, to, "Dollar", "United States");
+
+        PurchasePageDto purchasePageDto = new PurchasePageDto(List.of(), "cursor");
+        PurchasePageResponse purchasePageResponse = new PurchasePageResponse();
+        purchasePageResponse.setPurchases(List.of());
+        purchasePageResponse.setNext("next");
+
+        given(purchaseService.getPurchases(purchaseFilterDto, "cursor", 50)).willReturn(purchasePageDto);
+        given(purchaseMapper.toResponse(purchasePageDto)).willReturn(purchasePageResponse);
+
+        RequestBuilder request = MockMvcRequestBuilders.get(V1_PURCHASES)
+                .param("from", "2023-01-01T00:00:00")
+                .param("to", "2024-01-01T00:00:00")
+                .param("currency", "USD")
+                .param("after", "cursor")
+                .param("size", "50")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value("next"));
+
+        verify(purchaseService, times(1)).getPurchases(purchaseFilterDto, "cursor", 50);
+        verify(purchaseMapper, times(1)).toResponse(purchasePageDto);
+
+        verifyNoMoreInteractions(purchaseService);
+        verifyNoMoreInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenOutOfLimitSizeWhenGetPurchasesThenStatus400BadRequest() throws Exception {
+        RequestBuilder request = MockMvcRequestBuilders.get(V1_PURCHASES)
+                .param("from", "2023-01-01T00:00:00")
+                .param("to", "2024-01-01T00:00:00")
+                .param("size", "1001")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseService);
+        verifyNoInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenValidRequestWhenExportPurchasesThenStatus200OkAndStreamNdjson() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        PurchaseFilterDto purchaseFilterDto = new PurchaseFilterDto(from, to, null, null);
+
+        PurchaseDto firstPurchaseDto = new PurchaseDto();
+        firstPurchaseDto.setId(1L);
+        PurchaseDto secondPurchaseDto = new PurchaseDto();
+        secondPurchaseDto.setId(2L);
+
+        PurchaseResponse firstPurchaseResponse = new PurchaseResponse();
+        firstPurchaseResponse.setId(1L);
+        PurchaseResponse secondPurchaseResponse = new PurchaseResponse();
+        secondPurchaseResponse.setId(2L);
+
+        given(purchaseService.exportPurchases(Mockito.eq(purchaseFilterDto), Mockito.any())).willAnswer(invocation -> {
+            Consumer<PurchaseDto> consumer = invocation.getArgument(1);
+            consumer.accept(firstPurchaseDto);
+            consumer.accept(secondPurchaseDto);
+            return 2L;
+        });
+        given(purchaseMapper.toResponse(firstPurchaseDto)).willReturn(firstPurchaseResponse);
+        given(purchaseMapper.toResponse(secondPurchaseDto)).willReturn(secondPurchaseResponse);
+
+        RequestBuilder request = MockMvcRequestBuilders.get(V1_PURCHASES)
+                .param("from", "2023-01-01T00:00:00")
+                .param("to", "2024-01-01T00:00:00")
+                .accept(MediaType.APPLICATION_NDJSON);
+
+        MvcResult result = mvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}"));
+    }
+
     @Test
     void givenValidRequestWhenGetCurrencyConvertedPurchaseThenStatus200Ok() throws Exception {
         Long id = 1L;
@@ -190,7 +529,7 @@ class PurchaseControllerTest {
         String country = "Brazil";
 
         PurchaseDto purchaseDto = new PurchaseDto();
-        PurchaseResponse purchaseResponse = new PurchaseResponse();
+        PurchaseResponse purchaseResponse = purchaseResponse(id, "11.25", "5.033");
 
         given(purchaseService.getCurrencyConvertedPurchase(id, currency, country)).willReturn(purchaseDto);
         given(purchaseMapper.toResponse(purchaseDto)).willReturn(purchaseResponse);
@@ -201,7 +540,9 @@ class PurchaseControllerTest {
                 .contentType(MediaType.APPLICATION_JSON);
 
         mvc.perform(request)
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, getETag(id, currency, country, "5.033")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
 
         verify(purchaseService, times(1)).getCurrencyConvertedPurchase(id, currency, country);
         verify(purchaseMapper, times(1)).toResponse(purchaseDto);
@@ -210,6 +551,82 @@ class PurchaseControllerTest {
         verifyNoMoreInteractions(purchaseMapper);
     }
 
+    @Test
+    void givenMatchingETagWhenGetCurrencyConvertedPurchaseThenStatus304NotModified() throws Exception {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        PurchaseResponse purchaseResponse = purchaseResponse(id, "11.25", "5.033");
+
+        given(purchaseService.getCurrencyConvertedPurchase(id, currency, country)).willReturn(purchaseDto);
+        given(purchaseMapper.toResponse(purchaseDto)).willReturn(purchaseResponse);
+
+        RequestBuilder request = MockMvcRequestBuilders.get(V1_PURCHASES_ID_EXCHANGERATES_CONVERSION, id)
+                .param("country", country)
+                .param("currency", currency)
+                .header(HttpHeaders.IF_NONE_MATCH, getETag(id, currency, country, "5.033"))
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void givenSameConversionWithDifferentBodyWhenGetCurrencyConvertedPurchaseThenSameETag() throws Exception {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseDto firstPurchaseDto = new PurchaseDto();
+        PurchaseDto secondPurchaseDto = new PurchaseDto();
+
+        given(purchaseService.getCurrencyConvertedPurchase(id, currency, country))
+                .willReturn(firstPurchaseDto, secondPurchaseDto);
+        given(purchaseMapper.toResponse(firstPurchaseDto)).willReturn(purchaseResponse(id, "11.25", "5.033"));
+        given(purchaseMapper.toResponse(secondPurchaseDto)).willReturn(purchaseResponse(id, "11.2500", "5.033"));
+
+        RequestBuilder request = MockMvcRequestBuilders.get(V1_PURCHASES_ID_EXCHANGERATES_CONVERSION, id)
+                .param("country", country)
+                .param("currency", currency)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        String firstETag = mvc.perform(request).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String secondETag = mvc.perform(request).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Assertions.assertEquals(getETag(id, currency, country, "5.033"), firstETag);
+        Assertions.assertEquals(firstETag, secondETag);
+    }
+
+    @Test
+    void givenStaleConversionWhenGetCurrencyConvertedPurchaseThenStatus200OkWithoutETagAndNoCache() throws Exception {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseAmountDto convertedAmountDto = new PurchaseAmountDto();
+        convertedAmountDto.setStale(true);
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        purchaseDto.setConvertedAmount(convertedAmountDto);
+
+        given(purchaseService.getCurrencyConvertedPurchase(id, currency, country)).willReturn(purchaseDto);
+        given(purchaseMapper.toResponse(purchaseDto)).willReturn(purchaseResponse(id, "11.25", "5.033"));
+
+        RequestBuilder request = MockMvcRequestBuilders.get(V1_PURCHASES_ID_EXCHANGERATES_CONVERSION, id)
+                .param("country", country)
+                .param("currency", currency)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.convertedAmount.exchangeRate").value("5.033"));
+    }
+
     @Test
     void givenNoCurrencyWhenGetCurrencyConvertedPurchaseThenStatus400BadRequest() throws Exception {
         Long id = 1L;
@@ -242,4 +659,204 @@ class PurchaseControllerTest {
         verifyNoInteractions(purchaseMapper);
     }
 
+    @Test
+    void givenValidRequestWhenGetCurrencyConvertedPurchasesThenStatus200Ok() throws Exception {
+        ExchangeRateTargetRequest exchangeRateTargetRequest = new ExchangeRateTargetRequest();
+        exchangeRateTargetRequest.setCurrency("Real");
+        exchangeRateTargetRequest.setCountry("Brazil");
+
+        PurchaseConversionRequest purchaseConversionRequest = new PurchaseConversionRequest();
+        purchaseConversionRequest.setPurchaseIds(List.of(1L, 2L));
+        purchaseConversionRequest.setTargets(List.of(exchangeRateTargetRequest));
+
+        List<ExchangeRateTargetDto> targets = List.of(new ExchangeRateTargetDto());
+        List<PurchaseDto> purchaseDtos = List.of(new PurchaseDto(), new PurchaseDto());
+
+        PurchaseResponse firstPurchaseResponse = new PurchaseResponse();
+        firstPurchaseResponse.setId(1L);
+
+        PurchaseResponse secondPurchaseResponse = new PurchaseResponse();
+        secondPurchaseResponse.setId(2L);
+
+        given(purchaseMapper.toDto(List.of(exchangeRateTargetRequest))).willReturn(targets);
+        given(purchaseService.getCurrencyConvertedPurchases(List.of(1L, 2L), targets)).willReturn(purchaseDtos);
+        given(purchaseMapper.toResponse(purchaseDtos)).willReturn(List.of(firstPurchaseResponse, secondPurchaseResponse));
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_EXCHANGERATES_CONVERSIONS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseConversionRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[1].id").value(2L));
+
+        verify(purchaseMapper, times(1)).toDto(List.of(exchangeRateTargetRequest));
+        verify(purchaseService, times(1)).getCurrencyConvertedPurchases(List.of(1L, 2L), targets);
+        verify(purchaseMapper, times(1)).toResponse(purchaseDtos);
+
+        verifyNoMoreInteractions(purchaseService);
+        verifyNoMoreInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenNoPurchaseIdsWhenGetCurrencyConvertedPurchasesThenStatus400BadRequest() throws Exception {
+        ExchangeRateTargetRequest exchangeRateTargetRequest = new ExchangeRateTargetRequest();
+        exchangeRateTargetRequest.setCurrency("Real");
+        exchangeRateTargetRequest.setCountry("Brazil");
+
+        PurchaseConversionRequest purchaseConversionRequest = new PurchaseConversionRequest();
+        purchaseConversionRequest.setPurchaseIds(List.of());
+        purchaseConversionRequest.setTargets(List.of(exchangeRateTargetRequest));
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_EXCHANGERATES_CONVERSIONS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseConversionRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseService);
+        verifyNoInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenTargetWithoutCountryWhenGetCurrencyConvertedPurchasesThenStatus400BadRequest() throws Exception {
+        ExchangeRateTargetRequest exchangeRateTargetRequest = new ExchangeRateTargetRequest();
+        exchangeRateTargetRequest.setCurrency("Real");
+
+        PurchaseConversionRequest purchaseConversionRequest = new PurchaseConversionRequest();
+        purchaseConversionRequest.setPurchaseIds(List.of(1L));
+        purchaseConversionRequest.setTargets(List.of(exchangeRateTargetRequest));
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_EXCHANGERATES_CONVERSIONS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseConversionRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseService);
+        verifyNoInteractions(purchaseMapper);
+    }
+
+    @Test
+    void givenValidTargetsWhenGetCurrencyConvertedPurchaseThenStatus200Ok() throws Exception {
+        ExchangeRateTargetRequest exchangeRateTargetRequest = new ExchangeRateTargetRequest();
+        exchangeRateTargetRequest.setCurrency("Real");
+        exchangeRateTargetRequest.setCountry("Brazil");
+
+        ExchangeRateTargetsRequest exchangeRateTargetsRequest = new ExchangeRateTargetsRequest();
+        exchangeRateTargetsRequest.setTargets(List.of(exchangeRateTargetRequest));
+
+        List<ExchangeRateTargetDto> targets = List.of(new ExchangeRateTargetDto());
+        List<PurchaseDto> purchaseDtos = List.of(new PurchaseDto());
+
+        PurchaseResponse purchaseResponse = new PurchaseResponse();
+        purchaseResponse.setId(1L);
+
+        given(purchaseMapper.toDto(List.of(exchangeRateTargetRequest))).willReturn(targets);
+        given(purchaseService.getCurrencyConvertedPurchase(1L, targets)).willReturn(purchaseDtos);
+        given(purchaseMapper.toResponse(purchaseDtos)).willReturn(List.of(purchaseResponse));
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_ID_EXCHANGERATES_CONVERSIONS, 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(exchangeRateTargetsRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L));
+
+        verify(purchaseService, times(1)).getCurrencyConvertedPurchase(1L, targets);
+
+        verifyNoMoreInteractions(purchaseService);
+    }
+
+    @Test
+    void givenNoTargetsWhenGetCurrencyConvertedPurchaseThenStatus400BadRequest() throws Exception {
+        ExchangeRateTargetsRequest exchangeRateTargetsRequest = new ExchangeRateTargetsRequest();
+        exchangeRateTargetsRequest.setTargets(List.of());
+
+        RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES_ID_EXCHANGERATES_CONVERSIONS, 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(exchangeRateTargetsRequest));
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(purchaseService);
+        verifyNoInteractions(purchaseMapper);
+    }
+
+    @Nested
+    class AsynchronousIngestion {
+
+        @Autowired
+        private MockMvc mvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private PurchaseMapper purchaseMapper;
+
+        @Autowired
+        private PurchaseService purchaseService;
+
+        @MockBean
+        private PurchaseIngestionService purchaseIngestionService;
+
+        @Test
+        void givenAsynchronousIngestionWhenAddPurchaseThenStatus202AcceptedAndReturnAllocatedId() throws Exception {
+            PurchaseRequest purchaseRequest = new PurchaseRequest();
+            purchaseRequest.setAmount(new BigDecimal("11.25"));
+            purchaseRequest.setDescription("Test");
+            purchaseRequest.setTransactionDate(LocalDateTime.now());
+            purchaseRequest.setCurrency(Currency.USD);
+
+            PurchaseDto purchaseDto = new PurchaseDto();
+
+            PurchaseResponse purchaseResponse = new PurchaseResponse();
+            purchaseResponse.setId(51L);
+
+            given(purchaseMapper.toDto(Mockito.any(PurchaseRequest.class))).willReturn(purchaseDto);
+            given(purchaseIngestionService.acceptPurchase(purchaseDto)).willReturn(purchaseDto);
+            given(purchaseMapper.toResponse(purchaseDto)).willReturn(purchaseResponse);
+
+            RequestBuilder request = MockMvcRequestBuilders.post(V1_PURCHASES)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(purchaseRequest));
+
+            mvc.perform(request)
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.id").value(51L));
+
+            verify(purchaseIngestionService, times(1)).acceptPurchase(purchaseDto);
+            verifyNoInteractions(purchaseService);
+        }
+
+    }
+
+    private static String getETag(Long id, String currency, String country, String exchangeRate) {
+        String conversion = id + "\0" + currency + "\0" + country + "\0" + exchangeRate;
+        return "\"" + DigestUtils.md5DigestAsHex(conversion.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static PurchaseResponse purchaseResponse(Long id, String originalAmount, String exchangeRate) {
+        PurchaseAmountResponse originalAmountResponse = new PurchaseAmountResponse();
+        originalAmountResponse.setValue(originalAmount);
+
+        PurchaseAmountResponse convertedAmountResponse = new PurchaseAmountResponse();
+        convertedAmountResponse.setValue("56.62");
+        convertedAmountResponse.setCurrency("Real");
+        convertedAmountResponse.setCountry("Brazil");
+        convertedAmountResponse.setExchangeRate(exchangeRate);
+
+        PurchaseResponse purchaseResponse = new PurchaseResponse();
+        purchaseResponse.setId(id);
+        purchaseResponse.setOriginalAmount(originalAmountResponse);
+        purchaseResponse.setConvertedAmount(convertedAmountResponse);
+        return purchaseResponse;
+    }
+
 }
@@ -0,0 +1,128 @@
+package com.pablomatheus.purchase.controller;
+
+import com.pablomatheus.purchase.dto.IdempotentPurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseAmountDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.request.PurchaseRequest;
+import com.pablomatheus.purchase.service.PurchaseIdempotencyService;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
+import com.pablomatheus.purchase.service.ReactivePurchaseService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePurchaseControllerTest {
+
+    private static final Long ID = 1L;
+    private static final String CURRENCY = "Real";
+    private static final String COUNTRY = "Brazil";
+
+    @Mock
+    private ReactivePurchaseService reactivePurchaseService;
+
+    @Mock
+    private ObjectProvider<PurchaseIngestionService> purchaseIngestionService;
+
+    @Mock
+    private PurchaseIdempotencyService purchaseIdempotencyService;
+
+    @Spy
+    private PurchaseMapper purchaseMapper = Mappers.getMapper(PurchaseMapper.class);
+
+    @InjectMocks
+    private ReactivePurchaseController reactivePurchaseController;
+
+    @Test
+    void givenIdempotencyKeyWhenAddPurchaseThenAnswerWithPurchaseOfIdempotencyService() {
+        PurchaseDto purchaseDto = purchaseDto(false);
+        purchaseDto.setConvertedAmount(null);
+
+        given(purchaseIdempotencyService.addPurchase(Mockito.eq("key"), Mockito.any(PurchaseDto.class)))
+                .willReturn(new IdempotentPurchaseDto(purchaseDto, true));
+
+        StepVerifier.create(reactivePurchaseController.addPurchase("key", purchaseRequest()))
+                .assertNext(response -> {
+                    Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+                    Assertions.assertEquals("true", response.getHeaders().getFirst("Idempotent-Replayed"));
+                    Assertions.assertEquals(ID, response.getBody().getId());
+                })
+                .verifyComplete();
+
+        verify(reactivePurchaseService, never()).addPurchase(Mockito.any());
+    }
+
+    @Test
+    void givenKeptConversionWhenGetCurrencyConvertedPurchaseThenAnswerWithETagAndImmutableCacheControl() {
+        given(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .willReturn(Mono.just(purchaseDto(false)));
+
+        StepVerifier.create(reactivePurchaseController.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .assertNext(response -> {
+                    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+                    Assertions.assertNotNull(response.getHeaders().getETag());
+                    Assertions.assertEquals("max-age=31536000, public, immutable",
+                            response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void givenStaleConversionWhenGetCurrencyConvertedPurchaseThenAnswerWithoutETagAndNoCache() {
+        given(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .willReturn(Mono.just(purchaseDto(true)));
+
+        StepVerifier.create(reactivePurchaseController.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .assertNext(response -> {
+                    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+                    Assertions.assertNull(response.getHeaders().getETag());
+                    Assertions.assertEquals("no-cache", response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+                    Assertions.assertEquals("5.033", response.getBody().getConvertedAmount().getExchangeRate());
+                })
+                .verifyComplete();
+    }
+
+    private static PurchaseRequest purchaseRequest() {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setDescription("Test");
+        purchaseRequest.setTransactionDate(LocalDateTime.of(2023, 10, 21, 13, 0));
+        purchaseRequest.setAmount(new BigDecimal("11.25"));
+        purchaseRequest.setCurrency(Currency.USD);
+        return purchaseRequest;
+    }
+
+    private static PurchaseDto purchaseDto(boolean stale) {
+        PurchaseAmountDto convertedAmountDto = new PurchaseAmountDto();
+        convertedAmountDto.setValue("56.62");
+        convertedAmountDto.setCurrency(CURRENCY);
+        convertedAmountDto.setCountry(COUNTRY);
+        convertedAmountDto.setExchangeRate("5.033");
+        convertedAmountDto.setStale(stale);
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        purchaseDto.setId(ID);
+        purchaseDto.setConvertedAmount(convertedAmountDto);
+        return purchaseDto;
+    }
+
+}
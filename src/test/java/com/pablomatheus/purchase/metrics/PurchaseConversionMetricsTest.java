@@ -0,0 +1,108 @@
+package com.pablomatheus.purchase.metrics;
+
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics.Outcome;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics.Stage;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+class PurchaseConversionMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PurchaseConversionMetrics purchaseConversionMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+
+        purchaseConversionMetrics = new PurchaseConversionMetrics(meterRegistry, observationRegistry);
+    }
+
+    @Test
+    void givenStageWhenObserveStageThenRecordTimerTaggedByStage() {
+        String result = purchaseConversionMetrics.observeStage(Stage.EXCHANGE_RATE, () -> "4.858");
+
+        Assertions.assertEquals("4.858", result);
+        Assertions.assertEquals(1, meterRegistry.get(PurchaseConversionMetrics.STAGE_OBSERVATION)
+                .tag("stage", "exchange_rate")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void givenSuccessfulCallWhenObserveTreasuryCallThenRecordTimerTaggedByCurrencyAndStatus() {
+        purchaseConversionMetrics.observeTreasuryCall("Real", () -> "4.858");
+
+        Assertions.assertEquals(1, meterRegistry.get(PurchaseConversionMetrics.TREASURY_OBSERVATION)
+                .tag("currency", "Real")
+                .tag("status", "200")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void givenUnavailableApiWhenObserveTreasuryCallThenRecordResponseStatus() {
+        Request request = Request.create(Request.HttpMethod.GET, "/v1/accounting/od/rates_of_exchange",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        FeignException cause = new FeignException.ServiceUnavailable("Service Unavailable", request, null, Map.of());
+
+        Assertions.assertThrows(ResponseStatusException.class, () -> purchaseConversionMetrics.observeTreasuryCall("Real",
+                () -> {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", cause);
+                }));
+
+        Assertions.assertEquals(1, meterRegistry.get(PurchaseConversionMetrics.TREASURY_OBSERVATION)
+                .tag("currency", "Real")
+                .tag("status", "503")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void givenRejectedCallWhenObserveTreasuryCallThenRecordRejectedStatus() {
+        BulkheadFullException cause = BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("test"));
+
+        Assertions.assertThrows(ResponseStatusException.class, () -> purchaseConversionMetrics.observeTreasuryCall("Euro",
+                () -> {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", cause);
+                }));
+
+        Assertions.assertEquals(1, meterRegistry.get(PurchaseConversionMetrics.TREASURY_OBSERVATION)
+                .tag("currency", "Euro")
+                .tag("status", "REJECTED")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void givenOutcomeWhenIncrementOutcomeThenIncrementOutcomeCounter() {
+        purchaseConversionMetrics.incrementOutcome(Outcome.NOT_FOUND);
+        purchaseConversionMetrics.incrementOutcome(Outcome.NOT_FOUND);
+
+        Assertions.assertEquals(2, meterRegistry.get(PurchaseConversionMetrics.OUTCOME_COUNTER)
+                .tag("outcome", "not_found")
+                .counter()
+                .count());
+        Assertions.assertEquals(0, meterRegistry.get(PurchaseConversionMetrics.OUTCOME_COUNTER)
+                .tag("outcome", "success")
+                .counter()
+                .count());
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.pablomatheus.purchase.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+
+class PurchasePrecisionContractMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:purchase-contract;DB_CLOSE_DELAY=-1;MODE=MYSQL";
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void givenRowsNotBackfilledWhenApplyContractMigrationThenKeepThemOnNewColumns() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO purchases (id, amount, currency, currency_country, description, transaction_date, creation_date)
+                VALUES (1, 11.25, 'Dollar', 'United States', 'Test', '2023-11-22 10:30:00', '2023-11-22 10:30:00')
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO purchase_conversions
+                    (id, purchase_id, currency, country, exchange_rate, effective_date, converted_amount, creation_date)
+                VALUES (1, 1, 'Real', 'Brazil', 5.033, '2023-09-30', 56.62, '2023-11-22 10:30:00')
+                """);
+
+        applyContractMigration();
+
+        Assertions.assertEquals(new BigDecimal("11.2500"),
+                jdbcTemplate.queryForObject("SELECT amount FROM purchases WHERE id = 1", BigDecimal.class));
+        Assertions.assertEquals(1L,
+                jdbcTemplate.queryForObject("SELECT purchase_id FROM purchase_conversions WHERE id = 1", Long.class));
+        Assertions.assertEquals("BIGINT", getDataType("PURCHASES", "ID"));
+        Assertions.assertEquals("BIGINT", getDataType("PURCHASE_CONVERSIONS", "PURCHASE_ID"));
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE COLUMN_NAME IN ('ID_BIGINT', 'AMOUNT_DECIMAL', 'PURCHASE_ID_BIGINT')
+                """, Integer.class));
+
+        // Identifiers past the previous upper bound of the sequence and the integer column are accepted
+        jdbcTemplate.update("""
+                INSERT INTO purchases (id, amount, currency, currency_country, description, transaction_date, creation_date)
+                VALUES (3000000000, 11.25, 'Dollar', 'United States', 'Test', '2023-11-22 10:30:00', '2023-11-22 10:30:00')
+                """);
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("""
+                INSERT INTO purchase_conversions
+                    (id, purchase_id, currency, country, exchange_rate, effective_date, converted_amount, creation_date)
+                VALUES (2, 2, 'Real', 'Brazil', 5.033, '2023-09-30', 56.62, '2023-11-22 10:30:00')
+                """));
+    }
+
+    /**
+     * Runs the contract script, which is kept out of the Flyway locations. H2 only accepts a single alteration per ALTER
+     * TABLE, so the swap of the primary key is run as two statements.
+     */
+    private void applyContractMigration() throws Exception {
+        String script = new ClassPathResource("db/contract/V7__CONTRACT_TABLE_PURCHASES_PRECISION.sql")
+                .getContentAsString(StandardCharsets.UTF_8)
+                .replace("DROP PRIMARY KEY,", "DROP PRIMARY KEY;\nALTER TABLE purchases");
+
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private String getDataType(String table, String column) {
+        return jdbcTemplate.queryForObject(
+                "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column);
+    }
+
+}
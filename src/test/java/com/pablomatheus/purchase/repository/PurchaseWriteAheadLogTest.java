@@ -0,0 +1,166 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.repository.PurchaseWriteAheadLog.Entry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+class PurchaseWriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 200;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenAppendedPurchasesWhenReopenThenRecoverPurchasesInOrder() {
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            writeAheadLog.append(purchaseEntity(1L));
+            writeAheadLog.append(purchaseEntity(2L));
+            Entry entry = writeAheadLog.append(purchaseEntity(3L));
+            writeAheadLog.sync(entry.position());
+        }
+
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            List<Entry> entries = writeAheadLog.getRecoveredEntries();
+
+            Assertions.assertEquals(List.of(1L, 2L, 3L), entries.stream().map(entry -> entry.purchase().getId()).toList());
+            Assertions.assertEquals(purchaseEntity(3L), entries.get(2).purchase());
+        }
+    }
+
+    @Test
+    void givenPurchaseAppendedWithIdempotencyKeyWhenReopenThenRecoverKeyWithPurchase() {
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            writeAheadLog.append(purchaseEntity(1L), "key");
+            Entry entry = writeAheadLog.append(purchaseEntity(2L));
+            writeAheadLog.sync(entry.position());
+        }
+
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            List<Entry> entries = writeAheadLog.getRecoveredEntries();
+
+            Assertions.assertEquals("key", entries.get(0).idempotencyKey());
+            Assertions.assertEquals(purchaseEntity(1L), entries.get(0).purchase());
+            Assertions.assertNull(entries.get(1).idempotencyKey());
+        }
+    }
+
+    @Test
+    void givenReleasedSegmentsWhenReopenThenRecoverOnlyPurchasesOfRemainingSegments() throws IOException {
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, SEGMENT_SIZE)) {
+            Entry first = writeAheadLog.append(purchaseEntity(1L));
+            writeAheadLog.append(purchaseEntity(2L));
+            Entry third = writeAheadLog.append(purchaseEntity(3L));
+
+            Assertions.assertEquals(first.segment() + 1, third.segment());
+
+            writeAheadLog.release(third.segment());
+        }
+
+        Assertions.assertEquals(1, countSegments());
+
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, SEGMENT_SIZE)) {
+            List<Entry> entries = writeAheadLog.getRecoveredEntries();
+
+            Assertions.assertEquals(List.of(3L), entries.stream().map(entry -> entry.purchase().getId()).toList());
+        }
+    }
+
+    @Test
+    void givenCurrentSegmentWhenReleaseThenKeepSegment() throws IOException {
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, SEGMENT_SIZE)) {
+            Entry entry = writeAheadLog.append(purchaseEntity(1L));
+
+            writeAheadLog.release(entry.segment() + 1);
+        }
+
+        Assertions.assertEquals(1, countSegments());
+    }
+
+    @Test
+    void givenCorruptedRecordWhenReopenThenRecoverPurchasesBeforeIt() throws IOException {
+        Path segment;
+
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            Entry first = writeAheadLog.append(purchaseEntity(1L));
+            Entry second = writeAheadLog.append(purchaseEntity(2L));
+
+            try (Stream<Path> files = Files.list(directory)) {
+                segment = files.findFirst().orElseThrow();
+            }
+
+            writeAheadLog.close();
+
+            try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+                file.seek(second.position() - 1);
+                int lastByte = file.read();
+                file.seek(second.position() - 1);
+                file.write(lastByte + 1);
+            }
+
+            Assertions.assertTrue(first.position() < second.position());
+        }
+
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            List<Entry> entries = writeAheadLog.getRecoveredEntries();
+
+            Assertions.assertEquals(List.of(1L), entries.stream().map(entry -> entry.purchase().getId()).toList());
+        }
+    }
+
+    @Test
+    void givenRecordOfAnotherVersionWhenReopenThenIgnoreIt() throws IOException {
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            Entry entry = writeAheadLog.append(purchaseEntity(1L));
+            writeAheadLog.sync(entry.position());
+        }
+
+        byte[] content = {2, 0, 0, 0, 0, 0, 0, 0, 2};
+        CRC32C checksum = new CRC32C();
+        checksum.update(content);
+
+        Files.write(directory.resolve(String.format("%020d.wal", 3)), ByteBuffer.allocate(Integer.BYTES * 2 + content.length)
+                .putInt(content.length)
+                .putInt((int) checksum.getValue())
+                .put(content)
+                .array());
+
+        try (PurchaseWriteAheadLog writeAheadLog = new PurchaseWriteAheadLog(directory, 4096)) {
+            List<Entry> entries = writeAheadLog.getRecoveredEntries();
+
+            Assertions.assertEquals(List.of(1L), entries.stream().map(entry -> entry.purchase().getId()).toList());
+        }
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static PurchaseEntity purchaseEntity(Long id) {
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(id);
+        purchaseEntity.setDescription("Test");
+        purchaseEntity.setAmount(new BigDecimal("11.25"));
+        purchaseEntity.setCurrency("Dollar");
+        purchaseEntity.setCurrencyCountry("United States");
+        purchaseEntity.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        purchaseEntity.setCreationDate(LocalDateTime.of(2023, 11, 22, 10, 31, 0, 500));
+        return purchaseEntity;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.pablomatheus.purchase.repository;
+
+import com.pablomatheus.purchase.config.PurchaseDataSourceProperties;
+import com.pablomatheus.purchase.config.ReactivePurchaseProperties;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ReactivePurchaseRepositoryTest {
+
+    private static final String OPTIONS = "DB_CLOSE_DELAY=-1;MODE=MYSQL";
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:reactive-purchases;" + OPTIONS, "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private ReactivePurchaseRepository reactivePurchaseRepository;
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .load()
+                .migrate();
+
+        ReactivePurchaseProperties properties = new ReactivePurchaseProperties();
+        properties.setR2dbcUrl("r2dbc:h2:mem:///reactive-purchases?options=" + OPTIONS);
+        properties.setUsername("sa");
+        properties.setPassword("");
+        properties.setMaximumPoolSize(2);
+
+        reactivePurchaseRepository = new ReactivePurchaseRepository(properties, new PurchaseDataSourceProperties(),
+                new HikariDataSource());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactivePurchaseRepository.destroy();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void givenPurchasesWhenSaveThenHandOutIdsOfTheWholeSequenceBlock() {
+        List<Long> ids = Flux.range(0, 3)
+                .concatMap(index -> reactivePurchaseRepository.save(purchaseEntity()))
+                .map(PurchaseEntity::getId)
+                .collectList()
+                .block();
+
+        // The first value of the sequence is a block of a single identifier, the second one covers the following ones
+        Assertions.assertEquals(List.of(1L, 2L, 3L), ids);
+        Assertions.assertEquals(101L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR \"PURCHASES_SEQ\"", Long.class));
+        Assertions.assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM purchases", Integer.class));
+    }
+
+    private static PurchaseEntity purchaseEntity() {
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setDescription("Test");
+        purchaseEntity.setAmount(new BigDecimal("11.25"));
+        purchaseEntity.setCurrency("Dollar");
+        purchaseEntity.setCurrencyCountry("United States");
+        purchaseEntity.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        return purchaseEntity;
+    }
+
+}
@@ -0,0 +1,333 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.cache.CrossRateMatrix;
+import com.pablomatheus.purchase.cache.ExchangeRateCache;
+import com.pablomatheus.purchase.cache.ExchangeRateIndex;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryRequestCoalescer;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics;
+import com.pablomatheus.purchase.service.ExchangeRateSyncService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateServiceImplTest {
+
+    @Mock
+    private UnitedStatesTreasuryRequestCoalescer unitedStatesTreasuryRequestCoalescer;
+
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private ExchangeRateIndex exchangeRateIndex;
+
+    @Mock
+    private ExchangeRateSyncService exchangeRateSyncService;
+
+    @Spy
+    private CrossRateMatrix crossRateMatrix = new CrossRateMatrix();
+
+    @Spy
+    private PurchaseConversionMetrics purchaseConversionMetrics =
+            new PurchaseConversionMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+    @InjectMocks
+    private ExchangeRateServiceImpl exchangeRateService;
+
+    @Test
+    void givenLoadedIndexWhenGetExchangeRateThenReturnIndexedExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+
+        given(exchangeRateIndex.isLoaded()).willReturn(true);
+        given(exchangeRateIndex.get(currency, country, date)).willReturn(Optional.of(exchangeRateDataResponse));
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertEquals(Optional.of(exchangeRateDataResponse), result);
+
+        verify(exchangeRateIndex, times(1)).isLoaded();
+        verify(exchangeRateIndex, times(1)).get(currency, country, date);
+
+        verifyNoMoreInteractions(exchangeRateIndex);
+        verifyNoInteractions(exchangeRateCache);
+        verifyNoInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenCachedExchangeRateWhenGetExchangeRateThenReturnCachedExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.of(exchangeRateDataResponse));
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertEquals(Optional.of(exchangeRateDataResponse), result);
+
+        verify(exchangeRateCache, times(1)).get(currency, country, date);
+
+        verifyNoMoreInteractions(exchangeRateCache);
+        verifyNoInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenSynchronizedDateWhenGetExchangeRateThenReturnAndCacheStoredExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(exchangeRateSyncService.isSynchronized(date)).willReturn(true);
+        given(exchangeRateSyncService.getExchangeRate(currency, country, date)).willReturn(Optional.of(exchangeRateDataResponse));
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertEquals(Optional.of(exchangeRateDataResponse), result);
+
+        verify(exchangeRateSyncService, times(1)).isSynchronized(date);
+        verify(exchangeRateSyncService, times(1)).getExchangeRate(currency, country, date);
+        verify(exchangeRateCache, times(1)).put(currency, country, date, exchangeRateDataResponse);
+
+        verifyNoMoreInteractions(exchangeRateSyncService);
+        verifyNoInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenNotCachedExchangeRateWhenGetExchangeRateThenFetchAndCacheExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+
+        ExchangeRateResponse exchangeRateResponse = new ExchangeRateResponse();
+        exchangeRateResponse.setData(List.of(exchangeRateDataResponse));
+
+        String filter = "effective_date:gte:2023-05-15,effective_date:lte:2023-11-15,currency:eq:Real,country:eq:Brazil";
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(unitedStatesTreasuryRequestCoalescer.getExchangeRate(filter, "-effective_date")).willReturn(exchangeRateResponse);
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertEquals(Optional.of(exchangeRateDataResponse), result);
+
+        verify(exchangeRateCache, times(1)).get(currency, country, date);
+        verify(unitedStatesTreasuryRequestCoalescer, times(1)).getExchangeRate(filter, "-effective_date");
+        verify(exchangeRateCache, times(1)).put(currency, country, date, exchangeRateDataResponse);
+
+        verifyNoMoreInteractions(exchangeRateCache);
+        verifyNoMoreInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenNoExchangeRateFoundWhenGetExchangeRateThenReturnEmpty() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(unitedStatesTreasuryRequestCoalescer.getExchangeRate(anyString(), eq("-effective_date"))).willReturn(new ExchangeRateResponse());
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertTrue(result.isEmpty());
+
+        verify(exchangeRateCache, times(1)).get(currency, country, date);
+        verify(unitedStatesTreasuryRequestCoalescer, times(1)).getExchangeRate(anyString(), eq("-effective_date"));
+
+        verifyNoMoreInteractions(exchangeRateCache);
+        verifyNoMoreInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenUnavailableApiAndLastKnownExchangeRateWhenGetExchangeRateThenReturnStaleLastKnownExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = exchangeRate(currency, country, "2023-09-30", "5.033");
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(unitedStatesTreasuryRequestCoalescer.getExchangeRate(anyString(), eq("-effective_date")))
+                .willThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+        given(exchangeRateCache.getStale(currency, country, date)).willReturn(Optional.of(exchangeRateDataResponse));
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertEquals(new BigDecimal("5.033"), result.map(ExchangeRateDataResponse::getExchangeRate).orElseThrow());
+        Assertions.assertEquals("2023-09-30", result.get().getEffectiveDate());
+        Assertions.assertTrue(result.get().isStale());
+        // The cached exchange rate is left untouched
+        Assertions.assertFalse(exchangeRateDataResponse.isStale());
+
+        verify(exchangeRateCache, times(1)).get(currency, country, date);
+        verify(exchangeRateCache, times(1)).getStale(currency, country, date);
+
+        verifyNoMoreInteractions(exchangeRateCache);
+    }
+
+    @Test
+    void givenUnavailableApiAndStoredExchangeRateWhenGetExchangeRateThenReturnStaleStoredExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = exchangeRate(currency, country, "2023-09-30", "5.033");
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(exchangeRateSyncService.isSynchronized(date)).willReturn(false);
+        given(unitedStatesTreasuryRequestCoalescer.getExchangeRate(anyString(), eq("-effective_date")))
+                .willThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+        given(exchangeRateCache.getStale(currency, country, date)).willReturn(Optional.empty());
+        given(exchangeRateSyncService.getExchangeRate(currency, country, date)).willReturn(Optional.of(exchangeRateDataResponse));
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getExchangeRate(currency, country, date);
+
+        Assertions.assertEquals(new BigDecimal("5.033"), result.map(ExchangeRateDataResponse::getExchangeRate).orElseThrow());
+        Assertions.assertTrue(result.get().isStale());
+
+        verify(exchangeRateSyncService, times(1)).getExchangeRate(currency, country, date);
+    }
+
+    @Test
+    void givenUnavailableApiAndNoLastKnownExchangeRateWhenGetExchangeRateThenThrowException() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(unitedStatesTreasuryRequestCoalescer.getExchangeRate(anyString(), eq("-effective_date")))
+                .willThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+        given(exchangeRateCache.getStale(currency, country, date)).willReturn(Optional.empty());
+
+        ResponseStatusException exception = Assertions.assertThrows(
+                ResponseStatusException.class,
+                () -> exchangeRateService.getExchangeRate(currency, country, date));
+
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+    }
+
+    @Test
+    void givenRefusedRequestWhenGetExchangeRateThenThrowExceptionWithoutLastKnownExchangeRate() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        given(exchangeRateCache.get(currency, country, date)).willReturn(Optional.empty());
+        given(unitedStatesTreasuryRequestCoalescer.getExchangeRate(anyString(), eq("-effective_date")))
+                .willThrow(new ResponseStatusException(HttpStatus.BAD_GATEWAY));
+
+        ResponseStatusException exception = Assertions.assertThrows(
+                ResponseStatusException.class,
+                () -> exchangeRateService.getExchangeRate(currency, country, date));
+
+        Assertions.assertEquals(HttpStatus.BAD_GATEWAY, exception.getStatusCode());
+
+        verify(exchangeRateCache, never()).getStale(currency, country, date);
+        verify(exchangeRateSyncService, never()).getExchangeRate(currency, country, date);
+    }
+
+    @Test
+    void givenLoadedCrossRateMatrixWhenGetCrossExchangeRateThenReturnPrecomputedCrossRate() {
+        CrossRateMatrix.Builder builder = CrossRateMatrix.builder();
+        builder.add(exchangeRate("Euro", "Euro Zone", "2023-09-30", "0.92"));
+        builder.add(exchangeRate("Real", "Brazil", "2023-09-30", "4.9"));
+        crossRateMatrix.update(builder);
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getCrossExchangeRate(
+                Currency.EUR, "Real", "Brazil", LocalDate.of(2023, 11, 15));
+
+        Assertions.assertEquals(new BigDecimal("5.326087"), result.map(ExchangeRateDataResponse::getExchangeRate).orElseThrow());
+        Assertions.assertEquals("2023-09-30", result.get().getEffectiveDate());
+
+        verifyNoInteractions(exchangeRateIndex);
+        verifyNoInteractions(exchangeRateCache);
+        verifyNoInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenCurrencyMissingInCrossRateMatrixWhenGetCrossExchangeRateThenTriangulateExchangeRates() {
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        given(exchangeRateIndex.isLoaded()).willReturn(true);
+        given(exchangeRateIndex.get("Euro", "Euro Zone", date))
+                .willReturn(Optional.of(exchangeRate("Euro", "Euro Zone", "2023-06-30", "0.92")));
+        given(exchangeRateIndex.get("Yen", "Japan", date))
+                .willReturn(Optional.of(exchangeRate("Yen", "Japan", "2023-09-30", "149.19")));
+
+        Optional<ExchangeRateDataResponse> result = exchangeRateService.getCrossExchangeRate(Currency.EUR, "Yen", "Japan", date);
+        Optional<ExchangeRateDataResponse> dollarResult = exchangeRateService.getCrossExchangeRate(
+                Currency.EUR, "Dollar", "United States", date);
+
+        Assertions.assertEquals(new BigDecimal("162.163043"), result.map(ExchangeRateDataResponse::getExchangeRate).orElseThrow());
+        Assertions.assertEquals("Yen", result.get().getCurrency());
+        Assertions.assertEquals("2023-09-30", result.get().getEffectiveDate());
+
+        Assertions.assertEquals(new BigDecimal("1.086957"), dollarResult.map(ExchangeRateDataResponse::getExchangeRate).orElseThrow());
+        Assertions.assertEquals("2023-06-30", dollarResult.get().getEffectiveDate());
+
+        verifyNoInteractions(unitedStatesTreasuryRequestCoalescer);
+    }
+
+    @Test
+    void givenStaleExchangeRateWhenTriangulateThenReturnStaleCrossRate() {
+        ExchangeRateDataResponse sourceExchangeRate = exchangeRate("Euro", "Euro Zone", "2023-06-30", "0.92");
+        ExchangeRateDataResponse targetExchangeRate = ExchangeRateServiceImpl.stale(
+                exchangeRate("Yen", "Japan", "2023-09-30", "149.19"));
+
+        ExchangeRateDataResponse result = ExchangeRateServiceImpl.triangulate("Yen", "Japan", sourceExchangeRate,
+                targetExchangeRate);
+
+        Assertions.assertEquals(new BigDecimal("162.163043"), result.getExchangeRate());
+        Assertions.assertTrue(result.isStale());
+    }
+
+    private static ExchangeRateDataResponse exchangeRate(String currency, String country, String effectiveDate,
+                                                         String exchangeRate) {
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(currency);
+        exchangeRateDataResponse.setCountry(country);
+        exchangeRateDataResponse.setEffectiveDate(effectiveDate);
+        exchangeRateDataResponse.setRecordDate(effectiveDate);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal(exchangeRate));
+        return exchangeRateDataResponse;
+    }
+
+}
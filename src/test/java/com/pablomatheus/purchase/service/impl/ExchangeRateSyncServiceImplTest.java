@@ -0,0 +1,196 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pablomatheus.purchase.cache.CrossRateMatrix;
+import com.pablomatheus.purchase.cache.ExchangeRateIndexLoader;
+import com.pablomatheus.purchase.client.ExchangeRateResponseReader;
+import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.config.ExchangeRateSyncProperties;
+import com.pablomatheus.purchase.entity.ExchangeRateEntity;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
+import com.pablomatheus.purchase.repository.ExchangeRateRepository;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateSyncServiceImplTest {
+
+    private static final String FIELDS = UnitedStatesTreasuryClient.EXCHANGE_RATE_FIELDS;
+
+    private static final String PAGE = """
+            {"data":[
+            {"record_date":"2023-09-30","country":"Brazil","currency":"Real","exchange_rate":"5.031","effective_date":"2023-09-30"},
+            {"record_date":"2023-09-30","country":"Canada","currency":"Dollar","exchange_rate":"1.355","effective_date":"2023-09-30"},
+            {"record_date":"2023-09-30","country":"Euro Zone","currency":"Euro","exchange_rate":null,"effective_date":"2023-09-30"},
+            {"record_date":"2023-09-30","country":"Japan","currency":"Yen","exchange_rate":"149.19","effective_date":"2023-09-30"}],
+            "meta":{"count":4,"total-count":4,"total-pages":1}}
+            """;
+
+    @Mock
+    private UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ExchangeRateIndexLoader exchangeRateIndexLoader;
+
+    private ExchangeRateSyncProperties exchangeRateSyncProperties;
+
+    private final CrossRateMatrix crossRateMatrix = new CrossRateMatrix();
+
+    private ExchangeRateSyncServiceImpl exchangeRateSyncService;
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<ExchangeRateIndexLoader> exchangeRateIndexLoaderProvider = Mockito.mock(ObjectProvider.class);
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateSyncProperties = new ExchangeRateSyncProperties();
+        exchangeRateSyncProperties.setEnabled(true);
+        exchangeRateSyncProperties.setPageSize(100);
+        exchangeRateSyncProperties.setChunkSize(2);
+
+        exchangeRateSyncService = new ExchangeRateSyncServiceImpl(unitedStatesTreasuryClient,
+                new ExchangeRateResponseReader(new ObjectMapper()), exchangeRateRepository,
+                Mappers.getMapper(ExchangeRateMapper.class), exchangeRateSyncProperties, crossRateMatrix,
+                exchangeRateIndexLoaderProvider);
+    }
+
+    @Test
+    void givenEmptyTableWhenSynchronizeThenStoreAllExchangeRatesInChunks() {
+        given(exchangeRateIndexLoaderProvider.getIfAvailable()).willReturn(exchangeRateIndexLoader);
+        given(exchangeRateRepository.findLastRecordDate()).willReturn(Optional.empty());
+        given(unitedStatesTreasuryClient.getExchangeRates(FIELDS, null, "record_date", 1, 100)).willReturn(response(200, PAGE));
+        given(exchangeRateRepository.upsertAll(anyList())).willAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        exchangeRateSyncService.synchronize();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExchangeRateEntity>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository, times(2)).upsertAll(chunks.capture());
+
+        Assertions.assertEquals(2, chunks.getAllValues().get(0).size());
+        Assertions.assertEquals(1, chunks.getAllValues().get(1).size());
+
+        ExchangeRateEntity exchangeRateEntity = chunks.getAllValues().get(0).get(0);
+        Assertions.assertEquals("Real", exchangeRateEntity.getCurrency());
+        Assertions.assertEquals("Brazil", exchangeRateEntity.getCountry());
+        Assertions.assertEquals(new BigDecimal("5.031"), exchangeRateEntity.getExchangeRate());
+        Assertions.assertEquals(LocalDate.of(2023, 9, 30), exchangeRateEntity.getEffectiveDate());
+        Assertions.assertEquals(LocalDate.of(2023, 9, 30), exchangeRateEntity.getRecordDate());
+
+        Assertions.assertTrue(exchangeRateSyncService.isSynchronized(LocalDate.now()));
+        Assertions.assertFalse(exchangeRateSyncService.isSynchronized(LocalDate.now().plusDays(1)));
+        Assertions.assertEquals(1, crossRateMatrix.getSize());
+
+        // The index is loaded from the synchronized table instead of downloading the dataset again
+        verify(exchangeRateIndexLoader, times(1)).loadStored();
+    }
+
+    @Test
+    void givenStoredExchangeRatesWhenSynchronizeThenRequestFromLastRecordDate() {
+        ExchangeRateEntity storedExchangeRate = new ExchangeRateEntity();
+        storedExchangeRate.setCurrency("Real");
+        storedExchangeRate.setCountry("Brazil");
+        storedExchangeRate.setExchangeRate(new BigDecimal("4.858000"));
+        storedExchangeRate.setEffectiveDate(LocalDate.of(2023, 6, 30));
+        storedExchangeRate.setRecordDate(LocalDate.of(2023, 6, 30));
+
+        given(exchangeRateRepository.findLastRecordDate()).willReturn(Optional.of(LocalDate.of(2023, 6, 30)));
+        given(exchangeRateRepository.findByCountryIn(CrossRateMatrix.getCountries())).willReturn(List.of(storedExchangeRate));
+        given(unitedStatesTreasuryClient.getExchangeRates(FIELDS, "record_date:gte:2023-06-30", "record_date", 1, 100))
+                .willReturn(response(200, PAGE));
+        given(exchangeRateRepository.upsertAll(anyList())).willAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        exchangeRateSyncService.synchronize();
+
+        verify(unitedStatesTreasuryClient, times(1))
+                .getExchangeRates(FIELDS, "record_date:gte:2023-06-30", "record_date", 1, 100);
+        Assertions.assertTrue(exchangeRateSyncService.isSynchronized(LocalDate.now()));
+
+        // The matrix starts from the stored exchange rates, which the synchronized ones follow
+        Assertions.assertEquals(2, crossRateMatrix.getSize());
+    }
+
+    @Test
+    void givenUnavailableApiWhenSynchronizeThenKeepStoredExchangeRates() {
+        given(exchangeRateRepository.findLastRecordDate()).willReturn(Optional.empty());
+        given(unitedStatesTreasuryClient.getExchangeRates(FIELDS, null, "record_date", 1, 100))
+                .willReturn(response(503, "Service unavailable"));
+
+        Assertions.assertDoesNotThrow(() -> exchangeRateSyncService.synchronize());
+
+        verify(exchangeRateRepository, never()).upsertAll(anyList());
+        verify(exchangeRateIndexLoader, never()).loadStored();
+        Assertions.assertFalse(exchangeRateSyncService.isSynchronized(LocalDate.now()));
+    }
+
+    @Test
+    void givenDisabledSyncWhenSynchronizeThenDoNothing() {
+        exchangeRateSyncProperties.setEnabled(false);
+
+        exchangeRateSyncService.synchronize();
+
+        verifyNoInteractions(unitedStatesTreasuryClient);
+        verifyNoInteractions(exchangeRateRepository);
+    }
+
+    @Test
+    void givenStoredExchangeRateWhenGetExchangeRateThenReturnExchangeRateWithTreasuryScale() {
+        LocalDate date = LocalDate.of(2023, 11, 15);
+
+        ExchangeRateEntity exchangeRateEntity = new ExchangeRateEntity();
+        exchangeRateEntity.setCurrency("Real");
+        exchangeRateEntity.setCountry("Brazil");
+        exchangeRateEntity.setExchangeRate(new BigDecimal("5.031000"));
+        exchangeRateEntity.setEffectiveDate(LocalDate.of(2023, 9, 30));
+        exchangeRateEntity.setRecordDate(LocalDate.of(2023, 9, 30));
+
+        given(exchangeRateRepository.findFirstByCurrencyAndCountryAndEffectiveDateBetweenOrderByEffectiveDateDesc(
+                "Real", "Brazil", LocalDate.of(2023, 5, 15), date)).willReturn(Optional.of(exchangeRateEntity));
+
+        ExchangeRateDataResponse result = exchangeRateSyncService.getExchangeRate("Real", "Brazil", date).orElseThrow();
+
+        Assertions.assertEquals("5.031", result.getExchangeRate().toPlainString());
+        Assertions.assertEquals("2023-09-30", result.getEffectiveDate());
+        Assertions.assertEquals("2023-09-30", result.getRecordDate());
+    }
+
+    private static Response response(int status, String body) {
+        Request request = Request.create(Request.HttpMethod.GET, "/v1/accounting/od/rates_of_exchange",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+}
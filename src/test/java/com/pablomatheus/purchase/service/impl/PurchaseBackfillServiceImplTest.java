@@ -0,0 +1,92 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.config.PurchaseBackfillProperties;
+import com.pablomatheus.purchase.repository.PurchaseBackfillRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.OptionalLong;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseBackfillServiceImplTest {
+
+    @Mock
+    private PurchaseBackfillRepository purchaseBackfillRepository;
+
+    private PurchaseBackfillProperties purchaseBackfillProperties;
+
+    private PurchaseBackfillServiceImpl purchaseBackfillService;
+
+    @BeforeEach
+    void setUp() {
+        purchaseBackfillProperties = new PurchaseBackfillProperties();
+        purchaseBackfillProperties.setEnabled(true);
+        purchaseBackfillProperties.setBatchSize(2);
+
+        purchaseBackfillService = new PurchaseBackfillServiceImpl(purchaseBackfillRepository, purchaseBackfillProperties);
+    }
+
+    @Test
+    void givenUnfilledRowsWhenBackfillThenUpdateEachBatchAndCompleteOnEmptyPass() {
+        given(purchaseBackfillRepository.findPurchasesBatchEnd(0, 2)).willReturn(OptionalLong.of(100));
+        given(purchaseBackfillRepository.findPurchasesBatchEnd(100, 2)).willReturn(OptionalLong.of(150));
+        given(purchaseBackfillRepository.findPurchasesBatchEnd(150, 2)).willReturn(OptionalLong.empty());
+        given(purchaseBackfillRepository.findConversionsBatchEnd(0, 2)).willReturn(OptionalLong.of(50));
+        given(purchaseBackfillRepository.findConversionsBatchEnd(50, 2)).willReturn(OptionalLong.empty());
+        given(purchaseBackfillRepository.backfillPurchases(0, 100)).willReturn(2, 0);
+        given(purchaseBackfillRepository.backfillPurchases(100, 150)).willReturn(1, 0);
+        given(purchaseBackfillRepository.backfillConversions(0, 50)).willReturn(1, 0);
+
+        purchaseBackfillService.backfill();
+
+        Assertions.assertFalse(purchaseBackfillService.isCompleted());
+
+        purchaseBackfillService.backfill();
+
+        Assertions.assertTrue(purchaseBackfillService.isCompleted());
+
+        purchaseBackfillService.backfill();
+
+        verify(purchaseBackfillRepository, times(2)).backfillPurchases(0, 100);
+        verify(purchaseBackfillRepository, times(2)).backfillPurchases(100, 150);
+        verify(purchaseBackfillRepository, times(2)).backfillConversions(0, 50);
+    }
+
+    @Test
+    void givenRepositoryFailureWhenBackfillThenResumeOnNextRun() {
+        given(purchaseBackfillRepository.findPurchasesBatchEnd(0, 2))
+                .willThrow(new IllegalStateException("Lock wait timeout exceeded"))
+                .willReturn(OptionalLong.empty());
+        given(purchaseBackfillRepository.findConversionsBatchEnd(0, 2)).willReturn(OptionalLong.empty());
+
+        Assertions.assertDoesNotThrow(() -> purchaseBackfillService.backfill());
+        Assertions.assertFalse(purchaseBackfillService.isCompleted());
+
+        purchaseBackfillService.backfill();
+
+        Assertions.assertTrue(purchaseBackfillService.isCompleted());
+        verify(purchaseBackfillRepository, times(2)).findPurchasesBatchEnd(0, 2);
+        verify(purchaseBackfillRepository, times(1)).findConversionsBatchEnd(0, 2);
+        verifyNoMoreInteractions(purchaseBackfillRepository);
+    }
+
+    @Test
+    void givenDisabledBackfillWhenBackfillThenDoNothing() {
+        purchaseBackfillProperties.setEnabled(false);
+
+        purchaseBackfillService.backfill();
+
+        verifyNoInteractions(purchaseBackfillRepository);
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.config.PurchaseIdempotencyProperties;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
+import com.pablomatheus.purchase.dto.IdempotentPurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseAmountDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository.IdempotencyKey;
+import com.pablomatheus.purchase.repository.PurchaseRepository;
+import com.pablomatheus.purchase.service.PurchaseIngestionService;
+import com.pablomatheus.purchase.service.PurchaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.pablomatheus.purchase.service.impl.PurchaseIdempotencyServiceImpl.requestHash;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class PurchaseIdempotencyServiceImplTest {
+
+    private final PurchaseService purchaseService = Mockito.mock(PurchaseService.class);
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<PurchaseIngestionService> purchaseIngestionService = Mockito.mock(ObjectProvider.class);
+
+    private final PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository = Mockito.mock(PurchaseIdempotencyKeyRepository.class);
+
+    private final PurchaseRepository purchaseRepository = Mockito.mock(PurchaseRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PurchaseIdempotencyServiceImpl purchaseIdempotencyService = new PurchaseIdempotencyServiceImpl(
+            purchaseService, purchaseIngestionService, purchaseIdempotencyKeyRepository, purchaseRepository,
+            Mappers.getMapper(PurchaseMapper.class), TransactionOperations.withoutTransaction(),
+            new PurchaseIdempotencyProperties());
+
+    @Test
+    void givenNewKeyWhenAddPurchaseThenSkipLookupAndAddPurchaseWithKey() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+        PurchaseDto addedPurchaseDto = purchaseDto(1L);
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto))).willReturn(addedPurchaseDto);
+
+        IdempotentPurchaseDto result = purchaseIdempotencyService.addPurchase("key", purchaseDto);
+
+        Assertions.assertEquals(addedPurchaseDto, result.getPurchase());
+        Assertions.assertFalse(result.isReplayed());
+
+        verifyNoInteractions(purchaseIdempotencyKeyRepository);
+        verifyNoInteractions(purchaseRepository);
+    }
+
+    @Test
+    void givenRecentKeyWhenAddPurchaseThenReturnOriginalPurchaseWithoutAddingItAgain() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+        PurchaseDto addedPurchaseDto = purchaseDto(1L);
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto))).willReturn(addedPurchaseDto);
+
+        purchaseIdempotencyService.addPurchase("key", purchaseDto);
+        IdempotentPurchaseDto result = purchaseIdempotencyService.addPurchase("key", purchaseDto(null));
+
+        Assertions.assertEquals(addedPurchaseDto, result.getPurchase());
+        Assertions.assertTrue(result.isReplayed());
+
+        verify(purchaseService, times(1)).addPurchase(Mockito.any(), Mockito.any());
+        verifyNoInteractions(purchaseIdempotencyKeyRepository);
+        verifyNoInteractions(purchaseRepository);
+
+        purchaseIdempotencyService.bindTo(meterRegistry);
+
+        Assertions.assertEquals(1, meterRegistry.get("purchase.idempotency.lookups").tag("source", "skipped").functionCounter().count());
+        Assertions.assertEquals(1, meterRegistry.get("purchase.idempotency.lookups").tag("source", "recent").functionCounter().count());
+        Assertions.assertEquals(1, meterRegistry.get("purchase.idempotency.replays").functionCounter().count());
+    }
+
+    @Test
+    void givenRecentKeyWhenAddPurchaseWithDifferentPurchaseThenStatus422UnprocessableEntity() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+        PurchaseDto otherPurchaseDto = purchaseDto(null);
+        otherPurchaseDto.getOriginalAmount().setValue("12.50");
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto))).willReturn(purchaseDto(1L));
+
+        purchaseIdempotencyService.addPurchase("key", purchaseDto);
+
+        ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                () -> purchaseIdempotencyService.addPurchase("key", otherPurchaseDto));
+
+        Assertions.assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+        verify(purchaseService, times(1)).addPurchase(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void givenKeyUsedBeforeRestartWhenAddPurchaseThenReturnPurchaseOfTheKey() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+        PurchaseEntity purchaseEntity = purchaseEntity(7L);
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto)))
+                .willThrow(new DuplicateKeyException("The idempotency key was already used"));
+        given(purchaseIdempotencyKeyRepository.find("key"))
+                .willReturn(Optional.of(new IdempotencyKey(7L, requestHash(purchaseDto), LocalDateTime.now())));
+        given(purchaseRepository.findById(7L)).willReturn(Optional.of(purchaseEntity));
+
+        IdempotentPurchaseDto result = purchaseIdempotencyService.addPurchase("key", purchaseDto);
+
+        Assertions.assertEquals(7L, result.getPurchase().getId());
+        Assertions.assertEquals("Test", result.getPurchase().getDescription());
+        Assertions.assertTrue(result.isReplayed());
+
+        // The key is now known by the Bloom filter and the purchase is answered from the recent keys
+        Assertions.assertTrue(purchaseIdempotencyService.addPurchase("key", purchaseDto).isReplayed());
+
+        verify(purchaseService, times(1)).addPurchase(Mockito.any(), Mockito.any());
+        verify(purchaseIdempotencyKeyRepository, times(1)).find("key");
+    }
+
+    @Test
+    void givenKeyUsedBeforeRestartWithDifferentPurchaseWhenAddPurchaseThenStatus422UnprocessableEntity() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto)))
+                .willThrow(new DuplicateKeyException("The idempotency key was already used"));
+        given(purchaseIdempotencyKeyRepository.find("key"))
+                .willReturn(Optional.of(new IdempotencyKey(7L, "other-hash", LocalDateTime.now())));
+
+        ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                () -> purchaseIdempotencyService.addPurchase("key", purchaseDto));
+
+        Assertions.assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+        verifyNoInteractions(purchaseRepository);
+    }
+
+    @Test
+    void givenKeyOfUnpersistedPurchaseWhenAddPurchaseThenStatus409Conflict() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto)))
+                .willThrow(new DuplicateKeyException("The idempotency key was already used"));
+        given(purchaseIdempotencyKeyRepository.find("key"))
+                .willReturn(Optional.of(new IdempotencyKey(7L, requestHash(purchaseDto), LocalDateTime.now())));
+        given(purchaseRepository.findById(7L)).willReturn(Optional.empty());
+
+        ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                () -> purchaseIdempotencyService.addPurchase("key", purchaseDto));
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(purchaseIdempotencyKeyRepository, never()).deleteUnpersisted(Mockito.any(), Mockito.anyLong());
+    }
+
+    @Test
+    void givenAbandonedKeyWhenAddPurchaseThenGiveUpKeyAndAddPurchaseAgain() {
+        PurchaseDto purchaseDto = purchaseDto(null);
+        PurchaseDto addedPurchaseDto = purchaseDto(8L);
+
+        given(purchaseService.addPurchase(purchaseDto, idempotencyKey(purchaseDto)))
+                .willThrow(new DuplicateKeyException("The idempotency key was already used"))
+                .willReturn(addedPurchaseDto);
+        given(purchaseIdempotencyKeyRepository.find("key")).willReturn(Optional.of(
+                new IdempotencyKey(7L, requestHash(purchaseDto), LocalDateTime.now().minusHours(1))));
+        given(purchaseRepository.findById(7L)).willReturn(Optional.empty());
+        given(purchaseIdempotencyKeyRepository.deleteUnpersisted("key", 7L)).willReturn(true);
+
+        IdempotentPurchaseDto result = purchaseIdempotencyService.addPurchase("key", purchaseDto);
+
+        Assertions.assertEquals(addedPurchaseDto, result.getPurchase());
+        Assertions.assertFalse(result.isReplayed());
+
+        verify(purchaseService, times(2)).addPurchase(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void givenAsynchronousIngestionWhenAddPurchaseThenAcceptPurchaseWithKey() {
+        PurchaseIngestionService ingestionService = Mockito.mock(PurchaseIngestionService.class);
+        PurchaseDto purchaseDto = purchaseDto(null);
+        PurchaseDto acceptedPurchaseDto = purchaseDto(51L);
+
+        given(purchaseIngestionService.getIfAvailable()).willReturn(ingestionService);
+        given(ingestionService.acceptPurchase(purchaseDto, idempotencyKey(purchaseDto))).willReturn(acceptedPurchaseDto);
+
+        IdempotentPurchaseDto result = purchaseIdempotencyService.addPurchase("key", purchaseDto);
+
+        Assertions.assertEquals(acceptedPurchaseDto, result.getPurchase());
+        Assertions.assertFalse(result.isReplayed());
+
+        verifyNoInteractions(purchaseService);
+    }
+
+    private static IdempotencyKeyDto idempotencyKey(PurchaseDto purchaseDto) {
+        return new IdempotencyKeyDto("key", requestHash(purchaseDto));
+    }
+
+    private static PurchaseDto purchaseDto(Long id) {
+        PurchaseAmountDto purchaseAmountDto = new PurchaseAmountDto();
+        purchaseAmountDto.setValue("11.25");
+        purchaseAmountDto.setCurrency("Dollar");
+        purchaseAmountDto.setCountry("United States");
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        purchaseDto.setId(id);
+        purchaseDto.setDescription("Test");
+        purchaseDto.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        purchaseDto.setOriginalAmount(purchaseAmountDto);
+        return purchaseDto;
+    }
+
+    private static PurchaseEntity purchaseEntity(Long id) {
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(id);
+        purchaseEntity.setDescription("Test");
+        purchaseEntity.setAmount(new BigDecimal("11.25"));
+        purchaseEntity.setCurrency("Dollar");
+        purchaseEntity.setCurrencyCountry("United States");
+        purchaseEntity.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        return purchaseEntity;
+    }
+
+}
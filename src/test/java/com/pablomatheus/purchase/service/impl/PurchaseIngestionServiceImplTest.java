@@ -0,0 +1,276 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.config.PurchaseIngestionProperties;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
+import com.pablomatheus.purchase.dto.PurchaseAmountDto;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository;
+import com.pablomatheus.purchase.repository.PurchaseIngestionRepository;
+import com.pablomatheus.purchase.repository.PurchaseWriteAheadLog;
+import com.pablomatheus.purchase.repository.PurchaseWriteAheadLog.Entry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PurchaseIngestionServiceImplTest {
+
+    @TempDir
+    private Path directory;
+
+    @TempDir
+    private Path deadLetterDirectory;
+
+    private final PurchaseIngestionRepository purchaseIngestionRepository = Mockito.mock(PurchaseIngestionRepository.class);
+
+    private final PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository = Mockito.mock(PurchaseIdempotencyKeyRepository.class);
+
+    private final PurchaseMapper purchaseMapper = Mappers.getMapper(PurchaseMapper.class);
+
+    private PurchaseIngestionServiceImpl purchaseIngestionService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (purchaseIngestionService != null) {
+            purchaseIngestionService.destroy();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenAcceptedPurchasesWhenAcceptPurchaseThenAllocateIdsAndPersistInBackground() throws Exception {
+        given(purchaseIngestionRepository.nextIdBlock()).willReturn(100L);
+
+        purchaseIngestionService = new PurchaseIngestionServiceImpl(purchaseIngestionRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties());
+
+        PurchaseDto first = purchaseIngestionService.acceptPurchase(purchaseDto());
+        PurchaseDto second = purchaseIngestionService.acceptPurchase(purchaseDto());
+
+        Assertions.assertEquals(51L, first.getId());
+        Assertions.assertEquals(52L, second.getId());
+
+        // Waits for the writer to persist the accepted purchases
+        purchaseIngestionService.destroy();
+        purchaseIngestionService = null;
+
+        ArgumentCaptor<List<Entry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(purchaseIngestionRepository, Mockito.atLeastOnce()).insertAll(captor.capture());
+        verify(purchaseIngestionRepository, times(1)).nextIdBlock();
+
+        Assertions.assertEquals(List.of(51L, 52L),
+                captor.getAllValues().stream().flatMap(List::stream).map(entry -> entry.purchase().getId()).toList());
+        Assertions.assertEquals(0, countSegments());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenUnpersistedPurchasesWhenRestartThenPersistRecoveredPurchases() throws Exception {
+        given(purchaseIngestionRepository.nextIdBlock()).willReturn(100L);
+        willThrow(new IllegalStateException("The database is unavailable"))
+                .given(purchaseIngestionRepository).insertAll(Mockito.anyList());
+
+        PurchaseIngestionProperties properties = properties();
+        properties.setShutdownTimeout(Duration.ofMillis(100));
+
+        purchaseIngestionService = new PurchaseIngestionServiceImpl(purchaseIngestionRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties);
+        purchaseIngestionService.acceptPurchase(purchaseDto());
+        purchaseIngestionService.destroy();
+        purchaseIngestionService = null;
+
+        Assertions.assertEquals(1, countSegments());
+
+        PurchaseIngestionRepository restartedRepository = Mockito.mock(PurchaseIngestionRepository.class);
+        purchaseIngestionService = new PurchaseIngestionServiceImpl(restartedRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties());
+
+        ArgumentCaptor<List<Entry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(restartedRepository, timeout(5000)).insertAll(captor.capture());
+
+        Assertions.assertEquals(51L, captor.getValue().get(0).purchase().getId());
+        Assertions.assertEquals("Test", captor.getValue().get(0).purchase().getDescription());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenUsedIdempotencyKeyWhenAcceptPurchaseThenRejectPurchaseBeforeAppendingIt() throws Exception {
+        IdempotencyKeyDto usedKey = new IdempotencyKeyDto("key", "hash");
+        IdempotencyKeyDto otherKey = new IdempotencyKeyDto("other-key", "hash");
+
+        given(purchaseIngestionRepository.nextIdBlock()).willReturn(100L);
+        willThrow(new DuplicateKeyException("The idempotency key was already used"))
+                .given(purchaseIdempotencyKeyRepository).insert(usedKey, 51L);
+
+        purchaseIngestionService = new PurchaseIngestionServiceImpl(purchaseIngestionRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties());
+
+        Assertions.assertThrows(DuplicateKeyException.class, () -> purchaseIngestionService.acceptPurchase(purchaseDto(), usedKey));
+
+        PurchaseDto accepted = purchaseIngestionService.acceptPurchase(purchaseDto(), otherKey);
+
+        Assertions.assertEquals(52L, accepted.getId());
+        verify(purchaseIdempotencyKeyRepository, times(1)).insert(otherKey, 52L);
+
+        purchaseIngestionService.destroy();
+        purchaseIngestionService = null;
+
+        ArgumentCaptor<List<Entry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(purchaseIngestionRepository, Mockito.atLeastOnce()).insertAll(captor.capture());
+
+        List<Entry> entries = captor.getAllValues().stream().flatMap(List::stream).toList();
+
+        Assertions.assertEquals(List.of(52L), entries.stream().map(entry -> entry.purchase().getId()).toList());
+        Assertions.assertEquals("other-key", entries.get(0).idempotencyKey());
+    }
+
+    @Test
+    void givenPurchaseRejectedByDatabaseWhenPersistThenDeadLetterItAndPersistFollowingPurchases() throws Exception {
+        IdempotencyKeyDto idempotencyKey = new IdempotencyKeyDto("key", "hash");
+        List<Long> persistedIds = new CopyOnWriteArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        given(purchaseIngestionRepository.nextIdBlock()).willReturn(100L);
+        willAnswer(invocation -> {
+            List<Entry> entries = invocation.getArgument(0);
+
+            if (entries.stream().anyMatch(entry -> entry.purchase().getId() == 52L)) {
+                throw new DataIntegrityViolationException("Out of range value for column 'amount_decimal'");
+            }
+
+            entries.forEach(entry -> persistedIds.add(entry.purchase().getId()));
+            return null;
+        }).given(purchaseIngestionRepository).insertAll(Mockito.anyList());
+
+        PurchaseIngestionProperties properties = properties();
+        properties.setLingerTime(Duration.ofMillis(200));
+
+        purchaseIngestionService = new PurchaseIngestionServiceImpl(purchaseIngestionRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties);
+        purchaseIngestionService.bindTo(registry);
+
+        purchaseIngestionService.acceptPurchase(purchaseDto());
+        purchaseIngestionService.acceptPurchase(purchaseDto(), idempotencyKey);
+        purchaseIngestionService.acceptPurchase(purchaseDto());
+        purchaseIngestionService.acceptPurchase(purchaseDto());
+
+        purchaseIngestionService.destroy();
+        purchaseIngestionService = null;
+
+        Assertions.assertEquals(List.of(51L, 53L, 54L), persistedIds.stream().sorted().toList());
+        Assertions.assertEquals(1, registry.get("purchase.ingestion.dead.lettered").functionCounter().count());
+        Assertions.assertEquals(3, registry.get("purchase.ingestion.persisted").functionCounter().count());
+        Assertions.assertEquals(0, countSegments());
+        verify(purchaseIdempotencyKeyRepository, times(1)).deleteUnpersisted("key", 52L);
+
+        try (PurchaseWriteAheadLog deadLetterLog = new PurchaseWriteAheadLog(deadLetterDirectory, 1024)) {
+            Assertions.assertEquals(List.of(52L),
+                    deadLetterLog.getRecoveredEntries().stream().map(entry -> entry.purchase().getId()).toList());
+            Assertions.assertEquals("key", deadLetterLog.getRecoveredEntries().get(0).idempotencyKey());
+        }
+    }
+
+    @Test
+    void givenDestroyedServiceWhenAcceptPurchaseThenStatus503ServiceUnavailable() throws Exception {
+        IdempotencyKeyDto idempotencyKey = new IdempotencyKeyDto("key", "hash");
+
+        given(purchaseIngestionRepository.nextIdBlock()).willReturn(100L);
+
+        PurchaseIngestionServiceImpl destroyedService = new PurchaseIngestionServiceImpl(purchaseIngestionRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties());
+        destroyedService.destroy();
+
+        ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                () -> destroyedService.acceptPurchase(purchaseDto(), idempotencyKey));
+
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        verify(purchaseIdempotencyKeyRepository, times(1)).deleteUnpersisted("key", 51L);
+    }
+
+    @Test
+    void givenFullQueueWhenAcceptPurchaseWithIdempotencyKeyThenDeleteKeyOfRejectedPurchase() {
+        IdempotencyKeyDto idempotencyKey = new IdempotencyKeyDto("key", "hash");
+        CountDownLatch unavailableDatabase = new CountDownLatch(1);
+
+        given(purchaseIngestionRepository.nextIdBlock()).willReturn(100L);
+        willAnswer(invocation -> {
+            unavailableDatabase.await();
+            return null;
+        }).given(purchaseIngestionRepository).insertAll(Mockito.anyList());
+
+        PurchaseIngestionProperties properties = properties();
+        properties.setQueueCapacity(1);
+
+        purchaseIngestionService = new PurchaseIngestionServiceImpl(purchaseIngestionRepository,
+                purchaseIdempotencyKeyRepository, purchaseMapper, properties);
+
+        try {
+            // The first purchase is taken by the writer, which is blocked, and the second one fills the queue
+            purchaseIngestionService.acceptPurchase(purchaseDto());
+            verify(purchaseIngestionRepository, timeout(5000)).insertAll(Mockito.anyList());
+            purchaseIngestionService.acceptPurchase(purchaseDto());
+
+            ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class,
+                    () -> purchaseIngestionService.acceptPurchase(purchaseDto(), idempotencyKey));
+
+            Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+            verify(purchaseIdempotencyKeyRepository, times(1)).insert(idempotencyKey, 53L);
+            verify(purchaseIdempotencyKeyRepository, times(1)).deleteUnpersisted("key", 53L);
+        } finally {
+            unavailableDatabase.countDown();
+        }
+    }
+
+    private PurchaseIngestionProperties properties() {
+        PurchaseIngestionProperties properties = new PurchaseIngestionProperties();
+        properties.setDirectory(directory.toString());
+        properties.setDeadLetterDirectory(deadLetterDirectory.toString());
+        properties.setRetryInterval(Duration.ofMillis(10));
+        return properties;
+    }
+
+    private long countSegments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static PurchaseDto purchaseDto() {
+        PurchaseAmountDto purchaseAmountDto = new PurchaseAmountDto();
+        purchaseAmountDto.setValue("11.25");
+        purchaseAmountDto.setCurrency("Dollar");
+        purchaseAmountDto.setCountry("United States");
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        purchaseDto.setDescription("Test");
+        purchaseDto.setTransactionDate(LocalDateTime.of(2023, 11, 22, 10, 30));
+        purchaseDto.setOriginalAmount(purchaseAmountDto);
+        return purchaseDto;
+    }
+
+}
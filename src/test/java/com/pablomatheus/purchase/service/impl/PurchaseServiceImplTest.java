@@ -1,29 +1,56 @@
 package com.pablomatheus.purchase.service.impl;
 
-import com.pablomatheus.purchase.client.UnitedStatesTreasuryClient;
 import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
-import com.pablomatheus.purchase.client.response.ExchangeRateResponse;
+import com.pablomatheus.purchase.config.PurchaseBatchProperties;
+import com.pablomatheus.purchase.config.PurchaseConversionProperties;
+import com.pablomatheus.purchase.config.PurchaseExportProperties;
+import com.pablomatheus.purchase.dto.ExchangeRateTargetDto;
+import com.pablomatheus.purchase.dto.IdempotencyKeyDto;
 import com.pablomatheus.purchase.dto.PurchaseAmountDto;
 import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.dto.PurchaseFilterDto;
+import com.pablomatheus.purchase.dto.PurchasePageDto;
+import com.pablomatheus.purchase.entity.PurchaseConversionEntity;
 import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.enumeration.Currency;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
 import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics;
+import com.pablomatheus.purchase.repository.PurchaseConversionRepository;
+import com.pablomatheus.purchase.repository.PurchaseIdempotencyKeyRepository;
 import com.pablomatheus.purchase.repository.PurchaseRepository;
+import com.pablomatheus.purchase.service.ExchangeRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.verify;
 import static org.mockito.Mockito.times;
@@ -36,15 +63,51 @@ class PurchaseServiceImplTest {
     @Mock
     private PurchaseRepository purchaseRepository;
 
+    @Mock
+    private PurchaseConversionRepository purchaseConversionRepository;
+
     @Mock
     private PurchaseMapper purchaseMapper;
 
+    @Spy
+    private ExchangeRateMapper exchangeRateMapper = Mappers.getMapper(ExchangeRateMapper.class);
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Spy
+    private PurchaseBatchProperties purchaseBatchProperties = new PurchaseBatchProperties();
+
+    @Spy
+    private PurchaseExportProperties purchaseExportProperties = new PurchaseExportProperties();
+
+    @Spy
+    private PurchaseConversionProperties purchaseConversionProperties = new PurchaseConversionProperties();
+
+    @Spy
+    private PurchaseConversionExecutor purchaseConversionExecutor =
+            new PurchaseConversionExecutor(new PurchaseConversionProperties());
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PurchaseConversionMetrics purchaseConversionMetrics =
+            new PurchaseConversionMetrics(meterRegistry, ObservationRegistry.NOOP);
+
     @Mock
-    private UnitedStatesTreasuryClient unitedStatesTreasuryClient;
+    private PurchaseIdempotencyKeyRepository purchaseIdempotencyKeyRepository;
 
     @InjectMocks
     private PurchaseServiceImpl purchaseService;
 
+    @AfterEach
+    void tearDown() {
+        purchaseConversionExecutor.destroy();
+    }
+
     @Test
     void givenValidPurchaseWhenAddPurchaseThenReturnAddedPurchase() {
         PurchaseDto purchaseDto = new PurchaseDto();
@@ -66,6 +129,56 @@ class PurchaseServiceImplTest {
         verifyNoMoreInteractions(purchaseRepository);
     }
 
+    @Test
+    void givenIdempotencyKeyWhenAddPurchaseThenRecordKeyWithAddedPurchase() {
+        PurchaseDto purchaseDto = new PurchaseDto();
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(1L);
+        IdempotencyKeyDto idempotencyKey = new IdempotencyKeyDto("key", "hash");
+
+        given(purchaseMapper.toEntity(purchaseDto)).willReturn(purchaseEntity);
+        given(purchaseRepository.save(purchaseEntity)).willReturn(purchaseEntity);
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
+
+        PurchaseDto result = purchaseService.addPurchase(purchaseDto, idempotencyKey);
+
+        Assertions.assertEquals(purchaseDto, result);
+
+        verify(purchaseRepository, times(1)).save(purchaseEntity);
+        verify(purchaseIdempotencyKeyRepository, times(1)).insert(idempotencyKey, 1L);
+    }
+
+    @Test
+    void givenValidPurchasesWhenAddPurchasesThenInsertPurchasesInChunks() {
+        purchaseBatchProperties.setChunkSize(2);
+
+        PurchaseDto firstPurchaseDto = new PurchaseDto();
+        firstPurchaseDto.setId(1L);
+        PurchaseDto secondPurchaseDto = new PurchaseDto();
+        secondPurchaseDto.setId(2L);
+        PurchaseDto thirdPurchaseDto = new PurchaseDto();
+        thirdPurchaseDto.setId(3L);
+
+        PurchaseEntity firstPurchaseEntity = purchaseEntity(1L);
+        PurchaseEntity secondPurchaseEntity = purchaseEntity(2L);
+        PurchaseEntity thirdPurchaseEntity = purchaseEntity(3L);
+
+        given(purchaseMapper.toEntity(firstPurchaseDto)).willReturn(firstPurchaseEntity);
+        given(purchaseMapper.toEntity(secondPurchaseDto)).willReturn(secondPurchaseEntity);
+        given(purchaseMapper.toEntity(thirdPurchaseDto)).willReturn(thirdPurchaseEntity);
+        given(purchaseRepository.insertAll(List.of(firstPurchaseEntity, secondPurchaseEntity))).willReturn(2);
+        given(purchaseRepository.insertAll(List.of(thirdPurchaseEntity))).willReturn(1);
+
+        int result = purchaseService.addPurchases(Stream.of(firstPurchaseDto, secondPurchaseDto, thirdPurchaseDto));
+
+        Assertions.assertEquals(3, result);
+
+        verify(purchaseRepository, times(1)).insertAll(List.of(firstPurchaseEntity, secondPurchaseEntity));
+        verify(purchaseRepository, times(1)).insertAll(List.of(thirdPurchaseEntity));
+
+        verifyNoMoreInteractions(purchaseRepository);
+    }
+
     @Test
     void givenValidParametersWhenGetCurrencyConvertedPurchaseThenReturnPurchase() {
         Long id = 1L;
@@ -76,16 +189,16 @@ class PurchaseServiceImplTest {
         purchaseEntity.setCurrency("Dollar");
         purchaseEntity.setCurrencyCountry("United States");
 
+        LocalDateTime transactionDate = LocalDateTime.now();
+
         PurchaseDto purchaseDto = new PurchaseDto();
-        purchaseDto.setTransactionDate(LocalDateTime.now());
+        purchaseDto.setTransactionDate(transactionDate);
 
         PurchaseAmountDto purchaseAmountDto = new PurchaseAmountDto();
         purchaseAmountDto.setValue("11.25");
 
         purchaseDto.setOriginalAmount(purchaseAmountDto);
 
-        ExchangeRateResponse exchangeRateResponse = new ExchangeRateResponse();
-
         ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
         exchangeRateDataResponse.setCurrency(currency);
         exchangeRateDataResponse.setCountry(country);
@@ -93,11 +206,10 @@ class PurchaseServiceImplTest {
         String exchangeRate = "5.033";
         exchangeRateDataResponse.setExchangeRate(new BigDecimal(exchangeRate));
 
-        exchangeRateResponse.setData(List.of(exchangeRateDataResponse));
-
         given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
         given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
-        given(unitedStatesTreasuryClient.getExchangeRate(anyString(), eq("-effective_date"))).willReturn(exchangeRateResponse);
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
 
         PurchaseDto result = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
 
@@ -108,11 +220,221 @@ class PurchaseServiceImplTest {
 
         verify(purchaseRepository, times(1)).findById(id);
         verify(purchaseMapper, times(1)).toDto(purchaseEntity);
-        verify(unitedStatesTreasuryClient, times(1)).getExchangeRate(anyString(), eq("-effective_date"));
+        verify(exchangeRateService, times(1)).getExchangeRate(currency, country, transactionDate.toLocalDate());
 
         verifyNoMoreInteractions(purchaseRepository);
         verifyNoMoreInteractions(purchaseMapper);
-        verifyNoMoreInteractions(unitedStatesTreasuryClient);
+        verifyNoMoreInteractions(exchangeRateService);
+
+        Assertions.assertEquals(1, outcomeCount("success"));
+    }
+
+    @Test
+    void givenFirstConversionWhenGetCurrencyConvertedPurchaseThenKeepConversion() {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseEntity purchaseEntity = purchaseEntity(id);
+        LocalDateTime transactionDate = LocalDateTime.now();
+        PurchaseDto purchaseDto = purchaseDto(id, transactionDate, "11.25");
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.033"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+
+        given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+
+        purchaseService.getCurrencyConvertedPurchase(id, currency, country);
+
+        ArgumentCaptor<PurchaseConversionEntity> captor = ArgumentCaptor.forClass(PurchaseConversionEntity.class);
+        verify(purchaseConversionRepository, times(1)).findByPurchaseIdAndCurrencyAndCountry(id, currency, country);
+        verify(purchaseConversionRepository, times(1)).save(captor.capture());
+
+        PurchaseConversionEntity purchaseConversionEntity = captor.getValue();
+        Assertions.assertEquals(purchaseEntity, purchaseConversionEntity.getPurchase());
+        Assertions.assertEquals(currency, purchaseConversionEntity.getCurrency());
+        Assertions.assertEquals(country, purchaseConversionEntity.getCountry());
+        Assertions.assertEquals(new BigDecimal("5.033"), purchaseConversionEntity.getExchangeRate());
+        Assertions.assertEquals(LocalDate.of(2023, 9, 30), purchaseConversionEntity.getEffectiveDate());
+        Assertions.assertEquals(new BigDecimal("56.62"), purchaseConversionEntity.getConvertedAmount());
+    }
+
+    @Test
+    void givenFirstConversionWhenGetCurrencyConvertedPurchaseThenAnswerWithRequestedCurrencyAndCountryLikeKeptConversion() {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseEntity purchaseEntity = purchaseEntity(id);
+        LocalDateTime transactionDate = LocalDateTime.now();
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency("REAL");
+        exchangeRateDataResponse.setCountry("BRAZIL");
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.0330"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+
+        given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto(id, transactionDate, "11.25"));
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+
+        PurchaseDto result = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
+
+        ArgumentCaptor<PurchaseConversionEntity> captor = ArgumentCaptor.forClass(PurchaseConversionEntity.class);
+        verify(purchaseConversionRepository, times(1)).save(captor.capture());
+
+        PurchaseAmountDto keptAmount = PurchaseServiceImpl.getConvertedAmount(captor.getValue(), exchangeRateMapper);
+        Assertions.assertEquals(keptAmount, result.getConvertedAmount());
+        Assertions.assertEquals(currency, result.getConvertedAmount().getCurrency());
+        Assertions.assertEquals(country, result.getConvertedAmount().getCountry());
+        Assertions.assertEquals("5.033", result.getConvertedAmount().getExchangeRate());
+        Assertions.assertEquals("56.62", result.getConvertedAmount().getValue());
+    }
+
+    @Test
+    void givenStaleExchangeRateWhenGetCurrencyConvertedPurchaseThenAnswerStaleConversionWithoutKeepingIt() {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseEntity purchaseEntity = purchaseEntity(id);
+        LocalDateTime transactionDate = LocalDateTime.now();
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(currency);
+        exchangeRateDataResponse.setCountry(country);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.033"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+        exchangeRateDataResponse.setStale(true);
+
+        given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto(id, transactionDate, "11.25"));
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+
+        PurchaseDto result = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
+
+        Assertions.assertEquals("56.62", result.getConvertedAmount().getValue());
+        Assertions.assertEquals("5.033", result.getConvertedAmount().getExchangeRate());
+        Assertions.assertTrue(result.getConvertedAmount().isStale());
+
+        verify(purchaseConversionRepository, times(1)).findByPurchaseIdAndCurrencyAndCountry(id, currency, country);
+        verifyNoMoreInteractions(purchaseConversionRepository);
+    }
+
+    @Test
+    void givenConcurrentlyKeptConversionWhenGetCurrencyConvertedPurchaseThenAnswerWithKeptConversion() {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseEntity purchaseEntity = purchaseEntity(id);
+        LocalDateTime transactionDate = LocalDateTime.now();
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.1"));
+        exchangeRateDataResponse.setEffectiveDate("2023-12-31");
+
+        PurchaseConversionEntity keptConversion = new PurchaseConversionEntity();
+        keptConversion.setPurchase(purchaseEntity);
+        keptConversion.setCurrency(currency);
+        keptConversion.setCountry(country);
+        keptConversion.setExchangeRate(new BigDecimal("5.033000"));
+        keptConversion.setEffectiveDate(LocalDate.of(2023, 9, 30));
+        keptConversion.setConvertedAmount(new BigDecimal("56.62"));
+
+        given(purchaseConversionRepository.findByPurchaseIdAndCurrencyAndCountry(id, currency, country))
+                .willReturn(Optional.empty(), Optional.of(keptConversion));
+        given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto(id, transactionDate, "11.25"));
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+        given(purchaseConversionRepository.save(Mockito.any(PurchaseConversionEntity.class)))
+                .willThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        PurchaseDto result = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
+
+        Assertions.assertEquals("5.033", result.getConvertedAmount().getExchangeRate());
+        Assertions.assertEquals("56.62", result.getConvertedAmount().getValue());
+        verify(purchaseConversionRepository, times(2)).findByPurchaseIdAndCurrencyAndCountry(id, currency, country);
+    }
+
+    @Test
+    void givenEuroPurchaseWhenGetCurrencyConvertedPurchaseThenConvertWithCrossRate() {
+        Long id = 1L;
+        String currency = "Pound";
+        String country = "United Kingdom";
+
+        PurchaseEntity purchaseEntity = purchaseEntity(id);
+        purchaseEntity.setCurrency("Euro");
+        purchaseEntity.setCurrencyCountry("Euro Zone");
+
+        LocalDateTime transactionDate = LocalDateTime.now();
+        PurchaseDto purchaseDto = purchaseDto(id, transactionDate, "100.00");
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(currency);
+        exchangeRateDataResponse.setCountry(country);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("0.867725"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+
+        given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
+        given(exchangeRateService.getCrossExchangeRate(Currency.EUR, currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+
+        PurchaseDto result = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
+
+        Assertions.assertEquals("86.77", result.getConvertedAmount().getValue());
+        Assertions.assertEquals(currency, result.getConvertedAmount().getCurrency());
+        Assertions.assertEquals("0.867725", result.getConvertedAmount().getExchangeRate());
+
+        verify(exchangeRateService, times(1)).getCrossExchangeRate(Currency.EUR, currency, country, transactionDate.toLocalDate());
+        verify(purchaseConversionRepository, times(1)).save(Mockito.any(PurchaseConversionEntity.class));
+
+        verifyNoMoreInteractions(exchangeRateService);
+    }
+
+    @Test
+    void givenKeptConversionWhenGetCurrencyConvertedPurchaseThenReturnKeptConversion() {
+        Long id = 1L;
+        String currency = "Real";
+        String country = "Brazil";
+
+        PurchaseEntity purchaseEntity = purchaseEntity(id);
+        PurchaseDto purchaseDto = purchaseDto(id, LocalDateTime.now(), "11.25");
+
+        PurchaseConversionEntity purchaseConversionEntity = new PurchaseConversionEntity();
+        purchaseConversionEntity.setPurchase(purchaseEntity);
+        purchaseConversionEntity.setCurrency(currency);
+        purchaseConversionEntity.setCountry(country);
+        purchaseConversionEntity.setExchangeRate(new BigDecimal("5.033000"));
+        purchaseConversionEntity.setEffectiveDate(LocalDate.of(2023, 9, 30));
+        purchaseConversionEntity.setConvertedAmount(new BigDecimal("56.62"));
+
+        given(purchaseConversionRepository.findByPurchaseIdAndCurrencyAndCountry(id, currency, country))
+                .willReturn(Optional.of(purchaseConversionEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
+
+        PurchaseDto result = purchaseService.getCurrencyConvertedPurchase(id, currency, country);
+
+        Assertions.assertEquals("56.62", result.getConvertedAmount().getValue());
+        Assertions.assertEquals(currency, result.getConvertedAmount().getCurrency());
+        Assertions.assertEquals(country, result.getConvertedAmount().getCountry());
+        Assertions.assertEquals("5.033", result.getConvertedAmount().getExchangeRate());
+
+        verify(purchaseConversionRepository, times(1)).findByPurchaseIdAndCurrencyAndCountry(id, currency, country);
+
+        verifyNoMoreInteractions(purchaseConversionRepository);
+        verifyNoInteractions(purchaseRepository);
+        verifyNoInteractions(exchangeRateService);
+
+        Assertions.assertEquals(1, outcomeCount("success"));
     }
 
     @Test
@@ -125,14 +447,14 @@ class PurchaseServiceImplTest {
         purchaseEntity.setCurrency("Dollar");
         purchaseEntity.setCurrencyCountry("United States");
 
-        PurchaseDto purchaseDto = new PurchaseDto();
-        purchaseDto.setTransactionDate(LocalDateTime.now());
+        LocalDateTime transactionDate = LocalDateTime.now();
 
-        ExchangeRateResponse exchangeRateResponse = new ExchangeRateResponse();
+        PurchaseDto purchaseDto = new PurchaseDto();
+        purchaseDto.setTransactionDate(transactionDate);
 
         given(purchaseRepository.findById(id)).willReturn(Optional.of(purchaseEntity));
         given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
-        given(unitedStatesTreasuryClient.getExchangeRate(anyString(), eq("-effective_date"))).willReturn(exchangeRateResponse);
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate())).willReturn(Optional.empty());
 
         ResponseStatusException exception = Assertions.assertThrows(
                 ResponseStatusException.class,
@@ -143,11 +465,13 @@ class PurchaseServiceImplTest {
 
         verify(purchaseRepository, times(1)).findById(id);
         verify(purchaseMapper, times(1)).toDto(purchaseEntity);
-        verify(unitedStatesTreasuryClient, times(1)).getExchangeRate(anyString(), eq("-effective_date"));
+        verify(exchangeRateService, times(1)).getExchangeRate(currency, country, transactionDate.toLocalDate());
 
         verifyNoMoreInteractions(purchaseRepository);
         verifyNoMoreInteractions(purchaseMapper);
-        verifyNoMoreInteractions(unitedStatesTreasuryClient);
+        verifyNoMoreInteractions(exchangeRateService);
+
+        Assertions.assertEquals(1, outcomeCount("no_rate_found"));
     }
 
     @Test
@@ -166,7 +490,7 @@ class PurchaseServiceImplTest {
                 ResponseStatusException.class,
                 () -> purchaseService.getCurrencyConvertedPurchase(id, currency, country));
 
-        Assertions.assertEquals("The conversion is not available, the original purchase was not made in US Dollars", exception.getReason());
+        Assertions.assertEquals("The conversion is not available, the original purchase was not made in a supported currency", exception.getReason());
         Assertions.assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
 
         verify(purchaseRepository, times(1)).findById(id);
@@ -174,7 +498,9 @@ class PurchaseServiceImplTest {
         verifyNoMoreInteractions(purchaseRepository);
 
         verifyNoInteractions(purchaseMapper);
-        verifyNoInteractions(unitedStatesTreasuryClient);
+        verifyNoInteractions(exchangeRateService);
+
+        Assertions.assertEquals(1, outcomeCount("bad_request"));
     }
 
     @Test
@@ -193,7 +519,7 @@ class PurchaseServiceImplTest {
                 ResponseStatusException.class,
                 () -> purchaseService.getCurrencyConvertedPurchase(id, currency, country));
 
-        Assertions.assertEquals("The conversion is not available, the original purchase was not made in US Dollars", exception.getReason());
+        Assertions.assertEquals("The conversion is not available, the original purchase was not made in a supported currency", exception.getReason());
         Assertions.assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
 
         verify(purchaseRepository, times(1)).findById(id);
@@ -201,7 +527,7 @@ class PurchaseServiceImplTest {
         verifyNoMoreInteractions(purchaseRepository);
 
         verifyNoInteractions(purchaseMapper);
-        verifyNoInteractions(unitedStatesTreasuryClient);
+        verifyNoInteractions(exchangeRateService);
     }
 
     @Test
@@ -219,12 +545,319 @@ class PurchaseServiceImplTest {
         Assertions.assertEquals("The purchase was not found", exception.getReason());
         Assertions.assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
 
-        verify(purchaseRepository, times(1)).findById(id);
+        // Looked up in a replica and again in the primary database
+        verify(purchaseRepository, times(2)).findById(id);
 
         verifyNoMoreInteractions(purchaseRepository);
         verifyNoInteractions(purchaseMapper);
 
-        verifyNoInteractions(unitedStatesTreasuryClient);
+        verifyNoInteractions(exchangeRateService);
+
+        Assertions.assertEquals(1, outcomeCount("not_found"));
+        Assertions.assertEquals(0, outcomeCount("success"));
+    }
+
+    @Test
+    void givenPurchasesSharingTransactionDateWhenGetCurrencyConvertedPurchasesThenLookUpExchangeRateOnce() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDateTime transactionDate = LocalDateTime.of(2023, 11, 15, 10, 0);
+
+        PurchaseEntity firstPurchaseEntity = purchaseEntity(1L);
+        PurchaseEntity secondPurchaseEntity = purchaseEntity(2L);
+
+        ExchangeRateTargetDto target = new ExchangeRateTargetDto();
+        target.setCurrency(currency);
+        target.setCountry(country);
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(currency);
+        exchangeRateDataResponse.setCountry(country);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.033"));
+
+        given(purchaseRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(secondPurchaseEntity, firstPurchaseEntity));
+        given(purchaseMapper.toDto(firstPurchaseEntity)).willAnswer(invocation -> purchaseDto(1L, transactionDate, "11.25"));
+        given(purchaseMapper.toDto(secondPurchaseEntity)).willAnswer(invocation -> purchaseDto(2L, transactionDate, "100.00"));
+        given(exchangeRateService.getExchangeRate(currency, country, transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+
+        List<PurchaseDto> result = purchaseService.getCurrencyConvertedPurchases(List.of(1L, 2L, 1L), List.of(target));
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(1L, result.get(0).getId());
+        Assertions.assertEquals("56.62", result.get(0).getConvertedAmount().getValue());
+        Assertions.assertEquals(2L, result.get(1).getId());
+        Assertions.assertEquals("503.30", result.get(1).getConvertedAmount().getValue());
+
+        verify(purchaseRepository, times(1)).findAllById(List.of(1L, 2L));
+        verify(exchangeRateService, times(1)).getExchangeRate(currency, country, transactionDate.toLocalDate());
+
+        verifyNoMoreInteractions(purchaseRepository);
+        verifyNoMoreInteractions(exchangeRateService);
+    }
+
+    @Test
+    void givenPurchasesInSameExchangeRateWindowWhenGetCurrencyConvertedPurchasesThenLookUpExchangeRateOncePerWindow() {
+        String currency = "Real";
+        String country = "Brazil";
+        LocalDateTime latestTransactionDate = LocalDateTime.of(2023, 11, 15, 10, 0);
+        LocalDateTime sameWindowTransactionDate = LocalDateTime.of(2023, 10, 20, 10, 0);
+        LocalDateTime earlierTransactionDate = LocalDateTime.of(2023, 8, 10, 10, 0);
+
+        PurchaseEntity firstPurchaseEntity = purchaseEntity(1L);
+        PurchaseEntity secondPurchaseEntity = purchaseEntity(2L);
+        PurchaseEntity thirdPurchaseEntity = purchaseEntity(3L);
+
+        ExchangeRateTargetDto target = new ExchangeRateTargetDto();
+        target.setCurrency(currency);
+        target.setCountry(country);
+
+        ExchangeRateDataResponse latestExchangeRate = new ExchangeRateDataResponse();
+        latestExchangeRate.setCurrency(currency);
+        latestExchangeRate.setCountry(country);
+        latestExchangeRate.setExchangeRate(new BigDecimal("5.033"));
+        latestExchangeRate.setEffectiveDate("2023-09-30");
+
+        ExchangeRateDataResponse earlierExchangeRate = new ExchangeRateDataResponse();
+        earlierExchangeRate.setCurrency(currency);
+        earlierExchangeRate.setCountry(country);
+        earlierExchangeRate.setExchangeRate(new BigDecimal("4.8"));
+        earlierExchangeRate.setEffectiveDate("2023-06-30");
+
+        given(purchaseRepository.findAllById(List.of(1L, 2L, 3L)))
+                .willReturn(List.of(firstPurchaseEntity, secondPurchaseEntity, thirdPurchaseEntity));
+        given(purchaseMapper.toDto(firstPurchaseEntity)).willAnswer(invocation -> purchaseDto(1L, sameWindowTransactionDate, "11.25"));
+        given(purchaseMapper.toDto(secondPurchaseEntity)).willAnswer(invocation -> purchaseDto(2L, latestTransactionDate, "100.00"));
+        given(purchaseMapper.toDto(thirdPurchaseEntity)).willAnswer(invocation -> purchaseDto(3L, earlierTransactionDate, "10.00"));
+        given(exchangeRateService.getExchangeRate(currency, country, latestTransactionDate.toLocalDate()))
+                .willReturn(Optional.of(latestExchangeRate));
+        given(exchangeRateService.getExchangeRate(currency, country, earlierTransactionDate.toLocalDate()))
+                .willReturn(Optional.of(earlierExchangeRate));
+
+        List<PurchaseDto> result = purchaseService.getCurrencyConvertedPurchases(List.of(1L, 2L, 3L), List.of(target));
+
+        Assertions.assertEquals(3, result.size());
+        Assertions.assertEquals("56.62", result.get(0).getConvertedAmount().getValue());
+        Assertions.assertEquals("5.033", result.get(0).getConvertedAmount().getExchangeRate());
+        Assertions.assertEquals("503.30", result.get(1).getConvertedAmount().getValue());
+        Assertions.assertEquals("5.033", result.get(1).getConvertedAmount().getExchangeRate());
+        Assertions.assertEquals("48.00", result.get(2).getConvertedAmount().getValue());
+        Assertions.assertEquals("4.8", result.get(2).getConvertedAmount().getExchangeRate());
+
+        // The purchase made after the effective date of the latest exchange rate is converted without its own lookup
+        verify(exchangeRateService, times(1)).getExchangeRate(currency, country, latestTransactionDate.toLocalDate());
+        verify(exchangeRateService, times(1)).getExchangeRate(currency, country, earlierTransactionDate.toLocalDate());
+
+        verifyNoMoreInteractions(exchangeRateService);
+    }
+
+    @Test
+    void givenNotFoundPurchaseWhenGetCurrencyConvertedPurchasesThenThrowException() {
+        ExchangeRateTargetDto target = new ExchangeRateTargetDto();
+        target.setCurrency("Real");
+        target.setCountry("Brazil");
+
+        given(purchaseRepository.findAllById(List.of(1L))).willReturn(List.of());
+
+        ResponseStatusException exception = Assertions.assertThrows(
+                ResponseStatusException.class,
+                () -> purchaseService.getCurrencyConvertedPurchases(List.of(1L), List.of(target)));
+
+        Assertions.assertEquals("The purchase was not found", exception.getReason());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+
+        // Looked up in a replica and again in the primary database
+        verify(purchaseRepository, times(2)).findAllById(List.of(1L));
+        verifyNoInteractions(purchaseMapper);
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void givenSlowExchangeRateWhenGetCurrencyConvertedPurchasesThenThrowGatewayTimeout() throws InterruptedException {
+        purchaseConversionProperties.setTimeout(Duration.ofMillis(50));
+        LocalDateTime transactionDate = LocalDateTime.of(2023, 11, 15, 10, 0);
+
+        PurchaseEntity purchaseEntity = purchaseEntity(1L);
+
+        ExchangeRateTargetDto target = new ExchangeRateTargetDto();
+        target.setCurrency("Real");
+        target.setCountry("Brazil");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+
+        given(purchaseRepository.findAllById(List.of(1L))).willReturn(List.of(purchaseEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willAnswer(invocation -> purchaseDto(1L, transactionDate, "11.25"));
+        given(exchangeRateService.getExchangeRate("Real", "Brazil", transactionDate.toLocalDate())).willAnswer(invocation -> {
+            started.countDown();
+            released.await();
+            return Optional.empty();
+        });
+
+        ResponseStatusException exception = Assertions.assertThrows(
+                ResponseStatusException.class,
+                () -> purchaseService.getCurrencyConvertedPurchases(List.of(1L), List.of(target)));
+
+        released.countDown();
+
+        Assertions.assertEquals(HttpStatus.GATEWAY_TIMEOUT, exception.getStatusCode());
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, outcomeCount("success"));
+    }
+
+    @Test
+    void givenKeptAndNewTargetsWhenGetCurrencyConvertedPurchaseThenLookUpNewTargetsOnlyAndKeepThem() {
+        LocalDateTime transactionDate = LocalDateTime.of(2023, 11, 15, 10, 0);
+        PurchaseEntity purchaseEntity = purchaseEntity(1L);
+
+        PurchaseConversionEntity purchaseConversionEntity = new PurchaseConversionEntity();
+        purchaseConversionEntity.setPurchase(purchaseEntity);
+        purchaseConversionEntity.setCurrency("Real");
+        purchaseConversionEntity.setCountry("Brazil");
+        purchaseConversionEntity.setExchangeRate(new BigDecimal("5.033000"));
+        purchaseConversionEntity.setEffectiveDate(LocalDate.of(2023, 9, 30));
+        purchaseConversionEntity.setConvertedAmount(new BigDecimal("56.62"));
+
+        ExchangeRateTargetDto keptTarget = new ExchangeRateTargetDto();
+        keptTarget.setCurrency("Real");
+        keptTarget.setCountry("Brazil");
+
+        ExchangeRateTargetDto newTarget = new ExchangeRateTargetDto();
+        newTarget.setCurrency("Euro");
+        newTarget.setCountry("Germany");
+
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency("Euro");
+        exchangeRateDataResponse.setCountry("Germany");
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("0.9"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+
+        given(purchaseRepository.findById(1L)).willReturn(Optional.of(purchaseEntity));
+        given(purchaseConversionRepository.findByPurchaseId(1L)).willReturn(List.of(purchaseConversionEntity));
+        given(purchaseMapper.toDto(purchaseEntity)).willAnswer(invocation -> purchaseDto(1L, transactionDate, "11.25"));
+        given(exchangeRateService.getExchangeRate("Euro", "Germany", transactionDate.toLocalDate()))
+                .willReturn(Optional.of(exchangeRateDataResponse));
+
+        List<PurchaseDto> result = purchaseService.getCurrencyConvertedPurchase(1L, List.of(keptTarget, newTarget, keptTarget));
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("Real", result.get(0).getConvertedAmount().getCurrency());
+        Assertions.assertEquals("56.62", result.get(0).getConvertedAmount().getValue());
+        Assertions.assertEquals("Euro", result.get(1).getConvertedAmount().getCurrency());
+        Assertions.assertEquals("10.12", result.get(1).getConvertedAmount().getValue());
+
+        ArgumentCaptor<PurchaseConversionEntity> captor = ArgumentCaptor.forClass(PurchaseConversionEntity.class);
+        verify(purchaseConversionRepository, times(1)).save(captor.capture());
+
+        Assertions.assertEquals("Euro", captor.getValue().getCurrency());
+        Assertions.assertEquals(new BigDecimal("10.12"), captor.getValue().getConvertedAmount());
+
+        verify(exchangeRateService, times(1)).getExchangeRate("Euro", "Germany", transactionDate.toLocalDate());
+        verifyNoMoreInteractions(exchangeRateService);
+        Assertions.assertEquals(2, outcomeCount("success"));
+    }
+
+    @Test
+    void givenMorePurchasesThanPageSizeWhenGetPurchasesThenReturnPageWithNextCursor() {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        PurchaseFilterDto purchaseFilterDto = new PurchaseFilterDto(from, to, "Dollar", "United States");
+
+        PurchaseEntity firstPurchaseEntity = purchaseEntity(1L);
+        firstPurchaseEntity.setTransactionDate(from.plusDays(1));
+        PurchaseEntity secondPurchaseEntity = purchaseEntity(2L);
+        secondPurchaseEntity.setTransactionDate(from.plusDays(2));
+        PurchaseEntity thirdPurchaseEntity = purchaseEntity(3L);
+        thirdPurchaseEntity.setTransactionDate(from.plusDays(3));
+
+        PurchaseDto firstPurchaseDto = new PurchaseDto();
+        PurchaseDto secondPurchaseDto = new PurchaseDto();
+
+        given(purchaseRepository.findPage(from, to, "Dollar", "United States", from, 0L, PageRequest.of(0, 3)))
+                .willReturn(List.of(firstPurchaseEntity, secondPurchaseEntity, thirdPurchaseEntity));
+        given(purchaseMapper.toDto(firstPurchaseEntity)).willReturn(firstPurchaseDto);
+        given(purchaseMapper.toDto(secondPurchaseEntity)).willReturn(secondPurchaseDto);
+
+        PurchasePageDto result = purchaseService.getPurchases(purchaseFilterDto, null, 2);
+
+        Assertions.assertEquals(List.of(firstPurchaseDto, secondPurchaseDto), result.getPurchases());
+        Assertions.assertNotNull(result.getNext());
+
+        given(purchaseRepository.findPage(from, to, "Dollar", "United States", from.plusDays(2), 2L, PageRequest.of(0, 3)))
+                .willReturn(List.of(thirdPurchaseEntity));
+        given(purchaseMapper.toDto(thirdPurchaseEntity)).willReturn(new PurchaseDto());
+
+        PurchasePageDto nextResult = purchaseService.getPurchases(purchaseFilterDto, result.getNext(), 2);
+
+        Assertions.assertEquals(1, nextResult.getPurchases().size());
+        Assertions.assertNull(nextResult.getNext());
+
+        verify(purchaseRepository, times(2)).findPage(Mockito.eq(from), Mockito.eq(to), Mockito.eq("Dollar"),
+                Mockito.eq("United States"), Mockito.any(), Mockito.any(), Mockito.eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    void givenInvalidCursorWhenGetPurchasesThenThrowException() {
+        PurchaseFilterDto purchaseFilterDto = new PurchaseFilterDto(
+                LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0), null, null);
+
+        ResponseStatusException exception = Assertions.assertThrows(
+                ResponseStatusException.class,
+                () -> purchaseService.getPurchases(purchaseFilterDto, "not-a-cursor", 10));
+
+        Assertions.assertEquals("The cursor is not valid", exception.getReason());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+
+        verifyNoInteractions(purchaseRepository);
+    }
+
+    @Test
+    void givenPurchasesWhenExportPurchasesThenConsumeMappedPurchases() {
+        purchaseExportProperties.setFetchSize(50);
+
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        PurchaseFilterDto purchaseFilterDto = new PurchaseFilterDto(from, to, null, null);
+
+        PurchaseEntity purchaseEntity = purchaseEntity(1L);
+        PurchaseDto purchaseDto = new PurchaseDto();
+
+        given(purchaseMapper.toDto(purchaseEntity)).willReturn(purchaseDto);
+        given(purchaseRepository.forEachPurchase(Mockito.eq(from), Mockito.eq(to), Mockito.isNull(), Mockito.isNull(),
+                Mockito.eq(50), Mockito.any())).willAnswer(invocation -> {
+                    Consumer<PurchaseEntity> consumer = invocation.getArgument(5);
+                    consumer.accept(purchaseEntity);
+                    return 1L;
+                });
+
+        List<PurchaseDto> exportedPurchaseDtos = new ArrayList<>();
+        long result = purchaseService.exportPurchases(purchaseFilterDto, exportedPurchaseDtos::add);
+
+        Assertions.assertEquals(1L, result);
+        Assertions.assertEquals(List.of(purchaseDto), exportedPurchaseDtos);
+    }
+
+    private static PurchaseEntity purchaseEntity(Long id) {
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(id);
+        purchaseEntity.setCurrency("Dollar");
+        purchaseEntity.setCurrencyCountry("United States");
+        return purchaseEntity;
+    }
+
+    private static PurchaseDto purchaseDto(Long id, LocalDateTime transactionDate, String amount) {
+        PurchaseAmountDto purchaseAmountDto = new PurchaseAmountDto();
+        purchaseAmountDto.setValue(amount);
+
+        PurchaseDto purchaseDto = new PurchaseDto();
+        purchaseDto.setId(id);
+        purchaseDto.setTransactionDate(transactionDate);
+        purchaseDto.setOriginalAmount(purchaseAmountDto);
+        return purchaseDto;
+    }
+
+    private double outcomeCount(String outcome) {
+        return meterRegistry.get(PurchaseConversionMetrics.OUTCOME_COUNTER).tag("outcome", outcome).counter().count();
     }
 
 }
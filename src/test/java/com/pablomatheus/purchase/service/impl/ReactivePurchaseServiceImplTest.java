@@ -0,0 +1,196 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import com.pablomatheus.purchase.dto.PurchaseDto;
+import com.pablomatheus.purchase.entity.PurchaseConversionEntity;
+import com.pablomatheus.purchase.entity.PurchaseEntity;
+import com.pablomatheus.purchase.mapper.ExchangeRateMapper;
+import com.pablomatheus.purchase.mapper.PurchaseMapper;
+import com.pablomatheus.purchase.metrics.PurchaseConversionMetrics;
+import com.pablomatheus.purchase.repository.ReactivePurchaseRepository;
+import com.pablomatheus.purchase.service.ReactiveExchangeRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePurchaseServiceImplTest {
+
+    private static final Long ID = 1L;
+    private static final String CURRENCY = "Real";
+    private static final String COUNTRY = "Brazil";
+    private static final LocalDateTime TRANSACTION_DATE = LocalDateTime.of(2023, 11, 22, 10, 30);
+
+    @Mock
+    private ReactivePurchaseRepository reactivePurchaseRepository;
+
+    @Spy
+    private PurchaseMapper purchaseMapper = Mappers.getMapper(PurchaseMapper.class);
+
+    @Spy
+    private ExchangeRateMapper exchangeRateMapper = Mappers.getMapper(ExchangeRateMapper.class);
+
+    @Mock
+    private ReactiveExchangeRateService reactiveExchangeRateService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PurchaseConversionMetrics purchaseConversionMetrics =
+            new PurchaseConversionMetrics(meterRegistry, ObservationRegistry.NOOP);
+
+    @InjectMocks
+    private ReactivePurchaseServiceImpl reactivePurchaseService;
+
+    @Test
+    void givenKeptConversionWhenGetCurrencyConvertedPurchaseThenReturnKeptConversion() {
+        PurchaseConversionEntity purchaseConversionEntity = new PurchaseConversionEntity();
+        purchaseConversionEntity.setPurchase(purchaseEntity());
+        purchaseConversionEntity.setCurrency(CURRENCY);
+        purchaseConversionEntity.setCountry(COUNTRY);
+        purchaseConversionEntity.setExchangeRate(new BigDecimal("5.033000"));
+        purchaseConversionEntity.setEffectiveDate(LocalDate.of(2023, 9, 30));
+        purchaseConversionEntity.setConvertedAmount(new BigDecimal("56.62"));
+
+        given(reactivePurchaseRepository.findConversion(ID, CURRENCY, COUNTRY)).willReturn(Mono.just(purchaseConversionEntity));
+
+        StepVerifier.create(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .assertNext(purchaseDto -> {
+                    Assertions.assertEquals("11.25", purchaseDto.getOriginalAmount().getValue());
+                    Assertions.assertEquals("56.62", purchaseDto.getConvertedAmount().getValue());
+                    Assertions.assertEquals("5.033", purchaseDto.getConvertedAmount().getExchangeRate());
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(reactiveExchangeRateService);
+        Assertions.assertEquals(1, outcomeCount("success"));
+    }
+
+    @Test
+    void givenFirstConversionWhenGetCurrencyConvertedPurchaseThenConvertAndKeepConversion() {
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(CURRENCY);
+        exchangeRateDataResponse.setCountry(COUNTRY);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.033"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+
+        given(reactivePurchaseRepository.findConversion(ID, CURRENCY, COUNTRY)).willReturn(Mono.empty());
+        given(reactivePurchaseRepository.findById(ID)).willReturn(Mono.just(purchaseEntity()));
+        given(reactiveExchangeRateService.getExchangeRate(CURRENCY, COUNTRY, TRANSACTION_DATE.toLocalDate()))
+                .willReturn(Mono.just(exchangeRateDataResponse));
+        given(reactivePurchaseRepository.saveConversion(Mockito.any())).willReturn(Mono.empty());
+
+        StepVerifier.create(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .assertNext(purchaseDto -> {
+                    Assertions.assertEquals("56.62", purchaseDto.getConvertedAmount().getValue());
+                    Assertions.assertEquals("5.033", purchaseDto.getConvertedAmount().getExchangeRate());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<PurchaseConversionEntity> captor = ArgumentCaptor.forClass(PurchaseConversionEntity.class);
+        verify(reactivePurchaseRepository, times(1)).saveConversion(captor.capture());
+
+        Assertions.assertEquals(ID, captor.getValue().getPurchase().getId());
+        Assertions.assertEquals(new BigDecimal("56.62"), captor.getValue().getConvertedAmount());
+        Assertions.assertEquals(LocalDate.of(2023, 9, 30), captor.getValue().getEffectiveDate());
+        Assertions.assertEquals(1, outcomeCount("success"));
+    }
+
+    @Test
+    void givenStaleExchangeRateWhenGetCurrencyConvertedPurchaseThenAnswerStaleConversionWithoutKeepingIt() {
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setCurrency(CURRENCY);
+        exchangeRateDataResponse.setCountry(COUNTRY);
+        exchangeRateDataResponse.setExchangeRate(new BigDecimal("5.033"));
+        exchangeRateDataResponse.setEffectiveDate("2023-09-30");
+        exchangeRateDataResponse.setStale(true);
+
+        given(reactivePurchaseRepository.findConversion(ID, CURRENCY, COUNTRY)).willReturn(Mono.empty());
+        given(reactivePurchaseRepository.findById(ID)).willReturn(Mono.just(purchaseEntity()));
+        given(reactiveExchangeRateService.getExchangeRate(CURRENCY, COUNTRY, TRANSACTION_DATE.toLocalDate()))
+                .willReturn(Mono.just(exchangeRateDataResponse));
+
+        StepVerifier.create(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .assertNext(purchaseDto -> {
+                    Assertions.assertEquals("56.62", purchaseDto.getConvertedAmount().getValue());
+                    Assertions.assertTrue(purchaseDto.getConvertedAmount().isStale());
+                })
+                .verifyComplete();
+
+        verify(reactivePurchaseRepository, never()).saveConversion(Mockito.any());
+        Assertions.assertEquals(1, outcomeCount("success"));
+    }
+
+    @Test
+    void givenNotFoundPurchaseWhenGetCurrencyConvertedPurchaseThenThrowException() {
+        given(reactivePurchaseRepository.findConversion(ID, CURRENCY, COUNTRY)).willReturn(Mono.empty());
+        given(reactivePurchaseRepository.findById(ID)).willReturn(Mono.empty());
+
+        StepVerifier.create(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .expectErrorSatisfies(exception -> {
+                    Assertions.assertInstanceOf(ResponseStatusException.class, exception);
+                    Assertions.assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) exception).getStatusCode());
+                })
+                .verify();
+
+        verifyNoInteractions(reactiveExchangeRateService);
+        Assertions.assertEquals(1, outcomeCount("not_found"));
+    }
+
+    @Test
+    void givenNoExchangeRateFoundWhenGetCurrencyConvertedPurchaseThenThrowException() {
+        given(reactivePurchaseRepository.findConversion(ID, CURRENCY, COUNTRY)).willReturn(Mono.empty());
+        given(reactivePurchaseRepository.findById(ID)).willReturn(Mono.just(purchaseEntity()));
+        given(reactiveExchangeRateService.getExchangeRate(CURRENCY, COUNTRY, TRANSACTION_DATE.toLocalDate()))
+                .willReturn(Mono.empty());
+
+        StepVerifier.create(reactivePurchaseService.getCurrencyConvertedPurchase(ID, CURRENCY, COUNTRY))
+                .expectErrorSatisfies(exception -> {
+                    Assertions.assertInstanceOf(ResponseStatusException.class, exception);
+                    Assertions.assertEquals("No exchange rates were found to perform the conversion",
+                            ((ResponseStatusException) exception).getReason());
+                })
+                .verify();
+
+        Assertions.assertEquals(1, outcomeCount("no_rate_found"));
+    }
+
+    private static PurchaseEntity purchaseEntity() {
+        PurchaseEntity purchaseEntity = new PurchaseEntity();
+        purchaseEntity.setId(ID);
+        purchaseEntity.setDescription("Test");
+        purchaseEntity.setAmount(new BigDecimal("11.2500"));
+        purchaseEntity.setCurrency("Dollar");
+        purchaseEntity.setCurrencyCountry("United States");
+        purchaseEntity.setTransactionDate(TRANSACTION_DATE);
+        return purchaseEntity;
+    }
+
+    private double outcomeCount(String outcome) {
+        return meterRegistry.get(PurchaseConversionMetrics.OUTCOME_COUNTER).tag("outcome", outcome).counter().count();
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.pablomatheus.purchase.service.impl;
+
+import com.pablomatheus.purchase.client.response.ExchangeRateDataResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+class ScaledDecimalTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void givenRandomAmountsAndRatesWhenMultiplyThenMatchBigDecimalHalfEven() {
+        Random random = new Random(20231122L);
+
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            BigDecimal amount = randomDecimal(random, 15, 4);
+            BigDecimal rate = randomDecimal(random, 12, 8);
+
+            assertSameConversion(amount.toPlainString(), rate);
+        }
+    }
+
+    @Test
+    void givenRandomTiesWhenMultiplyThenRoundHalfToEven() {
+        Random random = new Random(20231123L);
+
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            // Amounts ending in 5 at the third decimal place multiplied by 1 always fall exactly between two cents
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(-1_000_000L, 1_000_000L) * 10 + 5, 3);
+            BigDecimal rate = random.nextBoolean() ? BigDecimal.ONE : BigDecimal.valueOf(random.nextInt(1, 1000), 1);
+
+            assertSameConversion(amount.toPlainString(), rate);
+        }
+    }
+
+    @Test
+    void givenRandomValuesWhenToPlainStringThenMatchBigDecimal() {
+        Random random = new Random(20231124L);
+
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            long unscaledValue = random.nextLong();
+            int scale = random.nextInt(19);
+
+            Assertions.assertEquals(BigDecimal.valueOf(unscaledValue, scale).toPlainString(),
+                    new ScaledDecimal(unscaledValue, scale).toPlainString());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "10.00, 5.033, 50.33",
+            "11.25, 5.033, 56.62",
+            "0.125, 1, 0.12",
+            "0.135, 1, 0.14",
+            "-0.125, 1, -0.12",
+            "-0.135, 1, -0.14",
+            "1, 0.1, 0.10",
+            "0.001, 1, 0.00",
+            "-0.001, 1, 0.00"
+    })
+    void givenAmountAndRateWhenMultiplyThenRoundHalfToEven(String amount, String rate, String expected) {
+        ScaledDecimal convertedAmount = ScaledDecimal.parse(amount).multiply(ScaledDecimal.of(new BigDecimal(rate)), 2);
+
+        Assertions.assertEquals(expected, convertedAmount.toPlainString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", ".", "1E+3", "1.2.3", "12a", "1234567890123456789"})
+    void givenUnsupportedAmountWhenParseThenReturnNull(String amount) {
+        Assertions.assertNull(ScaledDecimal.parse(amount));
+    }
+
+    @Test
+    void givenUnsupportedRateWhenOfThenReturnNull() {
+        Assertions.assertNull(ScaledDecimal.of(new BigDecimal("1E+3")));
+        Assertions.assertNull(ScaledDecimal.of(new BigDecimal("1234567890.123456789")));
+    }
+
+    @Test
+    void givenOverflowingProductWhenMultiplyThenReturnNull() {
+        ScaledDecimal amount = ScaledDecimal.parse("999999999999999.99");
+        ScaledDecimal rate = ScaledDecimal.of(new BigDecimal("99999.9999"));
+
+        Assertions.assertNull(amount.multiply(rate, 2));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "999999999999999.99, 99999.9999",
+            "1E+3, 4.858",
+            "0.0000001, 4.858",
+            "10.00, 1E+3"
+    })
+    void givenUnsupportedValuesWhenConvertThenFallBackToBigDecimal(String amount, String rate) {
+        assertSameConversion(amount, new BigDecimal(rate));
+    }
+
+    private static void assertSameConversion(String amount, BigDecimal rate) {
+        ExchangeRateDataResponse exchangeRateDataResponse = new ExchangeRateDataResponse();
+        exchangeRateDataResponse.setExchangeRate(rate);
+
+        String expected = new BigDecimal(amount).multiply(rate).setScale(2, RoundingMode.HALF_EVEN).toPlainString();
+
+        Assertions.assertEquals(expected, PurchaseServiceImpl.ConversionRate.of(exchangeRateDataResponse).convert(amount),
+                () -> "Conversion of [" + amount + "] with the rate [" + rate.toPlainString() + "]");
+    }
+
+    private static BigDecimal randomDecimal(Random random, int maximumDigits, int maximumScale) {
+        long bound = BigDecimal.TEN.pow(random.nextInt(1, maximumDigits + 1)).longValueExact();
+        return BigDecimal.valueOf(random.nextLong(-bound + 1, bound), random.nextInt(maximumScale + 1));
+    }
+
+}